@@ -0,0 +1,423 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is a dynamic AABB tree broadphase. Every body gets a leaf with a box a little
+* larger than it needs, and only bodies that leave their box are re-inserted, so a crowd that mixes tiny
+* and huge enemies is handled as well as a uniform one. Every node also keeps the union of the collision
+* layers and masks below it, so queries drop whole subtrees the asker cannot collide with
+*/
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class AabbTree implements Broadphase {
+    // Marks a missing node
+    private static final int NULL = -1;
+    // How far a leaf's box reaches past its body, so small moves need no re-insert
+    private static final float FAT_MARGIN = 4f;
+    // Starting number of nodes
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Node boxes, four floats per node (min x, min y, max x, max y), and child
+    // links, two ints per node. Each node's box and links sit side by side in
+    // their own array, so a query reads one short run from each per node
+    private float[] box = new float[INITIAL_CAPACITY * 4];
+    private int[] child = new int[INITIAL_CAPACITY * 2];
+    // Parent links; parent doubles as the next pointer of the free list
+    private int[] parent = new int[INITIAL_CAPACITY];
+    // Height of each node: 0 for leaves, -1 for free nodes
+    private int[] height = new int[INITIAL_CAPACITY];
+    // Packed slot and key of each leaf, and the update that last saw it
+    private int[] slot = new int[INITIAL_CAPACITY], key = new int[INITIAL_CAPACITY];
+    private int[] seen = new int[INITIAL_CAPACITY];
+    // Collision layer and mask of each leaf, or the union of them under each inner node
+    private int[] nodeLayers = new int[INITIAL_CAPACITY], nodeMasks = new int[INITIAL_CAPACITY];
+
+    private int root = NULL;
+    private int freeList = NULL;
+    private int nodeCapacity;
+    private int updateCount;
+    // Re-inserts done by the last update
+    private int reinserted;
+
+    // Leaf of each enemy handle, indexed by the handle's slot index
+    private int[] leafByHandle = new int[INITIAL_CAPACITY];
+    // Leaves left over from bodies that are gone, gathered before removal
+    private int[] stale = new int[INITIAL_CAPACITY];
+
+    public AabbTree() {
+        Arrays.fill(leafByHandle, NULL);
+        growNodes(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void update(float[] xs, float[] ys, float[] radii, int[] keys, int[] layers, int[] masks, int count) {
+        updateCount++;
+        reinserted = 0;
+        for (int i = 0; i < count; i++) {
+            float r = radii[i];
+            float x0 = xs[i] - r, y0 = ys[i] - r, x1 = xs[i] + r, y1 = ys[i] + r;
+            int k = keys[i];
+            int leaf = NULL;
+            if (k != EnemyHandles.NONE) {
+                int index = EnemyHandles.indexOf(k);
+                if (index >= leafByHandle.length) {
+                    int old = leafByHandle.length;
+                    leafByHandle = Arrays.copyOf(leafByHandle, Math.max(index + 1, old * 2));
+                    Arrays.fill(leafByHandle, old, leafByHandle.length, NULL);
+                }
+                leaf = leafByHandle[index];
+                // A leaf left behind by an earlier enemy in the same handle slot is
+                // not reused; it is removed below as unseen
+                if (leaf != NULL && key[leaf] != k) {
+                    leaf = NULL;
+                }
+                if (leaf == NULL) {
+                    leaf = allocateNode();
+                    leafByHandle[index] = leaf;
+                    setFatBox(leaf, x0, y0, x1, y1);
+                    setLayers(leaf, layers[i], masks[i]);
+                    insertLeaf(leaf);
+                }
+            } else {
+                // Bodies without a handle cannot be followed between updates, so they
+                // get a fresh leaf every time and the old one is dropped as unseen
+                leaf = allocateNode();
+                setFatBox(leaf, x0, y0, x1, y1);
+                setLayers(leaf, layers[i], masks[i]);
+                insertLeaf(leaf);
+            }
+            int b = leaf * 4;
+            if (x0 < box[b] || y0 < box[b + 1] || x1 > box[b + 2] || y1 > box[b + 3]) {
+                removeLeaf(leaf);
+                setFatBox(leaf, x0, y0, x1, y1);
+                setLayers(leaf, layers[i], masks[i]);
+                insertLeaf(leaf);
+                reinserted++;
+            } else if (nodeLayers[leaf] != layers[i] || nodeMasks[leaf] != masks[i]) {
+                // The unions above the leaf have to be rebuilt too
+                setLayers(leaf, layers[i], masks[i]);
+                refitUpwards(parent[leaf]);
+            }
+            key[leaf] = k;
+            slot[leaf] = i;
+            seen[leaf] = updateCount;
+        }
+
+        // Drop leaves of bodies that were not in this update
+        int staleCount = 0;
+        for (int node = 0; node < nodeCapacity; node++) {
+            if (height[node] == 0 && seen[node] != updateCount) {
+                if (staleCount == stale.length) {
+                    stale = Arrays.copyOf(stale, stale.length * 2);
+                }
+                stale[staleCount++] = node;
+            }
+        }
+        for (int s = 0; s < staleCount; s++) {
+            int leaf = stale[s];
+            int k = key[leaf];
+            if (k != EnemyHandles.NONE && leafByHandle[EnemyHandles.indexOf(k)] == leaf) {
+                leafByHandle[EnemyHandles.indexOf(k)] = NULL;
+            }
+            removeLeaf(leaf);
+            freeNode(leaf);
+        }
+    }
+
+    @Override
+    public void query(float qMinX, float qMinY, float qMaxX, float qMaxY, int layer, int mask,
+            IntConsumer visitor) {
+        if (root != NULL) {
+            query(root, qMinX, qMinY, qMaxX, qMaxY, layer, mask, visitor);
+        }
+    }
+
+    // Recursive descent; the tree is kept balanced, so the depth stays small and
+    // no shared stack is needed, which keeps concurrent queries safe. A subtree
+    // is dropped when none of its layers or none of its masks fit the asker; at a
+    // leaf the same test is the exact CollisionLayer.canCollide
+    private void query(int node, float qMinX, float qMinY, float qMaxX, float qMaxY, int layer, int mask,
+            IntConsumer visitor) {
+        if (!CollisionLayer.canCollide(layer, mask, nodeLayers[node], nodeMasks[node])) {
+            return;
+        }
+        int b = node * 4;
+        if (box[b + 2] < qMinX || box[b + 3] < qMinY || box[b] > qMaxX || box[b + 1] > qMaxY) {
+            return;
+        }
+        int first = child[node * 2];
+        if (first == NULL) {
+            visitor.accept(slot[node]);
+            return;
+        }
+        query(first, qMinX, qMinY, qMaxX, qMaxY, layer, mask, visitor);
+        query(child[node * 2 + 1], qMinX, qMinY, qMaxX, qMaxY, layer, mask, visitor);
+    }
+
+    // Height of the tree, 0 when it holds a single leaf
+    public int getHeight() {
+        return root == NULL ? 0 : height[root];
+    }
+
+    // Number of leaves the last update had to re-insert
+    public int getReinsertedCount() {
+        return reinserted;
+    }
+
+    // Gives a leaf its body's box grown by the margin
+    private void setFatBox(int leaf, float x0, float y0, float x1, float y1) {
+        box[leaf * 4] = x0 - FAT_MARGIN;
+        box[leaf * 4 + 1] = y0 - FAT_MARGIN;
+        box[leaf * 4 + 2] = x1 + FAT_MARGIN;
+        box[leaf * 4 + 3] = y1 + FAT_MARGIN;
+    }
+
+    // Gives a leaf its body's collision layer and mask
+    private void setLayers(int leaf, int layer, int mask) {
+        nodeLayers[leaf] = layer;
+        nodeMasks[leaf] = mask;
+    }
+
+    // Adds a leaf next to the sibling that grows the tree's total perimeter the
+    // least, then refits and rebalances the path back to the root
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        int index = root;
+        while (height[index] > 0) {
+            int child1 = child[index * 2];
+            int child2 = child[index * 2 + 1];
+            float area = perimeter(index);
+            float combined = unionPerimeter(index, leaf);
+            // Cost of making a new parent for this node and the leaf
+            float cost = 2f * combined;
+            // Cost that pushing the leaf further down adds to this node
+            float inheritance = 2f * (combined - area);
+            float cost1 = descendCost(child1, leaf) + inheritance;
+            float cost2 = descendCost(child2, leaf) + inheritance;
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            index = cost1 < cost2 ? child1 : child2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        slot[newParent] = NULL;
+        height[newParent] = height[sibling] + 1;
+        union(newParent, sibling, leaf);
+        if (oldParent != NULL) {
+            if (child[oldParent * 2] == sibling) {
+                child[oldParent * 2] = newParent;
+            } else {
+                child[oldParent * 2 + 1] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child[newParent * 2] = sibling;
+        child[newParent * 2 + 1] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refitUpwards(parent[leaf]);
+    }
+
+    // Takes a leaf out of the tree; its parent is freed and the sibling moves up
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int up = parent[leaf];
+        int grandParent = parent[up];
+        int sibling = child[up * 2] == leaf ? child[up * 2 + 1] : child[up * 2];
+        if (grandParent != NULL) {
+            if (child[grandParent * 2] == up) {
+                child[grandParent * 2] = sibling;
+            } else {
+                child[grandParent * 2 + 1] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(up);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(up);
+        }
+    }
+
+    // Rebalances and refits every node from the given one up to the root
+    private void refitUpwards(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            int child1 = child[index * 2];
+            int child2 = child[index * 2 + 1];
+            height[index] = 1 + Math.max(height[child1], height[child2]);
+            union(index, child1, child2);
+            index = parent[index];
+        }
+    }
+
+    // If one child of a node is more than one level taller than the other,
+    // rotates it up. Returns the node now in the given node's place
+    private int balance(int a) {
+        if (height[a] < 2) {
+            return a;
+        }
+        int b = child[a * 2];
+        int c = child[a * 2 + 1];
+        int balance = height[c] - height[b];
+
+        // Rotate c up
+        if (balance > 1) {
+            int f = child[c * 2];
+            int g = child[c * 2 + 1];
+            child[c * 2] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+            if (height[f] > height[g]) {
+                child[c * 2 + 1] = f;
+                child[a * 2 + 1] = g;
+                parent[g] = a;
+                union(a, b, g);
+                union(c, a, f);
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            } else {
+                child[c * 2 + 1] = g;
+                child[a * 2 + 1] = f;
+                parent[f] = a;
+                union(a, b, f);
+                union(c, a, g);
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+            return c;
+        }
+
+        // Rotate b up
+        if (balance < -1) {
+            int d = child[b * 2];
+            int e = child[b * 2 + 1];
+            child[b * 2] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+            if (height[d] > height[e]) {
+                child[b * 2 + 1] = d;
+                child[a * 2] = e;
+                parent[e] = a;
+                union(a, c, e);
+                union(b, a, d);
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            } else {
+                child[b * 2 + 1] = e;
+                child[a * 2] = d;
+                parent[d] = a;
+                union(a, c, d);
+                union(b, a, e);
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    // Points a node's parent (or the root) at the node that replaced it
+    private void replaceChild(int up, int oldChild, int newChild) {
+        if (up == NULL) {
+            root = newChild;
+        } else if (child[up * 2] == oldChild) {
+            child[up * 2] = newChild;
+        } else {
+            child[up * 2 + 1] = newChild;
+        }
+    }
+
+    // Cost of sending the leaf down into the given child
+    private float descendCost(int child, int leaf) {
+        float combined = unionPerimeter(child, leaf);
+        return height[child] == 0 ? combined : combined - perimeter(child);
+    }
+
+    // Sets node's box to the union of two other boxes, and its layers and masks
+    // to the union of theirs
+    private void union(int node, int a, int b) {
+        nodeLayers[node] = nodeLayers[a] | nodeLayers[b];
+        nodeMasks[node] = nodeMasks[a] | nodeMasks[b];
+        box[node * 4] = Math.min(box[a * 4], box[b * 4]);
+        box[node * 4 + 1] = Math.min(box[a * 4 + 1], box[b * 4 + 1]);
+        box[node * 4 + 2] = Math.max(box[a * 4 + 2], box[b * 4 + 2]);
+        box[node * 4 + 3] = Math.max(box[a * 4 + 3], box[b * 4 + 3]);
+    }
+
+    // Perimeter of a node's box, the 2D stand-in for surface area
+    private float perimeter(int node) {
+        return 2f * ((box[node * 4 + 2] - box[node * 4]) + (box[node * 4 + 3] - box[node * 4 + 1]));
+    }
+
+    // Perimeter of the box around two nodes
+    private float unionPerimeter(int a, int b) {
+        float w = Math.max(box[a * 4 + 2], box[b * 4 + 2]) - Math.min(box[a * 4], box[b * 4]);
+        float h = Math.max(box[a * 4 + 3], box[b * 4 + 3]) - Math.min(box[a * 4 + 1], box[b * 4 + 1]);
+        return 2f * (w + h);
+    }
+
+    // Takes a node off the free list, growing the arrays when it is empty
+    private int allocateNode() {
+        if (freeList == NULL) {
+            growNodes(nodeCapacity * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        child[node * 2] = NULL;
+        child[node * 2 + 1] = NULL;
+        height[node] = 0;
+        slot[node] = NULL;
+        key[node] = EnemyHandles.NONE;
+        seen[node] = updateCount;
+        return node;
+    }
+
+    // Puts a node back on the free list
+    private void freeNode(int node) {
+        height[node] = -1;
+        parent[node] = freeList;
+        freeList = node;
+    }
+
+    // Grows the node arrays and chains the new nodes onto the free list
+    private void growNodes(int capacity) {
+        int old = nodeCapacity;
+        if (capacity > parent.length) {
+            box = Arrays.copyOf(box, capacity * 4);
+            child = Arrays.copyOf(child, capacity * 2);
+            parent = Arrays.copyOf(parent, capacity);
+            height = Arrays.copyOf(height, capacity);
+            slot = Arrays.copyOf(slot, capacity);
+            key = Arrays.copyOf(key, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            nodeLayers = Arrays.copyOf(nodeLayers, capacity);
+            nodeMasks = Arrays.copyOf(nodeMasks, capacity);
+        }
+        for (int node = capacity - 1; node >= old; node--) {
+            height[node] = -1;
+            parent[node] = freeList;
+            freeList = node;
+        }
+        nodeCapacity = capacity;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is the one clock every sprite animation reads its frame from. It only moves
+* while the game is being simulated, so animations pause with the game
+*/
+
+public final class AnimationClock {
+    // Simulated time in milliseconds, advanced once per step
+    private static volatile long millis;
+
+    // Private constructor to prevent instantiation of this utility class
+    private AnimationClock() {
+    }
+
+    // Moves the clock forward by one simulation step of dt seconds
+    public static void advance(float dt) {
+        millis += Math.round(dt * 1000f);
+    }
+
+    public static long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Picks the frame of a looping animation for the current time.
+     *
+     * @param frameCount  Number of frames in the loop
+     * @param frameMillis How long each frame is shown
+     * @param phase       Offset in frames, so many copies of one animation can
+     *                    be kept out of step with each other
+     * @return The index of the frame to draw
+     */
+    public static int frame(int frameCount, long frameMillis, int phase) {
+        return (int) Math.floorMod(millis / frameMillis + phase, (long) frameCount);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class reads the asset pack written by AssetPackBuilder: images already scaled to the
+* size they are shown at and decoded to ARGB pixels, plus raw files such as the font. The pack is memory
+* mapped, so loading an image is a copy of its pixels with no decoding or scaling. Assets missing from the
+* pack are decoded from the original files instead
+*/
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+public final class AssetPack {
+    // Marks the start of a pack file ("ENPK") and the layout version it uses
+    static final int MAGIC = 0x454E504B;
+    static final int VERSION = 1;
+    // Where the pack is read from; start with -Dendlessnight.assetPack=file to
+    // use another one
+    static final String DEFAULT_PATH = "assets/endlessnight.pack";
+    // Byte order of every number and pixel in the pack
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static volatile AssetPack instance;
+
+    // The mapped file, or null when there is no usable pack
+    private final ByteBuffer data;
+    // Entries by key: resource path for files, path and size for images
+    private final Map<String, Entry> entries;
+    // Packed image sizes by resource path and height
+    private final Map<String, Dimension> sizes = new HashMap<>();
+
+    // Returns the shared pack, mapping it on first use
+    public static AssetPack get() {
+        AssetPack pack = instance;
+        if (pack == null) {
+            synchronized (AssetPack.class) {
+                pack = instance;
+                if (pack == null) {
+                    instance = pack = open(Paths.get(System.getProperty("endlessnight.assetPack", DEFAULT_PATH)));
+                }
+            }
+        }
+        return pack;
+    }
+
+    private AssetPack(ByteBuffer data, Map<String, Entry> entries) {
+        this.data = data;
+        this.entries = entries;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry e = entry.getValue();
+            int at = entry.getKey().lastIndexOf('@');
+            if (e.width > 0 && at > 0) {
+                sizes.put(entry.getKey().substring(0, at) + "#" + e.height, new Dimension(e.width, e.height));
+            }
+        }
+    }
+
+    // Maps a pack file and reads its index, or returns an empty pack if the file
+    // is missing or not a pack
+    private static AssetPack open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ORDER);
+            if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+                throw new IOException("not a version " + VERSION + " asset pack");
+            }
+            int count = data.getInt();
+            Map<String, Entry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[data.getShort()];
+                data.get(key);
+                entries.put(new String(key, StandardCharsets.UTF_8),
+                        new Entry(data.getInt(), data.getInt(), data.getInt(), data.getInt()));
+            }
+            System.out.println("Loaded asset pack " + file + " (" + count + " assets)");
+            return new AssetPack(data, entries);
+        } catch (NoSuchFileException e) {
+            return new AssetPack(null, Collections.emptyMap());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read asset pack " + file + ": " + e.getMessage());
+            return new AssetPack(null, Collections.emptyMap());
+        }
+    }
+
+    // Key of an image scaled to the given size
+    static String imageKey(String path, int width, int height) {
+        return path + "@" + width + "x" + height;
+    }
+
+    /**
+     * Copies a packed image out of the mapped file.
+     *
+     * @param path   The resource path of the original image
+     * @param width  The width it was packed at
+     * @param height The height it was packed at
+     * @return The image in the screen's format, or null if it is not in the pack
+     */
+    public BufferedImage getImage(String path, int width, int height) {
+        Entry entry = entries.get(imageKey(path, width, height));
+        if (entry == null) {
+            return null;
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        pixels(entry).get(pixels);
+        return EffectAtlas.toCompatible(image);
+    }
+
+    // Size a packed image of the given path and height was stored at, or null if
+    // there is none
+    public Dimension sizeOf(String path, int height) {
+        return sizes.get(path + "#" + height);
+    }
+
+    // Returns a packed file's bytes without copying them, or null if it is not in
+    // the pack
+    public ByteBuffer getFile(String path) {
+        Entry entry = entries.get(path);
+        return entry == null ? null : data.slice(entry.offset, entry.length).asReadOnlyBuffer();
+    }
+
+    // Whether a pack file was found and mapped
+    public boolean isLoaded() {
+        return data != null;
+    }
+
+    // The pixels of an image entry as a view into the mapped file
+    private IntBuffer pixels(Entry entry) {
+        return data.slice(entry.offset, entry.length).order(ORDER).asIntBuffer();
+    }
+
+    /**
+     * Loads an image at the given size, from the pack if it holds one, otherwise
+     * by decoding and scaling the original file.
+     *
+     * @param path   The resource path of the image
+     * @param width  The width the image is shown at
+     * @param height The height the image is shown at
+     * @return The image, or null if it could not be loaded
+     */
+    public static BufferedImage loadImage(String path, int width, int height) {
+        BufferedImage image = get().getImage(path, width, height);
+        if (image != null) {
+            return image;
+        }
+        try (InputStream in = AssetPack.class.getResourceAsStream(path)) {
+            BufferedImage source = in == null ? null : ImageIO.read(in);
+            return source == null ? null : SpriteAtlas.scale(source, width, height, false);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Opens a file from the pack if it holds one, otherwise from the resources
+    public static InputStream openFile(String path) throws IOException {
+        ByteBuffer file = get().getFile(path);
+        if (file == null) {
+            InputStream in = AssetPack.class.getResourceAsStream(path);
+            if (in == null) {
+                throw new IOException("missing " + path);
+            }
+            return in;
+        }
+        byte[] bytes = new byte[file.remaining()];
+        file.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    // Where one asset sits in the pack. Width and height are zero for files
+    private static final class Entry {
+        private final int width;
+        private final int height;
+        private final int offset;
+        private final int length;
+
+        private Entry(int width, int height, int offset, int length) {
+            this.width = width;
+            this.height = height;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class writes the asset pack AssetPack reads. It decodes every image the game shows,
+* scales it to the size it is shown at and stores the ARGB pixels, along with the font file. Run it with
+* "java AssetPackBuilder [output file]" from the game folder after compiling, and again whenever an asset
+* changes
+*/
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+public class AssetPackBuilder {
+    // Assets queued for the pack, in the order they are written
+    private final List<String> keys = new ArrayList<>();
+    private final List<int[]> sizes = new ArrayList<>();
+    private final List<byte[]> contents = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        String output = args.length > 0 ? args[0] : AssetPack.DEFAULT_PATH;
+        AssetPackBuilder builder = new AssetPackBuilder();
+
+        // Screen backgrounds at the size of the game panel
+        for (String path : new String[] { IntroScreen.BACKGROUND_PATH, MainMenu.BACKGROUND_PATH,
+                HowToPlayScreen.BACKGROUND_PATH }) {
+            builder.addImage(path, GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+        }
+
+        // Bordered icons at the size the how-to-play page shows them
+        File[] icons = new File("." + HowToPlayScreen.ICON_DIR).listFiles((dir, name) -> name.endsWith(".png"));
+        if (icons != null) {
+            Arrays.sort(icons);
+            for (File icon : icons) {
+                builder.addImage(HowToPlayScreen.ICON_DIR + icon.getName(), HowToPlayScreen.ICON_SIZE,
+                        HowToPlayScreen.ICON_SIZE);
+            }
+        }
+
+        // Player and enemy animation frames at their sprite sizes
+        for (String path : Player.RUN_FRAMES) {
+            builder.addImage(path, Player.SIZE, Player.SIZE);
+        }
+        for (EnemyArchetype type : EnemyArchetype.values()) {
+            // Every frame takes the first frame's size, as SpriteAtlas does
+            int width = -1;
+            for (String path : type.getFramePaths()) {
+                width = builder.addImage(path, width, type.getSpriteHeight());
+            }
+        }
+
+        builder.addFile(GamePanel.FONT_PATH);
+        builder.write(new File(output));
+    }
+
+    /**
+     * Decodes an image, scales it and queues its pixels.
+     *
+     * @param path   The resource path of the image
+     * @param width  The width it is shown at, or -1 to keep the art's proportions
+     * @param height The height it is shown at
+     * @return The width the image was stored at
+     */
+    private int addImage(String path, int width, int height) throws IOException {
+        BufferedImage source;
+        try (InputStream in = open(path)) {
+            source = ImageIO.read(in);
+        }
+        if (source == null) {
+            throw new IOException("unreadable " + path);
+        }
+        if (width < 0) {
+            width = SpriteAtlas.widthFor(source.getWidth(), source.getHeight(), height);
+        }
+        BufferedImage scaled = SpriteAtlas.scale(source, width, height, false);
+        int[] pixels = scaled.getRGB(0, 0, width, height, null, 0, width);
+        ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4).order(AssetPack.ORDER);
+        bytes.asIntBuffer().put(pixels);
+        add(AssetPack.imageKey(path, width, height), width, height, bytes.array());
+        return width;
+    }
+
+    // Queues a file's bytes unchanged
+    private void addFile(String path) throws IOException {
+        try (InputStream in = open(path)) {
+            add(path, 0, 0, in.readAllBytes());
+        }
+    }
+
+    private void add(String key, int width, int height, byte[] content) {
+        keys.add(key);
+        sizes.add(new int[] { width, height });
+        contents.add(content);
+    }
+
+    // Writes the header, the index and then every asset, each starting on a four
+    // byte boundary so pixels can be read as ints straight from the mapped file
+    private void write(File file) throws IOException {
+        int indexSize = 12;
+        byte[][] encodedKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            encodedKeys[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+            indexSize += 2 + encodedKeys[i].length + 16;
+        }
+        int offset = align(indexSize);
+        int[] offsets = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            offsets[i] = offset;
+            offset = align(offset + contents.get(i).length);
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(align(indexSize)).order(AssetPack.ORDER);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            index.putShort((short) encodedKeys[i].length).put(encodedKeys[i]);
+            index.putInt(sizes.get(i)[0]).putInt(sizes.get(i)[1]).putInt(offsets[i]).putInt(contents.get(i).length);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(index.array());
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] content = contents.get(i);
+                out.write(content);
+                out.write(new byte[align(content.length) - content.length]);
+            }
+        }
+        System.out.println("Wrote " + keys.size() + " assets to " + file + " (" + (offset >> 10) + " KB)");
+    }
+
+    // Rounds up to the next multiple of four
+    private static int align(int value) {
+        return (value + 3) & ~3;
+    }
+
+    private static InputStream open(String path) throws IOException {
+        InputStream in = AssetPackBuilder.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IOException("missing " + path);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class loads assets in the background while the intro screen is showing. Each request
+* returns a future right away, so code only waits on an asset at the point it actually draws it
+*/
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public final class AssetPreloader {
+    private static final ExecutorService LOADERS = createLoaders();
+
+    // Requests by asset key. Images stay here until released, so every screen
+    // asking for one shares a single load; sprite frames live in the sprite cache
+    // and are dropped from here once loaded
+    private static final Map<String, CompletableFuture<?>> REQUESTS = new ConcurrentHashMap<>();
+    private static final AtomicInteger submitted = new AtomicInteger();
+    private static final AtomicInteger finished = new AtomicInteger();
+    private static volatile boolean firstFrameReported;
+    private static volatile boolean loadReported;
+
+    // Private constructor to prevent instantiation of this utility class
+    private AssetPreloader() {
+    }
+
+    // Uses a virtual thread per load where the runtime has them, otherwise a
+    // small pool of daemon threads
+    private static ExecutorService createLoaders() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), task -> {
+                Thread thread = new Thread(task, "asset-loader-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Starts loading an image at the size it is shown at
+    public static CompletableFuture<BufferedImage> image(String path, int width, int height) {
+        return submit(AssetPack.imageKey(path, width, height), () -> AssetPack.loadImage(path, width, height), true);
+    }
+
+    // Starts loading animation frames into the sprite cache
+    public static CompletableFuture<SpriteAtlas.Animation> animation(String[] paths, int width, int height) {
+        return submit(String.join("|", paths) + "@" + width + "x" + height,
+                () -> SpriteAtlas.get(paths, width, height), false);
+    }
+
+    // Starts loading the frames of every kind that can spawn in a wave
+    public static CompletableFuture<Void> wave(int wave) {
+        List<CompletableFuture<SpriteAtlas.Animation>> loads = new ArrayList<>();
+        for (EnemyArchetype type : EnemyArchetype.forWave(wave)) {
+            loads.add(submit("archetype:" + type.name(), () -> SpriteAtlas.forArchetype(type), false));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Forgets a loaded image, so it can be garbage collected once the screen
+    // holding it lets go too
+    public static void release(String path, int width, int height) {
+        REQUESTS.remove(AssetPack.imageKey(path, width, height));
+    }
+
+    // Returns an asset if it has finished loading, or null if it is still loading
+    // or failed
+    public static <T> T now(CompletableFuture<T> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    // Waits for an asset, returning null if it failed to load
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Fraction of the requested assets that have finished loading
+    public static float getProgress() {
+        int total = submitted.get();
+        return total == 0 ? 1f : finished.get() / (float) total;
+    }
+
+    public static boolean isDone() {
+        return finished.get() >= submitted.get();
+    }
+
+    // Reports the time from launch to the first painted frame, once
+    public static void reportFirstFrame() {
+        if (!firstFrameReported) {
+            firstFrameReported = true;
+            System.out.printf("First frame after %d ms (%d of %d assets loaded)%n", Main.millisSinceStart(),
+                    finished.get(), submitted.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> submit(String key, Supplier<T> loader, boolean keep) {
+        CompletableFuture<T> request = new CompletableFuture<>();
+        CompletableFuture<?> existing = REQUESTS.putIfAbsent(key, request);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing;
+        }
+        submitted.incrementAndGet();
+        LOADERS.execute(() -> {
+            try {
+                request.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                System.err.println("Error preloading " + key + ": " + e);
+                request.completeExceptionally(e);
+            } finally {
+                if (!keep) {
+                    REQUESTS.remove(key, request);
+                }
+                if (finished.incrementAndGet() >= submitted.get() && !loadReported) {
+                    loadReported = true;
+                    System.out.printf("Preloaded %d assets %d ms after launch%n", finished.get(),
+                            Main.millisSinceStart());
+                }
+            }
+        });
+        return request;
+    }
+}
@@ -0,0 +1,1242 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is a small stand-alone timing harness for the crowd and effects code paths. Run it with
+* "java Benchmark" after compiling; it needs no window. To include the SIMD kernels, build them as in
+* runSimd.bat and run "java --add-modules jdk.incubator.vector Benchmark"
+*/
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RadialGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageIO;
+
+public class Benchmark {
+    // Crowd sizes every comparison is run at
+    private static final int[] CROWD_SIZES = { 250, 1000, 2500, 5000 };
+    // Untimed passes that let the JIT compile the kernels first
+    private static final int WARMUP_PASSES = 40;
+    // Untimed passes of the clamp kernels, which run only once per pass otherwise
+    private static final int CLAMP_WARMUP_PASSES = 2000;
+    // Timed passes averaged into the reported figure
+    private static final int TIMED_PASSES = 20;
+    // Crowd sizes the collision solvers are compared at
+    private static final int[] SOLVER_SIZES = { 1000, 2500, 5000, 10000 };
+    // The impulse solver is quadratic, so the solver comparison runs fewer passes
+    private static final int SOLVER_WARMUP_PASSES = 3;
+    private static final int SOLVER_TIMED_PASSES = 5;
+    // Enemies caught by each area-of-effect tick in the damage number benchmark
+    private static final int[] AOE_SIZES = { 100, 500, 2000 };
+    // Ticks between area-of-effect hits, and ticks simulated per run
+    private static final int AOE_INTERVAL = 4;
+    private static final int AOE_TICKS = 120;
+    // Damage numbers drawn per frame in the glyph atlas benchmark
+    private static final int GLYPH_NUMBERS = 256;
+    // Orb glows and pulse rings drawn per frame in the effect atlas benchmark
+    private static final int EFFECT_GLOWS = 200;
+    private static final int EFFECT_RINGS = 12;
+    // Sprites drawn per frame in the sprite atlas benchmark
+    private static final int SPRITE_DRAWS = 500;
+    // Objects drawn per frame in the framebuffer benchmark
+    private static final int[] SCENE_SIZES = { 500, 2000, 8000 };
+    // Orb trails, each a run of particles, drawn under the pulse glows in the
+    // tiled rasterization benchmark
+    private static final int[] TRAIL_COUNTS = { 12, 48, 192 };
+    private static final int TRAIL_PARTICLES = 40;
+    private static final int PULSE_GLOWS = 24;
+    // Lance beam particles, photon orbs and enemies of mixed kinds, drawn per
+    // frame in the command sorting benchmark
+    private static final int[] BATCH_SIZES = { 100, 400, 1600 };
+    // Core radius of the photon orbs in the command sorting benchmark
+    private static final float ORB_SIZE = 5f;
+
+    // Private constructor to prevent instantiation of this utility class
+    private Benchmark() {
+    }
+
+    public static void main(String[] args) {
+        benchmarkSeparation();
+        benchmarkCrowdSolvers();
+        benchmarkContactSolver();
+        benchmarkSleeping();
+        benchmarkBroadphases();
+        benchmarkLayerFilter();
+        benchmarkDamageNumbers();
+        benchmarkGlyphAtlas();
+        benchmarkEffectAtlas();
+        benchmarkSpriteAtlas();
+        benchmarkSpriteCache();
+        benchmarkAssetPack();
+        benchmarkScreenBackground();
+        benchmarkHud();
+        benchmarkFramebuffer();
+        benchmarkTiledRaster();
+        benchmarkCommandSort();
+    }
+
+    // Compares the scalar and SIMD separation kernels over a full crowd pass, and
+    // the scalar and SIMD clamps over the crowd's separation pushes
+    private static void benchmarkSeparation() {
+        SteeringKernel.Vectorized simdKernel = SteeringKernel.loadSimd();
+        if (simdKernel == null) {
+            System.out.println("Separation kernel: build simd/ and run with --add-modules jdk.incubator.vector"
+                    + " to compare the SIMD path");
+            return;
+        }
+        System.out.println("Separation kernel, ns per enemy (scalar vs SIMD):");
+        for (int n : CROWD_SIZES) {
+            Random rng = new Random(42);
+            float[] xs = new float[n];
+            float[] ys = new float[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = rng.nextFloat() * GamePanel.GAME_WIDTH;
+                ys[i] = rng.nextFloat() * GamePanel.GAME_HEIGHT;
+            }
+
+            float[] out = new float[2];
+            float[] pushX = new float[n];
+            float[] pushY = new float[n];
+            double sink = 0;
+            // The clamps run once per pass, too few times for the JIT to compile
+            // the vector code, so they get their own warm-up on random pushes
+            for (int i = 0; i < n; i++) {
+                pushX[i] = rng.nextFloat() * 8f - 4f;
+                pushY[i] = rng.nextFloat() * 8f - 4f;
+            }
+            for (int pass = 0; pass < CLAMP_WARMUP_PASSES; pass++) {
+                float[] copyX = pushX.clone();
+                float[] copyY = pushY.clone();
+                SteeringKernel.clampLengthsScalar(copyX, copyY, 0, n, 2.4f);
+                simdKernel.clampLengths(pushX.clone(), pushY.clone(), n, 2.4f);
+                sink += copyX[0];
+            }
+            long scalar = 0, simd = 0, clampScalar = 0, clampSimd = 0;
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    sink += SteeringKernel.separationScalar(xs, ys, 0, n, xs[i], ys[i], 100f, 1.2f, out);
+                    pushX[i] = out[0];
+                    pushY[i] = out[1];
+                }
+                long mid = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    sink += simdKernel.separation(xs, ys, n, xs[i], ys[i], 100f, 1.2f, out);
+                }
+                long end = System.nanoTime();
+                if (pass >= WARMUP_PASSES) {
+                    scalar += mid - start;
+                    simd += end - mid;
+                }
+
+                // Both clamps start from the same pushes, since each works in place
+                float[] copyX = pushX.clone();
+                float[] copyY = pushY.clone();
+                start = System.nanoTime();
+                SteeringKernel.clampLengthsScalar(pushX, pushY, 0, n, 2.4f);
+                mid = System.nanoTime();
+                simdKernel.clampLengths(copyX, copyY, n, 2.4f);
+                end = System.nanoTime();
+                sink += pushX[0] + copyX[0];
+                if (pass >= WARMUP_PASSES) {
+                    clampScalar += mid - start;
+                    clampSimd += end - mid;
+                }
+            }
+            double perScalar = scalar / (double) TIMED_PASSES / n;
+            double perSimd = simd / (double) TIMED_PASSES / n;
+            System.out.printf("  n=%5d  scalar %9.1f  simd %9.1f  speedup %.2fx  clamp %6.2f vs %6.2f  (%s)%n",
+                    n, perScalar, perSimd, perScalar / perSimd, clampScalar / (double) TIMED_PASSES / n,
+                    clampSimd / (double) TIMED_PASSES / n, sink > 0 ? "ok" : "-");
+        }
+    }
+
+    // Compares the impulse solver with the PBD solver on a dense clump of
+    // enemies, reporting time per step and how much overlap is left afterwards
+    private static void benchmarkCrowdSolvers() {
+        System.out.println("Crowd solvers, ms per step and overlap left per enemy in px (impulse vs PBD):");
+        for (int n : SOLVER_SIZES) {
+            // Pack the enemies into a disc a bit smaller than they need, so most of
+            // them start out overlapping
+            Random rng = new Random(7);
+            float clump = (float) Math.sqrt(n) * 11f;
+            float[] startX = new float[n];
+            float[] startY = new float[n];
+            float[] startVx = new float[n];
+            float[] startVy = new float[n];
+            List<Enemy> enemies = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                double angle = rng.nextDouble() * Math.PI * 2;
+                double dist = Math.sqrt(rng.nextDouble()) * clump;
+                startX[i] = GamePanel.GAME_WIDTH * 0.5f + (float) (Math.cos(angle) * dist);
+                startY[i] = GamePanel.GAME_HEIGHT * 0.5f + (float) (Math.sin(angle) * dist);
+                startVx[i] = rng.nextFloat() * 2f - 1f;
+                startVy[i] = rng.nextFloat() * 2f - 1f;
+                enemies.add(new Enemy(0, 0, 20, 20, 50, 1, null, null));
+            }
+
+            CrowdBuffer crowd = new CrowdBuffer();
+            CrowdSolver solver = new CrowdSolver(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+            long impulse = 0, pbd = 0;
+            float impulseOverlap = 0f, pbdOverlap = 0f;
+            for (int pass = 0; pass < SOLVER_WARMUP_PASSES + SOLVER_TIMED_PASSES; pass++) {
+                resetCrowd(enemies, startX, startY, startVx, startVy);
+                long start = System.nanoTime();
+                Physics.resolveEnemyEnemyCollisions(enemies, 1f);
+                long end = System.nanoTime();
+                if (pass >= SOLVER_WARMUP_PASSES) {
+                    impulse += end - start;
+                }
+                impulseOverlap = meanOverlap(enemies);
+
+                resetCrowd(enemies, startX, startY, startVx, startVy);
+                crowd.pack(enemies);
+                start = System.nanoTime();
+                solver.solve(crowd);
+                end = System.nanoTime();
+                if (pass >= SOLVER_WARMUP_PASSES) {
+                    pbd += end - start;
+                }
+                pbdOverlap = meanOverlap(enemies);
+            }
+            System.out.printf("  n=%5d  impulse %8.2f ms  %5.2f px   pbd(%d it) %8.2f ms  %5.2f px%n",
+                    n, impulse / 1e6 / SOLVER_TIMED_PASSES, impulseOverlap,
+                    solver.getIterations(), pbd / 1e6 / SOLVER_TIMED_PASSES, pbdOverlap);
+        }
+    }
+
+    // Puts every enemy back at its starting position and velocity
+    private static void resetCrowd(List<Enemy> enemies, float[] xs, float[] ys, float[] vxs, float[] vys) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            enemy.setPos(xs[i], ys[i]);
+            enemy.setVelocity(vxs[i], vys[i]);
+        }
+    }
+
+    // Total overlap of all touching pairs divided by the number of enemies
+    private static float meanOverlap(List<Enemy> enemies) {
+        double total = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy a = enemies.get(i);
+            for (int j = i + 1; j < enemies.size(); j++) {
+                Enemy b = enemies.get(j);
+                double overlap = a.getRadius() + b.getRadius()
+                        - Math.hypot(a.getCenterX() - b.getCenterX(), a.getCenterY() - b.getCenterY());
+                if (overlap > 0) {
+                    total += overlap;
+                }
+            }
+        }
+        return (float) (total / enemies.size());
+    }
+
+    // Times the colored contact solver serially and in parallel, and checks that
+    // with deterministic collisions on both leave the crowd in exactly the same state
+    private static void benchmarkContactSolver() {
+        boolean wasDeterministic = Physics.isDeterministic();
+        Physics.setDeterministic(true);
+        System.out.println("Contact solver, ms per step (serial vs parallel, deterministic):");
+        for (int n : SOLVER_SIZES) {
+            Random rng = new Random(11);
+            float clump = (float) Math.sqrt(n) * 11f;
+            float[] startX = new float[n];
+            float[] startY = new float[n];
+            float[] startVx = new float[n];
+            float[] startVy = new float[n];
+            List<Enemy> enemies = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                double angle = rng.nextDouble() * Math.PI * 2;
+                double dist = Math.sqrt(rng.nextDouble()) * clump;
+                startX[i] = GamePanel.GAME_WIDTH * 0.5f + (float) (Math.cos(angle) * dist);
+                startY[i] = GamePanel.GAME_HEIGHT * 0.5f + (float) (Math.sin(angle) * dist);
+                startVx[i] = rng.nextFloat() * 2f - 1f;
+                startVy[i] = rng.nextFloat() * 2f - 1f;
+                enemies.add(new Enemy(0, 0, 20, 20, 50, 1, null, null));
+            }
+
+            EnemyHandles handles = new EnemyHandles();
+            enemies.forEach(handles::register);
+
+            // Each mode gets its own solver so both see the same contact cache history
+            CrowdBuffer crowd = new CrowdBuffer();
+            ContactSolver serialSolver = new ContactSolver(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+            ContactSolver parallelSolver = new ContactSolver(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+            serialSolver.setParallel(false);
+            float[] serialState = new float[n * 4];
+            long serial = 0, parallel = 0;
+            boolean identical = true;
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                resetCrowd(enemies, startX, startY, startVx, startVy);
+                crowd.pack(enemies);
+                long start = System.nanoTime();
+                serialSolver.solve(crowd, 1f);
+                long mid = System.nanoTime();
+                captureState(enemies, serialState);
+
+                resetCrowd(enemies, startX, startY, startVx, startVy);
+                crowd.pack(enemies);
+                long resume = System.nanoTime();
+                parallelSolver.solve(crowd, 1f);
+                long end = System.nanoTime();
+                identical &= matchesState(enemies, serialState);
+
+                if (pass >= WARMUP_PASSES) {
+                    serial += mid - start;
+                    parallel += end - resume;
+                }
+            }
+            System.out.printf("  n=%5d  contacts %6d  colors %2d  serial %7.2f ms  parallel %7.2f ms  identical %s%n",
+                    n, serialSolver.getContactCount(), serialSolver.getColorCount(), serial / 1e6 / TIMED_PASSES,
+                    parallel / 1e6 / TIMED_PASSES, identical ? "yes" : "NO");
+        }
+        Physics.setDeterministic(wasDeterministic);
+    }
+
+    // Copies every enemy's position and velocity into a flat array
+    private static void captureState(List<Enemy> enemies, float[] state) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            state[i * 4] = (float) enemy.getCenterX();
+            state[i * 4 + 1] = (float) enemy.getCenterY();
+            state[i * 4 + 2] = enemy.getXVelocity();
+            state[i * 4 + 3] = enemy.getYVelocity();
+        }
+    }
+
+    // Whether every enemy's position and velocity has exactly the same bits as the capture
+    private static boolean matchesState(List<Enemy> enemies, float[] state) {
+        float[] current = new float[state.length];
+        captureState(enemies, current);
+        for (int i = 0; i < state.length; i++) {
+            if (Float.floatToIntBits(current[i]) != Float.floatToIntBits(state[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Times a clump drifting as one body, where every contact is at rest, with
+    // island sleeping off and on
+    private static void benchmarkSleeping() {
+        System.out.println("Resting clump, ms per step (awake vs sleeping):");
+        for (int n : SOLVER_SIZES) {
+            Random rng = new Random(5);
+            float clump = (float) Math.sqrt(n) * 11f;
+            float[] startX = new float[n];
+            float[] startY = new float[n];
+            float[] startVx = new float[n];
+            float[] startVy = new float[n];
+            List<Enemy> enemies = new ArrayList<>(n);
+            EnemyHandles handles = new EnemyHandles();
+            for (int i = 0; i < n; i++) {
+                double angle = rng.nextDouble() * Math.PI * 2;
+                double dist = Math.sqrt(rng.nextDouble()) * clump;
+                startX[i] = GamePanel.GAME_WIDTH * 0.5f + (float) (Math.cos(angle) * dist);
+                startY[i] = GamePanel.GAME_HEIGHT * 0.5f + (float) (Math.sin(angle) * dist);
+                startVx[i] = 1f;
+                startVy[i] = 0f;
+                Enemy enemy = new Enemy(0, 0, 20, 20, 50, 1, null, null);
+                handles.register(enemy);
+                enemies.add(enemy);
+            }
+
+            CrowdBuffer crowd = new CrowdBuffer();
+            long[] totals = new long[2];
+            int asleep = 0;
+            for (int mode = 0; mode < 2; mode++) {
+                ContactSolver solver = new ContactSolver(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+                solver.setSleeping(mode == 1);
+                for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                    resetCrowd(enemies, startX, startY, startVx, startVy);
+                    crowd.pack(enemies);
+                    long start = System.nanoTime();
+                    solver.solve(crowd, 1f);
+                    if (pass >= WARMUP_PASSES) {
+                        totals[mode] += System.nanoTime() - start;
+                    }
+                }
+                if (mode == 1) {
+                    asleep = solver.getSleepingCount();
+                }
+            }
+            System.out.printf("  n=%5d  awake %7.2f ms  sleeping %7.2f ms  (%d contacts asleep)%n",
+                    n, totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES, asleep);
+        }
+    }
+
+    // Counts the candidates each broadphase hands to the narrowphase when a crowd
+    // shares the field with as many pickups, which enemies ignore. Filtering by
+    // mask inside the query is compared with the old way of getting every
+    // neighbour back and testing the masks per pair
+    private static void benchmarkLayerFilter() {
+        System.out.println("Layer filtering, enemies plus as many pickups, ms per update plus queries:");
+        for (int n : new int[] { 1000, 5000 }) {
+            int total = n * 2;
+            Random rng = new Random(5);
+            float[] xs = new float[total];
+            float[] ys = new float[total];
+            float[] radii = new float[total];
+            int[] keys = new int[total];
+            int[] layers = new int[total];
+            int[] masks = new int[total];
+            for (int i = 0; i < total; i++) {
+                xs[i] = rng.nextFloat() * GamePanel.GAME_WIDTH;
+                ys[i] = rng.nextFloat() * GamePanel.GAME_HEIGHT;
+                radii[i] = 10f;
+                keys[i] = EnemyHandles.NONE;
+                // Every other slot is a pickup, which only the player collects
+                boolean pickup = (i & 1) == 1;
+                layers[i] = pickup ? CollisionLayer.PICKUP : CollisionLayer.ENEMY;
+                masks[i] = pickup ? CollisionLayer.PLAYER : CollisionLayer.ENEMY_MASK;
+            }
+
+            Broadphase[] candidates = {
+                    new SpatialGrid(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT, 20f),
+                    new AabbTree() };
+            String[] names = { "grid", "tree" };
+            long[] visits = new long[1];
+            int[] self = new int[1];
+            // Old way: every neighbour comes back and the masks are tested per pair
+            IntConsumer perPair = j -> {
+                int i = self[0];
+                if (CollisionLayer.canCollide(layers[i], masks[i], layers[j], masks[j])) {
+                    visits[0]++;
+                }
+            };
+            IntConsumer filtered = j -> visits[0]++;
+            for (int b = 0; b < 2; b++) {
+                Broadphase broadphase = candidates[b];
+                long[] totals = new long[2];
+                long[] candidatesSeen = new long[2];
+                for (int mode = 0; mode < 2; mode++) {
+                    for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                        visits[0] = 0;
+                        long start = System.nanoTime();
+                        broadphase.update(xs, ys, radii, keys, layers, masks, total);
+                        for (int i = 0; i < total; i += 2) {
+                            float r = radii[i];
+                            self[0] = i;
+                            if (mode == 0) {
+                                broadphase.query(xs[i] - r, ys[i] - r, xs[i] + r, ys[i] + r, CollisionLayer.ALL,
+                                        CollisionLayer.ALL, perPair);
+                            } else {
+                                broadphase.query(xs[i] - r, ys[i] - r, xs[i] + r, ys[i] + r, layers[i], masks[i],
+                                        filtered);
+                            }
+                        }
+                        if (pass >= WARMUP_PASSES) {
+                            totals[mode] += System.nanoTime() - start;
+                        }
+                    }
+                    candidatesSeen[mode] = visits[0];
+                }
+                System.out.printf("  n=%5d %s  per pair %7.3f ms  in query %7.3f ms  (%d candidates)%n", n,
+                        names[b], totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES, candidatesSeen[1]);
+                if (candidatesSeen[0] != candidatesSeen[1]) {
+                    System.out.println("    candidate counts differ: " + candidatesSeen[0] + " vs "
+                            + candidatesSeen[1]);
+                }
+            }
+        }
+    }
+
+    // Times the grid and the AABB tree, update plus one overlap query per enemy,
+    // on crowds with a growing spread of sizes, and shows which one the contact
+    // solver picks for each
+    private static void benchmarkBroadphases() {
+        // Radius of the large enemies and how many small ones come per large one
+        float[][] mixes = { { 10f, 1 }, { 45f, 50 }, { 90f, 500 }, { 180f, 50 }, { 180f, 500 } };
+        System.out.println("Broadphase at n=10000, ms per update plus queries (grid vs tree):");
+        int n = SOLVER_SIZES[SOLVER_SIZES.length - 1];
+        for (float[] mix : mixes) {
+            Random rng = new Random(3);
+            float[] xs = new float[n];
+            float[] ys = new float[n];
+            float[] radii = new float[n];
+            int[] keys = new int[n];
+            int[] layers = new int[n];
+            int[] masks = new int[n];
+            Arrays.fill(layers, CollisionLayer.ENEMY);
+            Arrays.fill(masks, CollisionLayer.ENEMY_MASK);
+            EnemyHandles handles = new EnemyHandles();
+            List<Enemy> enemies = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                xs[i] = rng.nextFloat() * GamePanel.GAME_WIDTH;
+                ys[i] = rng.nextFloat() * GamePanel.GAME_HEIGHT;
+                // Bat-sized enemies with the occasional large one
+                radii[i] = mix[1] <= 1 || i % (int) mix[1] == 0 ? mix[0] : 6f;
+                int size = (int) (radii[i] * 2);
+                Enemy enemy = new Enemy((int) xs[i] - size / 2, (int) ys[i] - size / 2, size, size, 50, 1, null, null);
+                keys[i] = handles.register(enemy);
+                enemies.add(enemy);
+            }
+
+            Broadphase[] candidates = {
+                    new SpatialGrid(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT, maxOf(radii) * 2f),
+                    new AabbTree() };
+            long[] totals = new long[2];
+            int[] pairs = new int[1];
+            int[] self = new int[1];
+            for (int b = 0; b < 2; b++) {
+                Broadphase broadphase = candidates[b];
+                float[] x = xs.clone();
+                float[] y = ys.clone();
+                // The same exact overlap test the narrowphase runs on each candidate
+                IntConsumer overlap = j -> {
+                    int i = self[0];
+                    float dx = x[j] - x[i];
+                    float dy = y[j] - y[i];
+                    float reach = radii[i] + radii[j];
+                    if (j > i && dx * dx + dy * dy <= reach * reach) {
+                        pairs[0]++;
+                    }
+                };
+                for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                    // Drift everyone about as fast as enemies walk, so the tree has
+                    // leaves leaving their boxes to re-insert
+                    for (int i = 0; i < n; i++) {
+                        x[i] += (i & 1) == 0 ? 1.5f : -1.5f;
+                        y[i] += (i & 2) == 0 ? 1.5f : -1.5f;
+                    }
+                    pairs[0] = 0;
+                    long start = System.nanoTime();
+                    broadphase.update(x, y, radii, keys, layers, masks, n);
+                    for (int i = 0; i < n; i++) {
+                        float r = radii[i];
+                        self[0] = i;
+                        broadphase.query(x[i] - r, y[i] - r, x[i] + r, y[i] + r, layers[i], masks[i], overlap);
+                    }
+                    if (pass >= WARMUP_PASSES) {
+                        totals[b] += System.nanoTime() - start;
+                    }
+                }
+            }
+
+            CrowdBuffer crowd = new CrowdBuffer();
+            crowd.pack(enemies);
+            ContactSolver solver = new ContactSolver(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT);
+            solver.solve(crowd, 1f);
+            System.out.printf("  large r=%3.0f every %3d  grid %7.2f ms  tree %7.2f ms  auto picks %s%n",
+                    mix[0], (int) mix[1], totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES,
+                    solver.isUsingTree() ? "tree" : "grid");
+        }
+    }
+
+    // Times spawning, updating and drawing damage numbers while an area attack
+    // keeps hitting the same enemies, one number per hit versus the merging pool
+    private static void benchmarkDamageNumbers() {
+        System.out.println("Area attack damage numbers, ms per tick (one per hit vs pooled):");
+        BufferedImage frame = new BufferedImage(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        for (int n : AOE_SIZES) {
+            Random rng = new Random(11);
+            EnemyHandles handles = new EnemyHandles();
+            List<Enemy> enemies = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Enemy enemy = new Enemy(rng.nextInt(GamePanel.GAME_WIDTH), rng.nextInt(GamePanel.GAME_HEIGHT),
+                        20, 20, 50, 1, null, null);
+                handles.register(enemy);
+                enemies.add(enemy);
+            }
+
+            long[] totals = new long[2];
+            int[] onScreen = new int[2];
+            for (int mode = 0; mode < 2; mode++) {
+                for (int run = 0; run < 2; run++) {
+                    List<DamageNumber> perHit = new ArrayList<>();
+                    DamageNumberManager pool = new DamageNumberManager();
+                    Graphics2D g = frame.createGraphics();
+                    long start = System.nanoTime();
+                    for (int tick = 0; tick < AOE_TICKS; tick++) {
+                        if (tick % AOE_INTERVAL == 0) {
+                            for (Enemy enemy : enemies) {
+                                if (mode == 0) {
+                                    perHit.add(new DamageNumber((int) enemy.getCenterX(),
+                                            (int) enemy.getCenterY() - 20, 12));
+                                } else {
+                                    pool.spawn(enemy, 12);
+                                }
+                            }
+                        }
+                        if (mode == 0) {
+                            for (DamageNumber number : perHit) {
+                                number.update(1f);
+                            }
+                            perHit.removeIf(DamageNumber::isDead);
+                            for (DamageNumber number : perHit) {
+                                number.draw(g);
+                            }
+                        } else {
+                            pool.update(1f);
+                            pool.draw(g);
+                        }
+                    }
+                    // The first run only warms up
+                    if (run == 1) {
+                        totals[mode] = System.nanoTime() - start;
+                        onScreen[mode] = mode == 0 ? perHit.size() : pool.size();
+                    }
+                    g.dispose();
+                }
+            }
+            System.out.printf("  hit %4d  per hit %8.2f ms (%5d shown)  pooled %7.2f ms (%3d shown)%n",
+                    n, totals[0] / 1e6 / AOE_TICKS, onScreen[0], totals[1] / 1e6 / AOE_TICKS, onScreen[1]);
+        }
+    }
+
+    // Times a frame of damage numbers drawn with the old glow, shadow and text
+    // drawString passes against the same numbers copied from the glyph atlas
+    private static void benchmarkGlyphAtlas() {
+        System.out.println("Damage number drawing, us per number (drawString passes vs glyph atlas):");
+        BufferedImage frame = new BufferedImage(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Random rng = new Random(13);
+        int[] xs = new int[GLYPH_NUMBERS];
+        int[] ys = new int[GLYPH_NUMBERS];
+        int[] values = new int[GLYPH_NUMBERS];
+        float[] sizes = new float[GLYPH_NUMBERS];
+        for (int i = 0; i < GLYPH_NUMBERS; i++) {
+            xs[i] = rng.nextInt(GamePanel.GAME_WIDTH);
+            ys[i] = rng.nextInt(GamePanel.GAME_HEIGHT);
+            values[i] = 1 + rng.nextInt(999);
+            sizes[i] = 18f * (1.2f + 0.8f * rng.nextFloat());
+        }
+
+        Graphics2D g = frame.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        GlyphAtlas atlas = GlyphAtlas.get(g.getFont());
+        long[] totals = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < GLYPH_NUMBERS; i++) {
+                    if (mode == 0) {
+                        drawNumberWithText(g, values[i], xs[i], ys[i], sizes[i], 0.8f);
+                    } else {
+                        atlas.drawNumber(g, values[i], xs[i], ys[i], sizes[i], 0.8f);
+                    }
+                }
+                if (pass >= WARMUP_PASSES) {
+                    totals[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+        g.dispose();
+        double perNumber = 1e3 * TIMED_PASSES * GLYPH_NUMBERS;
+        System.out.printf("  drawString %7.2f us  atlas %7.2f us%n", totals[0] / perNumber, totals[1] / perNumber);
+    }
+
+    // The fifteen drawString passes DamageNumber used before the glyph atlas
+    private static void drawNumberWithText(Graphics2D g, int value, int x, int y, float fontSize, float alpha) {
+        String text = String.valueOf(value);
+        g.setFont(g.getFont().deriveFont(Font.BOLD, fontSize));
+        int textX = x - g.getFontMetrics().stringWidth(text) / 2;
+        g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.6f));
+        g.setColor(new Color(255, 200, 200, 80));
+        for (int i = 1; i <= 3; i++) {
+            g.drawString(text, textX - i, y - i);
+            g.drawString(text, textX + i, y - i);
+            g.drawString(text, textX - i, y + i);
+            g.drawString(text, textX + i, y + i);
+        }
+        g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.8f));
+        g.setColor(new Color(40, 10, 30, 200));
+        for (int i = 1; i <= 2; i++) {
+            g.drawString(text, textX + i, y + i);
+        }
+        g.setComposite(AlphaComposite.SrcOver.derive(alpha));
+        g.setColor(new Color(255, 80, 120));
+        g.drawString(text, textX, y);
+    }
+
+    // Times a frame of orb glows and dashed pulse rings filled with fresh
+    // gradient paints and strokes against the same effects from the effect atlas
+    private static void benchmarkEffectAtlas() {
+        System.out.println("Effect drawing, ms per frame (gradients and strokes vs effect atlas):");
+        BufferedImage frame = new BufferedImage(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Random rng = new Random(17);
+        float[] xs = new float[EFFECT_GLOWS];
+        float[] ys = new float[EFFECT_GLOWS];
+        float[] radii = new float[EFFECT_GLOWS];
+        for (int i = 0; i < EFFECT_GLOWS; i++) {
+            xs[i] = rng.nextFloat() * GamePanel.GAME_WIDTH;
+            ys[i] = rng.nextFloat() * GamePanel.GAME_HEIGHT;
+            radii[i] = 10f + rng.nextFloat() * 30f;
+        }
+        float[] fractions = { 0f, 0.5f, 1f };
+        Color[] glowColors = { new Color(100, 200, 255, 180), new Color(100, 200, 255, 100),
+                new Color(100, 200, 255, 0) };
+        Color ringColor = new Color(160, 80, 255, 180);
+        BasicStroke dash = new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 12f,
+                new float[] { 12f, 8f }, 0f);
+        EffectAtlas.Glow glow = EffectAtlas.radial(64, fractions, glowColors);
+        EffectAtlas.Ring ring = EffectAtlas.ring(ringColor, dash);
+        float cx = GamePanel.GAME_WIDTH * 0.5f;
+        float cy = GamePanel.GAME_HEIGHT * 0.5f;
+
+        Graphics2D g = frame.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setComposite(AlphaComposite.SrcOver.derive(0.8f));
+        long[] totals = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < EFFECT_GLOWS; i++) {
+                    float r = radii[i];
+                    if (mode == 0) {
+                        g.setPaint(new RadialGradientPaint(xs[i], ys[i], r, fractions, glowColors));
+                        g.fill(new Ellipse2D.Float(xs[i] - r, ys[i] - r, r * 2, r * 2));
+                    } else {
+                        glow.draw(g, xs[i], ys[i], r);
+                    }
+                }
+                for (int i = 0; i < EFFECT_RINGS; i++) {
+                    float r = 12f + i * 11f;
+                    if (mode == 0) {
+                        g.setStroke(dash);
+                        g.setColor(ringColor);
+                        g.draw(new Ellipse2D.Float(cx - r, cy - r, r * 2, r * 2));
+                    } else {
+                        ring.draw(g, cx, cy, r);
+                    }
+                }
+                if (pass >= WARMUP_PASSES) {
+                    totals[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+        g.dispose();
+        System.out.printf("  %d glows + %d rings  gradients %7.2f ms  atlas %7.2f ms%n", EFFECT_GLOWS, EFFECT_RINGS,
+                totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES);
+    }
+
+    // Times a frame of enemy sprites drawn the way the player used to be drawn,
+    // flipping and scaling the loaded image on every draw, against one copy of a
+    // pre-scaled, pre-mirrored atlas frame
+    private static void benchmarkSpriteAtlas() {
+        System.out.println("Sprite drawing, us per sprite (flip and scale per draw vs sprite atlas):");
+        EnemyArchetype type = EnemyArchetype.SHADELING;
+        SpriteAtlas.Animation animation = SpriteAtlas.forArchetype(type);
+        BufferedImage source;
+        try (InputStream in = Benchmark.class.getResourceAsStream(type.getFramePaths()[0])) {
+            source = in == null ? null : ImageIO.read(in);
+        } catch (IOException e) {
+            source = null;
+        }
+        if (animation == null || source == null) {
+            System.out.println("  sprites not found, skipped");
+            return;
+        }
+        BufferedImage frame = new BufferedImage(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Random rng = new Random(19);
+        int[] xs = new int[SPRITE_DRAWS];
+        int[] ys = new int[SPRITE_DRAWS];
+        boolean[] mirror = new boolean[SPRITE_DRAWS];
+        for (int i = 0; i < SPRITE_DRAWS; i++) {
+            xs[i] = rng.nextInt(GamePanel.GAME_WIDTH);
+            ys[i] = rng.nextInt(GamePanel.GAME_HEIGHT);
+            mirror[i] = rng.nextBoolean();
+        }
+        int width = animation.getWidth();
+        int height = animation.getHeight();
+        // The old path scaled once at load, then flipped a copy on every draw
+        BufferedImage loaded = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D lg = loaded.createGraphics();
+        lg.drawImage(SpriteAtlas.scale(source, width, height, false), 0, 0, null);
+        lg.dispose();
+
+        Graphics2D g = frame.createGraphics();
+        long[] totals = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < SPRITE_DRAWS; i++) {
+                    if (mode == 0) {
+                        BufferedImage sprite = loaded;
+                        if (mirror[i]) {
+                            AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
+                            tx.translate(-sprite.getWidth(), 0);
+                            sprite = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR)
+                                    .filter(sprite, null);
+                        }
+                        g.drawImage(sprite, xs[i], ys[i], width, height, null);
+                    } else {
+                        int index = SpriteAtlas.enemyFrame(animation, i);
+                        g.drawImage(animation.getFrame(index, mirror[i]), xs[i], ys[i], null);
+                    }
+                }
+                if (pass >= WARMUP_PASSES) {
+                    totals[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+        g.dispose();
+        double perSprite = 1e3 * TIMED_PASSES * SPRITE_DRAWS;
+        System.out.printf("  %dx%d  flip per draw %7.2f us  atlas %7.2f us%n", width, height,
+                totals[0] / perSprite, totals[1] / perSprite);
+    }
+
+    // Times how long the game thread would stall decoding each enemy kind on
+    // first sight, against a lookup once the wave prefetch has cached it, and
+    // reports how much of the cache budget every kind together takes
+    private static void benchmarkSpriteCache() {
+        System.out.println("Sprite cache, ms to decode on demand vs us per cached lookup:");
+        SpriteCache.clear();
+        double decodeTotal = 0;
+        for (EnemyArchetype type : EnemyArchetype.values()) {
+            long start = System.nanoTime();
+            SpriteAtlas.Animation animation = SpriteAtlas.forArchetype(type);
+            double decode = (System.nanoTime() - start) / 1e6;
+            decodeTotal += decode;
+
+            start = System.nanoTime();
+            int hits = 0;
+            for (int pass = 0; pass < WARMUP_PASSES * 1000; pass++) {
+                hits += SpriteAtlas.peekArchetype(type) == animation ? 1 : 0;
+            }
+            double lookup = (System.nanoTime() - start) / 1e3 / (WARMUP_PASSES * 1000);
+            System.out.printf("  %-18s decode %7.2f ms  cached %6.3f us  (%s)%n", type.getDisplayName(), decode,
+                    lookup, animation != null && hits > 0 ? "ok" : "-");
+        }
+        System.out.printf("  all kinds: decode %.1f ms, %d KB cached of %d KB budget, %d evicted%n", decodeTotal,
+                SpriteCache.getBytes() >> 10, SpriteCache.getBudgetBytes() >> 10, SpriteCache.getEvictionCount());
+    }
+
+    // Times loading the screen backgrounds and player frames the way startup
+    // used to, decoding and scaling each file, against copying them out of the
+    // mapped asset pack. Build the pack with AssetPackBuilder first
+    private static void benchmarkAssetPack() {
+        System.out.println("Startup images, ms per load (decode and scale vs asset pack):");
+        AssetPack pack = AssetPack.get();
+        if (!pack.isLoaded()) {
+            System.out.println("  no asset pack, skipped");
+            return;
+        }
+        String[] paths = { IntroScreen.BACKGROUND_PATH, MainMenu.BACKGROUND_PATH, HowToPlayScreen.BACKGROUND_PATH,
+                Player.RUN_FRAMES[0] };
+        int[][] sizes = { { GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT },
+                { GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT }, { GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT },
+                { Player.SIZE, Player.SIZE } };
+        int passes = 5;
+        for (int i = 0; i < paths.length; i++) {
+            int width = sizes[i][0];
+            int height = sizes[i][1];
+            long[] totals = new long[2];
+            for (int pass = 0; pass < passes * 2; pass++) {
+                long start = System.nanoTime();
+                BufferedImage decoded;
+                try (InputStream in = Benchmark.class.getResourceAsStream(paths[i])) {
+                    decoded = SpriteAtlas.scale(ImageIO.read(in), width, height, false);
+                } catch (IOException e) {
+                    decoded = null;
+                }
+                long mid = System.nanoTime();
+                BufferedImage packed = pack.getImage(paths[i], width, height);
+                long end = System.nanoTime();
+                if (pass >= passes && decoded != null && packed != null) {
+                    totals[0] += mid - start;
+                    totals[1] += end - mid;
+                }
+            }
+            String name = paths[i].substring(paths[i].lastIndexOf('/') + 1) + " " + width + "x" + height;
+            System.out.printf("  %-28s decode %8.2f ms  pack %7.2f ms%n", name,
+                    totals[0] / 1e6 / passes, totals[1] / 1e6 / passes);
+        }
+    }
+
+    // Times repainting a menu background the old way, scaling the decoded image
+    // under a 50% composite, against the pre-faded copy ScreenBackground keeps
+    private static void benchmarkScreenBackground() {
+        System.out.println("Menu background, ms per repaint (scale and fade vs pre-rendered):");
+        BufferedImage source;
+        try (InputStream in = Benchmark.class.getResourceAsStream(MainMenu.BACKGROUND_PATH)) {
+            source = in == null ? null : ImageIO.read(in);
+        } catch (IOException e) {
+            source = null;
+        }
+        if (source == null) {
+            System.out.println("  background not found, skipped");
+            return;
+        }
+        int width = GamePanel.GAME_WIDTH;
+        int height = GamePanel.GAME_HEIGHT;
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ScreenBackground background = new ScreenBackground(CompletableFuture.completedFuture(source), 0.5f);
+        Graphics2D g = frame.createGraphics();
+        long[] totals = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                long start = System.nanoTime();
+                if (mode == 0) {
+                    Graphics2D g2 = (Graphics2D) g.create();
+                    g2.setComposite(AlphaComposite.SrcOver.derive(0.5f));
+                    g2.drawImage(source, 0, 0, width, height, null);
+                    g2.dispose();
+                } else {
+                    background.draw(g, width, height);
+                }
+                if (pass >= WARMUP_PASSES) {
+                    totals[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+        g.dispose();
+        System.out.printf("  %dx%d source  scale and fade %7.2f ms  pre-rendered %7.2f ms%n", source.getWidth(),
+                source.getHeight(), totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES);
+    }
+
+    // Times drawing the HUD when its values change every frame, so every layer
+    // is redrawn the way every widget used to be, against frames where nothing
+    // changed and each layer is only copied
+    private static void benchmarkHud() {
+        System.out.println("HUD drawing, us per frame (values change every frame vs cached layers):");
+        BufferedImage frame = new BufferedImage(GamePanel.GAME_WIDTH, GamePanel.GAME_HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Player player = new Player(GamePanel.GAME_WIDTH / 2, GamePanel.GAME_HEIGHT / 2, Player.SIZE, Player.SIZE,
+                100, 10, null, null);
+        HUD hud = new HUD(player, new Font(Font.DIALOG, Font.PLAIN, 64));
+        hud.startTimer();
+        Graphics2D g = frame.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int passes = (WARMUP_PASSES + TIMED_PASSES) * 10;
+        long[] totals = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            for (int pass = 0; pass < passes; pass++) {
+                if (mode == 0) {
+                    hud.updateWaveProgress(pass % 10, 10);
+                    hud.setCurrentWave(1 + pass);
+                    player.setHp(1 + pass % 100);
+                }
+                long start = System.nanoTime();
+                hud.draw(g, GamePanel.GAME_WIDTH);
+                if (pass >= WARMUP_PASSES * 10) {
+                    totals[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+        g.dispose();
+        double perFrame = 1e3 * TIMED_PASSES * 10;
+        System.out.printf("  redrawn %8.2f us  cached %8.2f us%n", totals[0] / perFrame, totals[1] / perFrame);
+    }
+
+    // Draws a scene of enemy sprites, orb trail particles and pulse particle
+    // crosses with a Graphics2D call per object, against writing them straight
+    // into the framebuffer's pixels
+    private static void benchmarkFramebuffer() {
+        System.out.println("Scene drawing, ms per frame (Graphics2D per object vs framebuffer):");
+        SpriteAtlas.Animation animation = SpriteAtlas.forArchetype(EnemyArchetype.SHADELING);
+        if (animation == null) {
+            System.out.println("  sprites not found, skipped");
+            return;
+        }
+        int width = GamePanel.GAME_WIDTH;
+        int height = GamePanel.GAME_HEIGHT;
+        BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        // Drawn on one thread; the tiled benchmark compares the parallel path
+        Framebuffer frame = new Framebuffer(width, height);
+        frame.setParallel(false);
+        Color particle = new Color(80, 170, 255, 120);
+        for (int n : SCENE_SIZES) {
+            Random rng = new Random(23);
+            float[] xs = new float[n];
+            float[] ys = new float[n];
+            float[] sizes = new float[n];
+            float[] alphas = new float[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = rng.nextFloat() * width;
+                ys[i] = rng.nextFloat() * height;
+                sizes[i] = 1f + rng.nextFloat() * 4f;
+                alphas[i] = 0.2f + rng.nextFloat() * 0.8f;
+            }
+            long[] totals = new long[2];
+            for (int mode = 0; mode < 2; mode++) {
+                for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                    long start = System.nanoTime();
+                    if (mode == 0) {
+                        Graphics2D g = screen.createGraphics();
+                        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                        g.setColor(Color.BLACK);
+                        g.fillRect(0, 0, width, height);
+                        for (int i = 0; i < n; i++) {
+                            int x = (int) xs[i];
+                            int y = (int) ys[i];
+                            int s = (int) sizes[i];
+                            if (i % 4 == 0) {
+                                g.setComposite(AlphaComposite.SrcOver);
+                                g.drawImage(animation.getFrame(SpriteAtlas.enemyFrame(animation, i), (i & 4) != 0),
+                                        x, y, null);
+                            } else if (i % 4 == 1) {
+                                g.setComposite(AlphaComposite.SrcOver.derive(alphas[i]));
+                                g.setColor(particle);
+                                g.fillRect(x - s, y - 1, s * 2 + 1, 3);
+                                g.fillRect(x - 1, y - s, 3, s * 2 + 1);
+                            } else {
+                                g.setComposite(AlphaComposite.SrcOver.derive(alphas[i]));
+                                g.setColor(particle);
+                                g.fill(new Ellipse2D.Float(xs[i] - sizes[i], ys[i] - sizes[i], sizes[i] * 2,
+                                        sizes[i] * 2));
+                            }
+                        }
+                        g.dispose();
+                    } else {
+                        frame.clear(Color.BLACK);
+                        for (int i = 0; i < n; i++) {
+                            int x = (int) xs[i];
+                            int y = (int) ys[i];
+                            int s = (int) sizes[i];
+                            int color = Framebuffer.withAlpha(particle, alphas[i]);
+                            if (i % 4 == 0) {
+                                frame.drawSprite(Framebuffer.LAYER_ENEMY,
+                                        animation.getSprite(SpriteAtlas.enemyFrame(animation, i), (i & 4) != 0), x, y);
+                            } else if (i % 4 == 1) {
+                                frame.fillRect(Framebuffer.LAYER_PARTICLE, x - s, y - 1, s * 2 + 1, 3, color,
+                                        Framebuffer.Blend.ALPHA);
+                                frame.fillRect(Framebuffer.LAYER_PARTICLE, x - 1, y - s, 3, s * 2 + 1, color,
+                                        Framebuffer.Blend.ALPHA);
+                            } else {
+                                frame.fillCircle(Framebuffer.LAYER_PARTICLE, xs[i], ys[i], sizes[i], color,
+                                        Framebuffer.Blend.ALPHA);
+                            }
+                        }
+                        Graphics2D g = screen.createGraphics();
+                        frame.present(g, 0, 0);
+                        g.dispose();
+                    }
+                    if (pass >= WARMUP_PASSES) {
+                        totals[mode] += System.nanoTime() - start;
+                    }
+                }
+            }
+            System.out.printf("  n=%5d  Graphics2D %8.2f ms  framebuffer %8.2f ms%n", n,
+                    totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES);
+        }
+    }
+
+    // Draws an effect-heavy frame, a level-5 pulse's overlapping glows over
+    // many orb trails and a crowd of enemies, on one thread against split into
+    // tiles across the fork/join pool. Both finish by copying the frame out
+    private static void benchmarkTiledRaster() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Tiled rasterization, ms per frame on " + cores + " core(s) (one thread vs tiles):");
+        SpriteAtlas.Animation animation = SpriteAtlas.forArchetype(EnemyArchetype.SHADELING);
+        if (animation == null) {
+            System.out.println("  sprites not found, skipped");
+            return;
+        }
+        int width = GamePanel.GAME_WIDTH;
+        int height = GamePanel.GAME_HEIGHT;
+        BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Framebuffer frame = new Framebuffer(width, height);
+        int glow = Framebuffer.withAlpha(new Color(160, 80, 255), 0.35f);
+        int trail = Framebuffer.withAlpha(new Color(80, 170, 255, 120), 0.7f);
+        for (int trails : TRAIL_COUNTS) {
+            Random rng = new Random(29);
+            float[] glowX = new float[PULSE_GLOWS];
+            float[] glowY = new float[PULSE_GLOWS];
+            float[] glowRadius = new float[PULSE_GLOWS];
+            for (int i = 0; i < PULSE_GLOWS; i++) {
+                glowX[i] = width * 0.5f + (rng.nextFloat() - 0.5f) * 200f;
+                glowY[i] = height * 0.5f + (rng.nextFloat() - 0.5f) * 200f;
+                glowRadius[i] = 40f + rng.nextFloat() * 120f;
+            }
+            int particles = trails * TRAIL_PARTICLES;
+            float[] px = new float[particles];
+            float[] py = new float[particles];
+            for (int t = 0; t < trails; t++) {
+                float x = rng.nextFloat() * width;
+                float y = rng.nextFloat() * height;
+                float angle = rng.nextFloat() * (float) Math.PI * 2f;
+                for (int k = 0; k < TRAIL_PARTICLES; k++) {
+                    px[t * TRAIL_PARTICLES + k] = x - (float) Math.cos(angle) * k * 3f;
+                    py[t * TRAIL_PARTICLES + k] = y - (float) Math.sin(angle) * k * 3f;
+                }
+            }
+            int enemies = trails * 10;
+            int[] ex = new int[enemies];
+            int[] ey = new int[enemies];
+            for (int i = 0; i < enemies; i++) {
+                ex[i] = rng.nextInt(width);
+                ey[i] = rng.nextInt(height);
+            }
+
+            long[] totals = new long[2];
+            for (int mode = 0; mode < 2; mode++) {
+                frame.setParallel(mode == 1);
+                for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                    long start = System.nanoTime();
+                    frame.clear(Color.BLACK);
+                    for (int i = 0; i < PULSE_GLOWS; i++) {
+                        frame.splat(Framebuffer.LAYER_GLOW, glowX[i], glowY[i], glowRadius[i], glow,
+                                Framebuffer.Blend.ADD);
+                    }
+                    for (int i = 0; i < particles; i++) {
+                        frame.fillCircle(Framebuffer.LAYER_PARTICLE, px[i], py[i], 1f + (i % TRAIL_PARTICLES) * 0.08f,
+                                trail, Framebuffer.Blend.ALPHA);
+                    }
+                    for (int i = 0; i < enemies; i++) {
+                        frame.drawSprite(Framebuffer.LAYER_ENEMY,
+                                animation.getSprite(SpriteAtlas.enemyFrame(animation, i), (i & 1) != 0), ex[i], ey[i]);
+                    }
+                    Graphics2D g = screen.createGraphics();
+                    frame.present(g, 0, 0);
+                    g.dispose();
+                    if (pass >= WARMUP_PASSES) {
+                        totals[mode] += System.nanoTime() - start;
+                    }
+                }
+            }
+            System.out.printf("  %3d trails, %5d enemies  one thread %8.2f ms  tiled %8.2f ms%n", trails, enemies,
+                    totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES);
+        }
+    }
+
+    // Draws lance beam particles, each two glows under a core, and a crowd of
+    // mixed enemy kinds. The old way sets up a Graphics2D composite per particle;
+    // the command buffer is drawn in recording order and then sorted by state.
+    // All three run on one thread and finish by copying the frame out
+    private static void benchmarkCommandSort() {
+        System.out.println("Command buffer, ms per frame and state changes (Graphics2D vs recorded vs sorted):");
+        List<SpriteAtlas.Animation> kinds = new ArrayList<>();
+        for (EnemyArchetype type : EnemyArchetype.values()) {
+            SpriteAtlas.Animation animation = SpriteAtlas.forArchetype(type);
+            if (animation != null && !type.isBoss()) {
+                kinds.add(animation);
+            }
+        }
+        if (kinds.isEmpty()) {
+            System.out.println("  sprites not found, skipped");
+            return;
+        }
+        int width = GamePanel.GAME_WIDTH;
+        int height = GamePanel.GAME_HEIGHT;
+        BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Framebuffer frame = new Framebuffer(width, height);
+        frame.setParallel(false);
+        for (int n : BATCH_SIZES) {
+            Random rng = new Random(31);
+            float[] px = new float[n];
+            float[] py = new float[n];
+            float[] size = new float[n];
+            float[] alpha = new float[n];
+            int[] ex = new int[n];
+            int[] ey = new int[n];
+            for (int i = 0; i < n; i++) {
+                px[i] = rng.nextFloat() * width;
+                py[i] = rng.nextFloat() * height;
+                size[i] = 1f + rng.nextFloat() * 1.5f;
+                alpha[i] = rng.nextFloat();
+                ex[i] = rng.nextInt(width);
+                ey[i] = rng.nextInt(height);
+            }
+            long[] totals = new long[3];
+            int[] changes = new int[3];
+            for (int mode = 0; mode < 3; mode++) {
+                frame.setSorting(mode == 2);
+                for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+                    long start = System.nanoTime();
+                    Graphics2D g = screen.createGraphics();
+                    if (mode == 0) {
+                        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                        g.setColor(Color.BLACK);
+                        g.fillRect(0, 0, width, height);
+                    } else {
+                        frame.clear(Color.BLACK);
+                    }
+                    // Particles, orbs and enemies alternate, as skills and entities draw in turn
+                    for (int i = 0; i < n; i++) {
+                        float opacity = alpha[i] * 0.9f;
+                        Color core = new Color(255, 255, 255, (int) (240 * alpha[i]));
+                        SpriteAtlas.Animation kind = kinds.get(i % kinds.size());
+                        int index = SpriteAtlas.enemyFrame(kind, i);
+                        // Each orb sits a little way off its particle, the way orbs trail sparks
+                        float ox = px[i] + 12f;
+                        float oy = py[i] - 8f;
+                        float turn = alpha[i] * 6f;
+                        if (mode == 0) {
+                            Graphics2D p = (Graphics2D) g.create();
+                            p.setComposite(AlphaComposite.SrcOver.derive(opacity * alpha[i]));
+                            LightLance.BEAM_OUTER_GLOW.draw(p, px[i], py[i], size[i] * 1.5f);
+                            LightLance.BEAM_MAIN_GLOW.draw(p, px[i], py[i], size[i]);
+                            p.setComposite(AlphaComposite.SrcOver.derive(opacity));
+                            p.setColor(core);
+                            p.fill(new Ellipse2D.Float(px[i] - size[i] / 4, py[i] - size[i] / 4, size[i] / 2,
+                                    size[i] / 2));
+                            // The orb as PhotonOrb drew it before, one composite and stroke per part
+                            p.setComposite(AlphaComposite.SrcOver.derive(0.8f));
+                            LightLance.BEAM_MAIN_GLOW.draw(p, ox, oy, ORB_SIZE * 2f);
+                            p.setComposite(AlphaComposite.SrcOver.derive(0.9f));
+                            p.translate(ox, oy);
+                            p.rotate(turn);
+                            p.setColor(core);
+                            p.fill(new Ellipse2D.Float(-ORB_SIZE, -ORB_SIZE, ORB_SIZE * 2, ORB_SIZE * 2));
+                            p.setColor(Color.WHITE);
+                            p.setComposite(AlphaComposite.SrcOver.derive(0.7f));
+                            p.setStroke(new BasicStroke(1.5f));
+                            p.drawOval((int) (-ORB_SIZE / 2), (int) (-ORB_SIZE / 2), (int) ORB_SIZE, (int) ORB_SIZE);
+                            p.setStroke(new BasicStroke(0.8f));
+                            p.setComposite(AlphaComposite.SrcOver.derive(0.5f));
+                            p.drawArc((int) -ORB_SIZE, (int) -ORB_SIZE, (int) ORB_SIZE * 2, (int) ORB_SIZE * 2, 0, 120);
+                            p.dispose();
+                            g.drawImage(kind.getFrame(index, (i & 1) != 0), ex[i], ey[i], null);
+                        } else {
+                            LightLance.BEAM_OUTER_GLOW.draw(frame, Framebuffer.LAYER_GLOW, px[i], py[i],
+                                    size[i] * 1.5f, opacity * alpha[i]);
+                            LightLance.BEAM_MAIN_GLOW.draw(frame, Framebuffer.LAYER_GLOW, px[i], py[i], size[i],
+                                    opacity * alpha[i]);
+                            frame.fillCircle(Framebuffer.LAYER_PARTICLE, px[i], py[i], size[i] / 4,
+                                    Framebuffer.withAlpha(core, opacity), Framebuffer.Blend.ALPHA);
+                            LightLance.BEAM_MAIN_GLOW.draw(frame, Framebuffer.LAYER_GLOW, ox, oy, ORB_SIZE * 2f, 0.8f);
+                            frame.fillCircle(Framebuffer.LAYER_PARTICLE, ox, oy, ORB_SIZE,
+                                    Framebuffer.withAlpha(core, 0.9f), Framebuffer.Blend.ALPHA);
+                            frame.strokeCircle(Framebuffer.LAYER_PARTICLE, ox, oy, ORB_SIZE / 2, 1.5f,
+                                    Framebuffer.withAlpha(Color.WHITE, 0.7f), Framebuffer.Blend.ALPHA);
+                            frame.strokeArc(Framebuffer.LAYER_PARTICLE, ox, oy, ORB_SIZE, 0.8f, turn - 2.1f, 2.1f,
+                                    Framebuffer.withAlpha(Color.WHITE, 0.5f), Framebuffer.Blend.ALPHA);
+                            frame.drawSprite(Framebuffer.LAYER_ENEMY, kind.getSprite(index, (i & 1) != 0), ex[i],
+                                    ey[i]);
+                        }
+                    }
+                    if (mode != 0) {
+                        frame.present(g, 0, 0);
+                        changes[mode] = frame.getStateChanges();
+                    }
+                    g.dispose();
+                    if (pass >= WARMUP_PASSES) {
+                        totals[mode] += System.nanoTime() - start;
+                    }
+                }
+            }
+            System.out.printf("  n=%5d  Graphics2D %7.2f ms  recorded %7.2f ms (%5d changes)  sorted %7.2f ms"
+                    + " (%4d changes)%n", n, totals[0] / 1e6 / TIMED_PASSES, totals[1] / 1e6 / TIMED_PASSES,
+                    changes[1], totals[2] / 1e6 / TIMED_PASSES, changes[2]);
+        }
+    }
+
+    // Largest value in an array
+    private static float maxOf(float[] values) {
+        float max = values[0];
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This interface is what the contact solver needs from a broadphase: keep track of a packed
+* set of circles and list the ones that might overlap a box and whose collision layers accept the asker.
+* SpatialGrid and AabbTree both implement it
+*/
+
+import java.util.function.IntConsumer;
+
+public interface Broadphase {
+    /**
+     * Brings the structure up to date with the first count packed circles. keys
+     * name the same body from one update to the next (enemy handles), so
+     * structures that keep state between steps can tell who moved. layers and
+     * masks are each circle's collision layer and mask.
+     */
+    void update(float[] xs, float[] ys, float[] radii, int[] keys, int[] layers, int[] masks, int count);
+
+    /**
+     * Calls visitor with the packed slot of every circle whose bounds may overlap
+     * the given box and that CollisionLayer.canCollide accepts against the given
+     * layer and mask. Circles the masks rule out are skipped inside the structure,
+     * so they never reach the visitor. Extra slots may be reported, overlapping
+     * ones never missed. Safe to call from several threads at once between updates.
+     */
+    void query(float minX, float minY, float maxX, float maxY, int layer, int mask, IntConsumer visitor);
+}
@@ -0,0 +1,34 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class lists the collision layers. Every collidable thing sits on one layer and has a
+* mask of the layers it wants to be tested against; a pair is only tested if each side's mask includes
+* the other side's layer
+*/
+
+public final class CollisionLayer {
+    // Layer bits
+    public static final int NONE = 0;
+    public static final int PLAYER = 1;
+    public static final int ENEMY = 1 << 1;
+    public static final int PLAYER_PROJECTILE = 1 << 2;
+    public static final int ENEMY_PROJECTILE = 1 << 3;
+    public static final int ALLY = 1 << 4;
+    public static final int PICKUP = 1 << 5;
+    // Mask that accepts every layer
+    public static final int ALL = -1;
+
+    // Default masks for each kind of body
+    public static final int PLAYER_MASK = ENEMY | ENEMY_PROJECTILE | PICKUP;
+    public static final int ENEMY_MASK = PLAYER | ENEMY | PLAYER_PROJECTILE | ALLY;
+    public static final int PLAYER_PROJECTILE_MASK = ENEMY;
+
+    // Private constructor to prevent instantiation of this utility class
+    private CollisionLayer() {
+    }
+
+    // Whether two bodies with the given layers and masks should be tested against each other
+    public static boolean canCollide(int layer_a, int mask_a, int layer_b, int mask_b) {
+        return (layer_a & mask_b) != 0 && (layer_b & mask_a) != 0;
+    }
+}
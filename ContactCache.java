@@ -0,0 +1,177 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class remembers enemy-enemy contacts from one step to the next, keyed by the pair's
+* enemy handles, so the solver can warm start from last step's impulse and tell which contacts are at rest
+*/
+
+import java.util.Arrays;
+
+public class ContactCache {
+    // The key marking an empty table entry; real keys never use it because
+    // EnemyHandles.NONE is never stored
+    private static final long EMPTY = 0L;
+    // Starting number of table entries, always a power of two
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Open-addressing table of pair keys and the state kept for each pair
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private float[] impulse = new float[INITIAL_CAPACITY];
+    private int[] restFrames = new int[INITIAL_CAPACITY];
+    private int[] lastSeen = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // Builds the key of a pair of handles; the order of the two handles does not matter
+    public static long key(int handleA, int handleB) {
+        int low = Math.min(handleA, handleB);
+        int high = Math.max(handleA, handleB);
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    // Makes room for the given number of new pairs, so no acquire before the
+    // next evict has to grow the table and move slots
+    public void reserve(int pairs) {
+        int capacity = keys.length;
+        while ((size + pairs) * 2 > capacity) {
+            capacity <<= 1;
+        }
+        if (capacity != keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * Finds the entry for a pair, adding a fresh one if the pair was not touching
+     * last step, and marks it as seen in the given frame. Returns the entry's slot,
+     * which stays valid until the next reserve or evict. Call reserve first.
+     */
+    public int acquire(long key, int frame) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                lastSeen[slot] = frame;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        impulse[slot] = 0f;
+        restFrames[slot] = 0;
+        lastSeen[slot] = frame;
+        size++;
+        return slot;
+    }
+
+    // Drops every pair that was not seen in the given frame. Each one is removed
+    // in place by shifting the rest of its probe chain back over it, so the table
+    // keeps its arrays from step to step
+    public void evict(int frame) {
+        int slot = 0;
+        while (slot < keys.length && size > 0) {
+            if (keys[slot] != EMPTY && lastSeen[slot] != frame) {
+                // A later entry of the chain may have moved into this slot, so look again
+                removeAt(slot);
+            } else {
+                slot++;
+            }
+        }
+    }
+
+    // Removes every entry
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    public float getImpulse(int slot) {
+        return impulse[slot];
+    }
+
+    public void setImpulse(int slot, float value) {
+        impulse[slot] = value;
+    }
+
+    // Number of steps in a row the pair has been at rest
+    public int getRestFrames(int slot) {
+        return restFrames[slot];
+    }
+
+    public void setRestFrames(int slot, int frames) {
+        restFrames[slot] = frames;
+    }
+
+    // Number of pairs currently cached
+    public int size() {
+        return size;
+    }
+
+    // Grows the table and re-inserts every entry
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        float[] oldImpulse = impulse;
+        int[] oldRest = restFrames;
+        int[] oldSeen = lastSeen;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                insert(oldKeys[slot], oldImpulse[slot], oldRest[slot], oldSeen[slot]);
+            }
+        }
+    }
+
+    // Replaces the table with an empty one of the given capacity
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        impulse = new float[capacity];
+        restFrames = new int[capacity];
+        lastSeen = new int[capacity];
+        size = 0;
+    }
+
+    // Empties a slot, then walks the probe chain after it and moves back every
+    // entry whose home slot is not between the hole and where it sits, so each
+    // remaining key is still found by probing from its home
+    private void removeAt(int hole) {
+        int mask = keys.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == EMPTY) {
+                break;
+            }
+            int home = hash(keys[slot]) & mask;
+            boolean stays = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (stays) {
+                continue;
+            }
+            keys[hole] = keys[slot];
+            impulse[hole] = impulse[slot];
+            restFrames[hole] = restFrames[slot];
+            lastSeen[hole] = lastSeen[slot];
+            hole = slot;
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    // Adds an entry known not to be in the table yet
+    private void insert(long key, float pairImpulse, int rest, int seen) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        impulse[slot] = pairImpulse;
+        restFrames[slot] = rest;
+        lastSeen[slot] = seen;
+        size++;
+    }
+
+    // Spreads the key bits so neighbouring handles do not cluster in the table
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,584 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class runs the impulse crowd model across threads. Contacts are found in parallel
+* through a broadphase (a grid or an AABB tree, picked from the enemy sizes), then graph-colored so that
+* no two contacts of the same color share an enemy, which lets every color be resolved in parallel without
+* locks. Contacts are cached between steps for warm starting, and islands of enemies resting against each
+* other are put to sleep and left out of the coloring and the solve
+*/
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public class ContactSolver {
+    // Speed above which an enemy counts as moving, same as the serial impulse loop
+    private static final float MOVING_SPEED = 0.5f;
+    // Crowds smaller than this are solved on the calling thread
+    private static final int PARALLEL_THRESHOLD = 512;
+    // Number of enemies one narrowphase block checks
+    private static final int NARROWPHASE_BLOCK = 256;
+    // Smallest number of contacts worth handing to another thread
+    private static final int RESOLVE_GRAIN = 128;
+    // Colors tracked per enemy. Contacts that find every color taken go into one
+    // extra color that is always resolved serially
+    private static final int MAX_COLORS = 64;
+    // Relative speed below which a contact counts as resting
+    private static final float SLEEP_SPEED = 0.05f;
+    // Steps a contact must rest before its island can sleep
+    private static final int SLEEP_FRAMES = 30;
+
+    // Ratio of the largest to the mean enemy radius above which the AABB tree
+    // takes over from the grid, and below which the grid takes back over. The
+    // Benchmark puts the crossover around 10x; below that the grid's flat scans
+    // beat the tree's descent even with oversized cells
+    private static final float TREE_SPREAD = 10f;
+    private static final float GRID_SPREAD = 8f;
+
+    // The ways contacts can be found
+    public enum BroadphaseMode {
+        AUTO, // Pick from the live size distribution every step
+        GRID, // Always use the uniform grid
+        TREE // Always use the AABB tree
+    }
+
+    // World size the neighbour grid covers
+    private final int worldWidth, worldHeight;
+    // Uniform grid, recreated if enemies get larger; its cells fit the largest enemy
+    private SpatialGrid grid;
+    // AABB tree, kept between steps so only enemies that left their box are re-inserted
+    private final AabbTree tree = new AabbTree();
+    // Broadphase used by the current step
+    private Broadphase broadphase;
+    private volatile BroadphaseMode broadphaseMode = BroadphaseMode.AUTO;
+    // Whether AUTO has switched to the tree
+    private boolean preferTree;
+    // Per-block narrowphase collectors and the fast-body sweep collector
+    private PairCollector[] collectors = new PairCollector[0];
+    private final SweepCollector sweepCollector = new SweepCollector();
+
+    // Enemies being solved and their state at the start of the step
+    private Enemy[] bodies;
+    private int bodyCount;
+    private float[] px = new float[64], py = new float[64];
+    private float[] vx = new float[64], vy = new float[64];
+    // Where each enemy stood before its update this step, the start of its sweep
+    private float[] fromX = new float[64], fromY = new float[64];
+    private boolean[] moving = new boolean[64];
+    // Whether each enemy wrapped around the screen this step, so its path is unknown
+    private boolean[] wrapped = new boolean[64];
+    private float[] radius;
+    // Collision layers and masks of the crowd being solved
+    private int[] layer, mask;
+    // Colors already used by contacts of each enemy, one bit per color
+    private long[] bodyColors = new long[64];
+    // Union-find parent of each enemy, used to group contacts into islands
+    private int[] parent = new int[64];
+    // Whether the island rooted at each enemy has a contact that is not resting
+    private boolean[] islandAwake = new boolean[64];
+
+    // Every contact of this step in discovery order
+    private int[] contactA = new int[256], contactB = new int[256];
+    // Slot of each contact in the cache, or -1 if one of its enemies has no handle
+    private int[] contactSlot = new int[256];
+    private byte[] contactColor = new byte[256];
+    // Whether each contact's island is asleep, so it only gets the position fix
+    private boolean[] contactAsleep = new boolean[256];
+    private int contactCount;
+    // Contacts whose island is asleep this step
+    private int sleepingCount;
+
+    // Contacts remembered from earlier steps, and the step counter they are stamped with
+    private final ContactCache cache = new ContactCache();
+    private int frame;
+    private volatile boolean sleeping = true;
+    // Contacts sorted by color; color c owns colorStart[c] to colorStart[c + 1]
+    private int[] ordered = new int[256];
+    private final int[] colorStart = new int[MAX_COLORS + 2];
+    private int colorCount;
+
+    // Time scale of the step being resolved
+    private float dtScale;
+    // Largest enemy radius in the step being resolved
+    private float maxRadius;
+    private volatile boolean parallel = true;
+
+    // Creates a solver for a world of the given size
+    public ContactSolver(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * Finds and resolves every enemy-enemy contact in the packed crowd. The
+     * colors are resolved one after another and every contact of a color writes
+     * only its own two enemies, so the result is the same whether the colors are
+     * split across threads or not.
+     */
+    public void solve(CrowdBuffer crowd, float dt_scale) {
+        int n = crowd.count;
+        if (n < 2) {
+            return;
+        }
+        ensureBodyCapacity(n);
+        bodies = crowd.enemies;
+        bodyCount = n;
+        radius = crowd.radius;
+        layer = crowd.layer;
+        mask = crowd.mask;
+        dtScale = dt_scale;
+
+        maxRadius = 0f;
+        float totalRadius = 0f;
+        for (int i = 0; i < n; i++) {
+            Enemy enemy = bodies[i];
+            px[i] = (float) enemy.getCenterX();
+            py[i] = (float) enemy.getCenterY();
+            vx[i] = enemy.getXVelocity();
+            vy[i] = enemy.getYVelocity();
+            fromX[i] = enemy.getStepStartX();
+            fromY[i] = enemy.getStepStartY();
+            moving[i] = Math.hypot(vx[i], vy[i]) > MOVING_SPEED;
+            wrapped[i] = enemy.hasWrapped();
+            maxRadius = Math.max(maxRadius, radius[i]);
+            totalRadius += radius[i];
+        }
+        broadphase = chooseBroadphase(totalRadius / n);
+        int[] keys = crowd.handle;
+        broadphase.update(px, py, radius, keys, layer, mask, n);
+        if (sweepFastBodies(n)) {
+            broadphase.update(px, py, radius, keys, layer, mask, n);
+        }
+
+        boolean split = parallel && n >= PARALLEL_THRESHOLD;
+        frame++;
+        findContacts(n, split);
+        updateCache();
+        putIslandsToSleep(n);
+        colorContacts(n);
+        for (int color = 0; color < colorCount; color++) {
+            int from = colorStart[color];
+            int to = colorStart[color + 1];
+            if (split && color < MAX_COLORS && to - from >= RESOLVE_GRAIN * 2) {
+                new Range(from, to, RESOLVE_GRAIN, this::resolveContact).invoke();
+            } else {
+                for (int k = from; k < to; k++) {
+                    resolveContact(k);
+                }
+            }
+        }
+        cache.evict(frame);
+        bodies = null;
+    }
+
+    // Continuous collision for enemies moving fast enough to skip past another
+    // one in a single step, such as knocked-back enemies. Each one's path, from
+    // where it stood before its update to where it is now, is swept against the
+    // enemies around it; if it hit one part way, it is moved back to the first
+    // touch so the narrowphase finds the contact. Since the path comes from the
+    // positions, a knockback that replaced the velocity later in the step does
+    // not bend it. Enemies that wrapped around the screen this step are
+    // not swept, and count as standing still for the others. Runs serially in
+    // slot order. Returns true if any moved
+    private boolean sweepFastBodies(int n) {
+        boolean moved = false;
+        SweepCollector sweep = sweepCollector;
+        for (int i = 0; i < n; i++) {
+            if (wrapped[i]) {
+                continue;
+            }
+            float stepX = px[i] - fromX[i];
+            float stepY = py[i] - fromY[i];
+            if (!Physics.needsSweep(stepX, stepY, radius[i])) {
+                continue;
+            }
+            sweep.begin(i, stepX, stepY);
+            float reach = radius[i] + maxRadius;
+            broadphase.query(Math.min(sweep.startX, px[i]) - reach, Math.min(sweep.startY, py[i]) - reach,
+                    Math.max(sweep.startX, px[i]) + reach, Math.max(sweep.startY, py[i]) + reach, layer[i], mask[i],
+                    sweep);
+            if (sweep.earliest <= 1f) {
+                px[i] = sweep.startX + stepX * sweep.earliest;
+                py[i] = sweep.startY + stepY * sweep.earliest;
+                bodies[i].setPos(px[i], py[i]);
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    // Runs the narrowphase in fixed blocks and joins their pairs in block order,
+    // so the contact list does not depend on thread timing
+    private void findContacts(int n, boolean split) {
+        int blocks = (n + NARROWPHASE_BLOCK - 1) / NARROWPHASE_BLOCK;
+        if (collectors.length < blocks) {
+            PairCollector[] grown = Arrays.copyOf(collectors, blocks);
+            for (int b = collectors.length; b < blocks; b++) {
+                grown[b] = new PairCollector();
+            }
+            collectors = grown;
+        }
+        if (split) {
+            new Range(0, blocks, 1, this::narrowphase).invoke();
+        } else {
+            for (int b = 0; b < blocks; b++) {
+                narrowphase(b);
+            }
+        }
+
+        contactCount = 0;
+        for (int b = 0; b < blocks; b++) {
+            PairCollector collector = collectors[b];
+            int pairs = collector.count / 2;
+            ensureContactCapacity(contactCount + pairs);
+            int[] buffer = collector.pairs;
+            for (int p = 0; p < pairs; p++) {
+                contactA[contactCount] = buffer[p * 2];
+                contactB[contactCount] = buffer[p * 2 + 1];
+                contactCount++;
+            }
+        }
+    }
+
+    // Finds the touching pairs whose lower slot lies in the given block
+    private void narrowphase(int block) {
+        int from = block * NARROWPHASE_BLOCK;
+        int to = Math.min(from + NARROWPHASE_BLOCK, bodyCount);
+        PairCollector collector = collectors[block];
+        collector.count = 0;
+        for (int i = from; i < to; i++) {
+            float r = radius[i];
+            collector.self = i;
+            broadphase.query(px[i] - r, py[i] - r, px[i] + r, py[i] + r, layer[i], mask[i], collector);
+        }
+    }
+
+    // Picks the broadphase for this step. A uniform grid has to size its cells
+    // for the largest enemy, so when a few huge enemies share the field with many
+    // small ones every cell fills up and the tree is the better choice
+    private Broadphase chooseBroadphase(float meanRadius) {
+        BroadphaseMode mode = broadphaseMode;
+        boolean useTree;
+        if (mode == BroadphaseMode.AUTO) {
+            float spread = meanRadius > 0f ? maxRadius / meanRadius : 1f;
+            if (spread > TREE_SPREAD) {
+                preferTree = true;
+            } else if (spread < GRID_SPREAD) {
+                preferTree = false;
+            }
+            useTree = preferTree;
+        } else {
+            useTree = mode == BroadphaseMode.TREE;
+        }
+        if (useTree) {
+            return tree;
+        }
+        float cellSize = Math.max(1f, maxRadius * 2f);
+        if (grid == null || grid.getCellSize() < cellSize) {
+            grid = new SpatialGrid(worldWidth, worldHeight, cellSize);
+        }
+        return grid;
+    }
+
+    // Looks up every contact in the cache and counts how many steps in a row it
+    // has been resting
+    private void updateCache() {
+        cache.reserve(contactCount);
+        for (int k = 0; k < contactCount; k++) {
+            Enemy a = bodies[contactA[k]];
+            Enemy b = bodies[contactB[k]];
+            if (a.getHandle() == EnemyHandles.NONE || b.getHandle() == EnemyHandles.NONE) {
+                contactSlot[k] = -1;
+                continue;
+            }
+            int slot = cache.acquire(ContactCache.key(a.getHandle(), b.getHandle()), frame);
+            contactSlot[k] = slot;
+            float dvx = vx[contactA[k]] - vx[contactB[k]];
+            float dvy = vy[contactA[k]] - vy[contactB[k]];
+            boolean resting = dvx * dvx + dvy * dvy < SLEEP_SPEED * SLEEP_SPEED;
+            cache.setRestFrames(slot, resting ? Math.min(SLEEP_FRAMES, cache.getRestFrames(slot) + 1) : 0);
+        }
+    }
+
+    // Groups touching enemies into islands and puts to sleep the contacts of
+    // every island whose contacts have all been resting for SLEEP_FRAMES steps.
+    // Both enemies of a sleeping contact are asleep, so it is neither colored nor
+    // solved and keeps its impulse for when the island wakes. Steering still
+    // moves the enemies, so one pair that starts closing in, or a new enemy
+    // touching the island, wakes all of it
+    private void putIslandsToSleep(int n) {
+        sleepingCount = 0;
+        Arrays.fill(contactAsleep, 0, contactCount, false);
+        if (!sleeping) {
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            islandAwake[i] = false;
+        }
+        for (int k = 0; k < contactCount; k++) {
+            int rootA = findRoot(contactA[k]);
+            int rootB = findRoot(contactB[k]);
+            if (rootA != rootB) {
+                parent[rootB] = rootA;
+            }
+        }
+        for (int k = 0; k < contactCount; k++) {
+            int slot = contactSlot[k];
+            if (slot < 0 || cache.getRestFrames(slot) < SLEEP_FRAMES) {
+                islandAwake[findRoot(contactA[k])] = true;
+            }
+        }
+        for (int k = 0; k < contactCount; k++) {
+            if (!islandAwake[findRoot(contactA[k])]) {
+                contactAsleep[k] = true;
+                sleepingCount++;
+            }
+        }
+    }
+
+    // Finds the island root of an enemy, halving the path as it goes
+    private int findRoot(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Greedily gives each awake contact the lowest color neither of its enemies
+    // has used yet, then sorts the awake contacts by color
+    private void colorContacts(int n) {
+        Arrays.fill(bodyColors, 0, n, 0L);
+        Arrays.fill(colorStart, 0);
+        colorCount = 0;
+        for (int k = 0; k < contactCount; k++) {
+            if (contactAsleep[k]) {
+                continue;
+            }
+            int a = contactA[k], b = contactB[k];
+            long used = bodyColors[a] | bodyColors[b];
+            int color = used == -1L ? MAX_COLORS : Long.numberOfTrailingZeros(~used);
+            if (color < MAX_COLORS) {
+                bodyColors[a] |= 1L << color;
+                bodyColors[b] |= 1L << color;
+            }
+            contactColor[k] = (byte) color;
+            colorStart[color + 1]++;
+            colorCount = Math.max(colorCount, color + 1);
+        }
+        for (int c = 0; c < colorCount; c++) {
+            colorStart[c + 1] += colorStart[c];
+        }
+        // Stable counting sort keeps discovery order within each color
+        int[] cursor = new int[colorCount];
+        System.arraycopy(colorStart, 0, cursor, 0, colorCount);
+        for (int k = 0; k < contactCount; k++) {
+            if (!contactAsleep[k]) {
+                ordered[cursor[contactColor[k]]++] = k;
+            }
+        }
+    }
+
+    // Resolves the contact at the given position of the color-sorted list
+    private void resolveContact(int position) {
+        int k = ordered[position];
+        Enemy a = bodies[contactA[k]];
+        Enemy b = bodies[contactB[k]];
+        int slot = contactSlot[k];
+        float total = 0f;
+        // Earlier colors may have pushed the pair apart already
+        if (Physics.circleIntersection(a, b)) {
+            total = Physics.resolveEnemyPair(a, b, dtScale, slot < 0 ? 0f : cache.getImpulse(slot));
+        }
+        // Each contact owns its cache slot, so this write never races
+        if (slot >= 0) {
+            cache.setImpulse(slot, total);
+        }
+    }
+
+    // Grows the per-enemy arrays so at least the given number of enemies fit
+    private void ensureBodyCapacity(int capacity) {
+        if (capacity <= px.length) {
+            return;
+        }
+        int size = Math.max(capacity, px.length * 2);
+        px = new float[size];
+        py = new float[size];
+        vx = new float[size];
+        vy = new float[size];
+        fromX = new float[size];
+        fromY = new float[size];
+        moving = new boolean[size];
+        wrapped = new boolean[size];
+        bodyColors = new long[size];
+        parent = new int[size];
+        islandAwake = new boolean[size];
+    }
+
+    // Grows the contact arrays so at least the given number of contacts fit
+    private void ensureContactCapacity(int capacity) {
+        if (capacity <= contactA.length) {
+            return;
+        }
+        int size = Math.max(capacity, contactA.length * 2);
+        contactA = Arrays.copyOf(contactA, size);
+        contactB = Arrays.copyOf(contactB, size);
+        contactSlot = new int[size];
+        contactColor = new byte[size];
+        contactAsleep = new boolean[size];
+        ordered = new int[size];
+    }
+
+    // Number of contacts resolved in the last step, asleep or not
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    // Number of contacts in the last step that only got the position fix because
+    // their island was asleep
+    public int getSleepingCount() {
+        return sleepingCount;
+    }
+
+    // Number of contacts carried over in the cache
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    public BroadphaseMode getBroadphaseMode() {
+        return broadphaseMode;
+    }
+
+    // Forces the grid or the tree, or lets the solver pick (the default)
+    public void setBroadphaseMode(BroadphaseMode mode) {
+        broadphaseMode = mode;
+    }
+
+    // Whether the last step used the AABB tree
+    public boolean isUsingTree() {
+        return broadphase == tree;
+    }
+
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    // Chooses whether resting islands are allowed to sleep
+    public void setSleeping(boolean sleeping) {
+        this.sleeping = sleeping;
+    }
+
+    // Number of colors the last step's contacts needed
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // Chooses whether large crowds are split across the fork/join pool
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Collects the touching pairs of one narrowphase block, stored as a, b, a, b, ...
+    private final class PairCollector implements IntConsumer {
+        private int[] pairs = new int[64];
+        private int count;
+        // Slot whose neighbours are being visited
+        private int self;
+
+        @Override
+        public void accept(int j) {
+            int i = self;
+            // Each pair is found once, from its lower slot, only if one of the two
+            // is moving. The broadphase has already left out layers that do not
+            // accept each other
+            if (j <= i || !(moving[i] || moving[j])) {
+                return;
+            }
+            float dx = px[j] - px[i];
+            float dy = py[j] - py[i];
+            float reach = radius[i] + radius[j];
+            if (dx * dx + dy * dy > reach * reach) {
+                return;
+            }
+            if (count + 2 > pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[count++] = i;
+            pairs[count++] = j;
+        }
+    }
+
+    // Finds the earliest touch along one fast enemy's path
+    private final class SweepCollector implements IntConsumer {
+        private int self;
+        private float startX, startY, stepX, stepY;
+        // Fraction of the step of the earliest touch, above 1 if there was none
+        private float earliest;
+
+        void begin(int i, float stepX, float stepY) {
+            self = i;
+            this.stepX = stepX;
+            this.stepY = stepY;
+            startX = fromX[i];
+            startY = fromY[i];
+            earliest = 2f;
+        }
+
+        @Override
+        public void accept(int j) {
+            int i = self;
+            if (j == i) {
+                return;
+            }
+            // Pairs that overlap at the end of the step are left to the narrowphase,
+            // and pairs that overlapped at the start were already in contact
+            float ex = px[j] - px[i];
+            float ey = py[j] - py[i];
+            float touch = radius[i] + radius[j];
+            if (ex * ex + ey * ey <= touch * touch) {
+                return;
+            }
+            float otherStepX = wrapped[j] ? 0f : px[j] - fromX[j];
+            float otherStepY = wrapped[j] ? 0f : py[j] - fromY[j];
+            float toi = Physics.sweptCircleTOI(startX, startY, stepX, stepY, radius[i],
+                    px[j] - otherStepX, py[j] - otherStepY, otherStepX, otherStepY, radius[j]);
+            if (toi > 0f && toi < earliest) {
+                earliest = toi;
+            }
+        }
+    }
+
+    // Runs body for every index in a range, splitting it in half until pieces are
+    // no larger than the grain
+    private static final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, grain;
+        private final IntConsumer body;
+
+        Range(int from, int to, int grain, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(from, mid, grain, body), new Range(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class keeps a packed copy of enemy positions, velocities and radii in flat float arrays
+* so the crowd loops can run over contiguous memory instead of chasing Enemy objects
+*/
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CrowdBuffer {
+    // Starting capacity of the packed arrays, grown by doubling when needed
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Packed enemy centres
+    public float[] x = new float[INITIAL_CAPACITY];
+    public float[] y = new float[INITIAL_CAPACITY];
+    // Packed enemy velocities
+    public float[] vx = new float[INITIAL_CAPACITY];
+    public float[] vy = new float[INITIAL_CAPACITY];
+    // Packed enemy radii
+    public float[] radius = new float[INITIAL_CAPACITY];
+    // Packed collision layers and masks
+    public int[] layer = new int[INITIAL_CAPACITY];
+    public int[] mask = new int[INITIAL_CAPACITY];
+    // Separation push of each enemy that steers this tick, already clamped, and
+    // how many neighbours made it up; see Enemy.separateCrowd
+    public float[] separationX = new float[INITIAL_CAPACITY];
+    public float[] separationY = new float[INITIAL_CAPACITY];
+    public int[] neighbours = new int[INITIAL_CAPACITY];
+    // The enemy each packed slot was copied from, and its handle
+    public Enemy[] enemies = new Enemy[INITIAL_CAPACITY];
+    public int[] handle = new int[INITIAL_CAPACITY];
+    // Number of packed slots in use
+    public int count;
+
+    // Copies the current state of every enemy into the packed arrays and tells
+    // each enemy which slot it landed in
+    public void pack(List<Enemy> list) {
+        int n = list.size();
+        ensureCapacity(n);
+        int i = 0;
+        for (Enemy enemy : list) {
+            if (i >= n) {
+                break; // The list grew while we were iterating, the rest waits for the next pack
+            }
+            x[i] = (float) enemy.getCenterX();
+            y[i] = (float) enemy.getCenterY();
+            vx[i] = enemy.getXVelocity();
+            vy[i] = enemy.getYVelocity();
+            radius[i] = enemy.getRadius();
+            layer[i] = enemy.getCollisionLayer();
+            mask[i] = enemy.getCollisionMask();
+            enemies[i] = enemy;
+            handle[i] = enemy.getHandle();
+            enemy.setCrowdIndex(i);
+            i++;
+        }
+        // Drop references to enemies that are no longer packed
+        for (int j = i; j < count; j++) {
+            enemies[j] = null;
+        }
+        count = i;
+    }
+
+    // Grows the packed arrays so at least the given number of slots fit
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int size = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        vx = Arrays.copyOf(vx, size);
+        vy = Arrays.copyOf(vy, size);
+        radius = Arrays.copyOf(radius, size);
+        layer = Arrays.copyOf(layer, size);
+        mask = Arrays.copyOf(mask, size);
+        separationX = Arrays.copyOf(separationX, size);
+        separationY = Arrays.copyOf(separationY, size);
+        neighbours = Arrays.copyOf(neighbours, size);
+        enemies = Arrays.copyOf(enemies, size);
+        handle = Arrays.copyOf(handle, size);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is a position-based dynamics solver for enemy crowds. Overlaps are pushed apart
+* directly over a few Jacobi iterations, so slow enemies no longer pile into clumps around the player
+*/
+
+import java.util.concurrent.RecursiveAction;
+
+public class CrowdSolver {
+    // Iterations per step unless changed with setIterations
+    public static final int DEFAULT_ITERATIONS = 4;
+    // Gap kept between enemies, same as the impulse solver
+    private static final float SEPARATION_GAP = 2.5f;
+    // Over-relaxation applied to the averaged Jacobi correction. Averaging alone
+    // converges slowly in dense clumps; values between 1 and 2 speed it up
+    private static final float RELAXATION = 1.5f;
+    // Distances below this count as coincident
+    private static final float EPSILON = 1e-4f;
+    // Crowds smaller than this are solved on the calling thread
+    private static final int PARALLEL_THRESHOLD = 512;
+    // Number of enemies handled by one parallel task
+    private static final int BLOCK_SIZE = 256;
+
+    // World size the neighbour grid covers
+    private final int worldWidth, worldHeight;
+    // Neighbour grid, rebuilt each iteration and recreated if enemies get larger
+    private SpatialGrid grid;
+
+    // Positions being solved and the buffer the next iteration writes into
+    private float[] px = new float[64], py = new float[64];
+    private float[] qx = new float[64], qy = new float[64];
+    // Positions before solving, used to work out how far each enemy moved
+    private float[] startX = new float[64], startY = new float[64];
+    // Radii, collision layers and masks of the crowd being solved
+    private float[] radius;
+    private int[] layer, mask;
+
+    private volatile int iterations = DEFAULT_ITERATIONS;
+    private volatile boolean parallel = true;
+
+    // Creates a solver for a world of the given size
+    public CrowdSolver(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * Separates every overlapping pair of packed enemies. Each iteration reads the
+     * previous iteration's positions and writes new ones, so enemies can be solved
+     * in any order and in parallel. Afterwards the moved enemies get their new
+     * positions, and any velocity still pointing into a contact is removed.
+     */
+    public void solve(CrowdBuffer crowd) {
+        int n = crowd.count;
+        if (n < 2) {
+            return;
+        }
+        ensureCapacity(n);
+        radius = crowd.radius;
+        layer = crowd.layer;
+        mask = crowd.mask;
+
+        // Read positions from the enemies, not the buffer, since steering has moved
+        // them since the buffer was packed
+        float maxRadius = 0f;
+        for (int i = 0; i < n; i++) {
+            Enemy enemy = crowd.enemies[i];
+            startX[i] = px[i] = (float) enemy.getCenterX();
+            startY[i] = py[i] = (float) enemy.getCenterY();
+            maxRadius = Math.max(maxRadius, radius[i]);
+        }
+        // A cell must be at least as wide as the largest contact distance so only the
+        // 3x3 cells around an enemy need checking
+        float cellSize = maxRadius * 2f + SEPARATION_GAP;
+        if (grid == null || grid.getCellSize() < cellSize) {
+            grid = new SpatialGrid(worldWidth, worldHeight, cellSize);
+        }
+
+        boolean split = parallel && n >= PARALLEL_THRESHOLD;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            grid.build(px, py, layer, mask, n);
+            if (split) {
+                new Block(0, n).invoke();
+            } else {
+                solveRange(0, n);
+            }
+            float[] swap = px;
+            px = qx;
+            qx = swap;
+            swap = py;
+            py = qy;
+            qy = swap;
+        }
+
+        writeBack(crowd, n);
+    }
+
+    // Computes the next position of enemies from..to-1 from the current positions
+    private void solveRange(int from, int to) {
+        int[] items = grid.getCellItems();
+        int columns = grid.getColumns();
+        int rows = grid.getRows();
+        for (int i = from; i < to; i++) {
+            float xi = px[i], yi = py[i], ri = radius[i];
+            float sumX = 0f, sumY = 0f;
+            int constraints = 0;
+
+            int li = layer[i], mi = mask[i];
+
+            // Cells and entries whose layers this enemy ignores are skipped by the
+            // grid's layer unions before any distance is worked out
+            int column = grid.columnOf(xi);
+            int row = grid.rowOf(yi);
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                    int cell = r * columns + c;
+                    if (!grid.cellAccepts(cell, li, mi)) {
+                        continue;
+                    }
+                    for (int k = grid.cellStart(cell), end = grid.cellEnd(cell); k < end; k++) {
+                        int j = items[k];
+                        if (j == i || !grid.entryAccepts(k, li, mi)) {
+                            continue;
+                        }
+                        float dx = xi - px[j];
+                        float dy = yi - py[j];
+                        float target = ri + radius[j] + SEPARATION_GAP;
+                        float distSq = dx * dx + dy * dy;
+                        if (distSq >= target * target) {
+                            continue;
+                        }
+                        float dist = (float) Math.sqrt(distSq);
+                        float nx, ny;
+                        if (dist < EPSILON) {
+                            // Coincident enemies split along x, the lower slot to the left,
+                            // so both sides of the pair agree on the direction
+                            nx = i < j ? -1f : 1f;
+                            ny = 0f;
+                        } else {
+                            nx = dx / dist;
+                            ny = dy / dist;
+                        }
+                        // Equal masses, so each side of the pair moves half the overlap
+                        float correction = (target - dist) * 0.5f;
+                        sumX += nx * correction;
+                        sumY += ny * correction;
+                        constraints++;
+                    }
+                }
+            }
+
+            if (constraints > 0) {
+                float scale = RELAXATION / constraints;
+                qx[i] = xi + sumX * scale;
+                qy[i] = yi + sumY * scale;
+            } else {
+                qx[i] = xi;
+                qy[i] = yi;
+            }
+        }
+    }
+
+    // Moves the enemies to their solved positions and removes the part of their
+    // velocity that points back into the contact
+    private void writeBack(CrowdBuffer crowd, int n) {
+        for (int i = 0; i < n; i++) {
+            float dx = px[i] - startX[i];
+            float dy = py[i] - startY[i];
+            float movedSq = dx * dx + dy * dy;
+            if (movedSq < EPSILON) {
+                continue;
+            }
+            Enemy enemy = crowd.enemies[i];
+            enemy.setPos(px[i], py[i]);
+            if (enemy.isInKnockbackState()) {
+                continue;
+            }
+            float vx = enemy.getXVelocity();
+            float vy = enemy.getYVelocity();
+            float along = vx * dx + vy * dy;
+            if (along < 0f) {
+                float scale = along / movedSq;
+                enemy.setVelocity(vx - dx * scale, vy - dy * scale);
+            }
+        }
+    }
+
+    // Grows the position buffers so at least the given number of enemies fit
+    private void ensureCapacity(int capacity) {
+        if (capacity <= px.length) {
+            return;
+        }
+        int size = Math.max(capacity, px.length * 2);
+        px = new float[size];
+        py = new float[size];
+        qx = new float[size];
+        qy = new float[size];
+        startX = new float[size];
+        startY = new float[size];
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Sets how many iterations each step runs; more is stiffer but slower
+    public void setIterations(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // Chooses whether large crowds are split across the fork/join pool
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Splits one Jacobi iteration into blocks of enemies. Run inside the tick
+    // scheduler's pool it forks onto that pool, otherwise onto the common pool
+    private final class Block extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        Block(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BLOCK_SIZE) {
+                solveRange(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Block(from, mid), new Block(mid, to));
+        }
+    }
+}
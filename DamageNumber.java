@@ -5,23 +5,20 @@
 */
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.util.Random;
 
 public class DamageNumber {
     // Static constants for visual appearance
-    private static final Color TEXT_COLOR = new Color(255, 80, 120); // Brighter, more saturated red
-    private static final Color GLOW_COLOR = new Color(255, 200, 200, 80); // Additional glow
-    private static final Color SHADOW_COLOR = new Color(40, 10, 30, 200); // Darker shadow for contrast
     private static final int LIFE_SPAN = 60; // Increased lifespan for better visibility
     private static final Random RNG = new Random();
 
     // Instance variables
     private double x, y;
-    private final int damage;
+    private int damage;
     private int life = LIFE_SPAN;
-    private final double initialY;
-    private final float hueShift;
+    private double initialY;
+    private float hueShift;
+    private int handle = EnemyHandles.NONE; // Enemy the number belongs to, used to merge hits
 
     /**
      * Constructs a new damage number at the specified position
@@ -37,6 +34,38 @@ public class DamageNumber {
         this.hueShift = RNG.nextFloat() * 0.2f - 0.1f; // Slight color variation
     }
 
+    /**
+     * Reuses this number for a new hit, so the manager's pool never allocates
+     *
+     * @param handle The handle of the enemy that was hit
+     * @param x      The x coordinate
+     * @param y      The y coordinate
+     * @param damage The damage amount to display
+     */
+    void reset(int handle, int x, int y, int damage) {
+        this.handle = handle;
+        this.x = x;
+        this.y = this.initialY = y;
+        this.damage = damage;
+        this.life = LIFE_SPAN;
+        this.hueShift = RNG.nextFloat() * 0.2f - 0.1f;
+    }
+
+    // Adds another hit's damage to the number already on screen
+    void merge(int damage) {
+        this.damage += damage;
+    }
+
+    // Returns the handle of the enemy this number belongs to
+    int getHandle() {
+        return handle;
+    }
+
+    // Returns how many updates this number has been on screen
+    int getAge() {
+        return LIFE_SPAN - life;
+    }
+
     /**
      * Updates the damage number's position and lifetime
      * 
@@ -69,45 +98,7 @@ public class DamageNumber {
         // Dynamic scaling with bounce effect - increased scale for better visibility
         float scale = 1.2f + 0.8f * (float) Math.sin(Math.PI * (1 - lifeRatio));
 
-        String text = String.valueOf(damage);
-        Font originalFont = g.getFont();
-        Font font = originalFont.deriveFont(Font.BOLD, 18f * scale); // Larger font size
-        g.setFont(font);
-
-        FontMetrics metrics = g.getFontMetrics();
-        int textWidth = metrics.stringWidth(text);
-        int textX = (int) x - textWidth / 2;
-        int textY = (int) y;
-
-        // Save the original transform and composite
-        Composite originalComposite = g.getComposite();
-        AffineTransform originalTransform = g.getTransform();
-
-        // Add outer glow for better visibility
-        g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.6f));
-        g.setColor(GLOW_COLOR);
-        for (int i = 1; i <= 3; i++) {
-            g.drawString(text, textX - i, textY - i);
-            g.drawString(text, textX + i, textY - i);
-            g.drawString(text, textX - i, textY + i);
-            g.drawString(text, textX + i, textY + i);
-        }
-
-        // Enhanced shadow with blur effect
-        g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.8f));
-        g.setColor(SHADOW_COLOR);
-        for (int i = 1; i <= 2; i++) {
-            g.drawString(text, textX + i, textY + i);
-        }
-
-        // Main text with slight color variation
-        g.setComposite(AlphaComposite.SrcOver.derive(alpha));
-        g.setColor(TEXT_COLOR);
-        g.drawString(text, textX, textY);
-
-        // Restore original settings
-        g.setFont(originalFont);
-        g.setComposite(originalComposite);
-        g.setTransform(originalTransform);
+        // Glow, shadow and text come pre-rendered from the glyph atlas
+        GlyphAtlas.get(g.getFont()).drawNumber(g, damage, (int) x, (int) y, 18f * scale, alpha);
     }
 }
@@ -0,0 +1,100 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class keeps every damage number on screen in one fixed-size pool. Hits on the same
+* enemy close together merge into one number, and the oldest numbers make way when the pool is full
+*/
+
+import java.awt.*;
+
+public class DamageNumberManager {
+    // Most numbers on screen at once
+    public static final int DEFAULT_CAPACITY = 256;
+    // Updates during which further hits on the same enemy add to its number
+    private static final int MERGE_WINDOW = 10;
+    // How far above the enemy's center a number starts
+    private static final int RISE_OFFSET = 20;
+
+    // Ring of pooled numbers in the order they were spawned, oldest at head.
+    // Every number lives the same length of time, so they also die in that order
+    private final DamageNumber[] numbers;
+    private int head;
+    private int count;
+    private int evicted; // Numbers pushed out early because the pool was full
+
+    // Creates a manager holding up to DEFAULT_CAPACITY numbers
+    public DamageNumberManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates a manager holding up to the given number of numbers
+    public DamageNumberManager(int capacity) {
+        numbers = new DamageNumber[Math.max(1, capacity)];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = new DamageNumber(0, 0, 0);
+        }
+    }
+
+    /**
+     * Shows damage dealt to an enemy. If the enemy was hit within the last few
+     * updates the damage is added to that number instead of spawning another.
+     *
+     * @param enemy  The enemy that was hit
+     * @param damage The damage amount to display
+     */
+    public synchronized void spawn(Enemy enemy, int damage) {
+        int handle = enemy.getHandle();
+        if (handle != EnemyHandles.NONE) {
+            // Only the newest numbers can still be inside the merge window, so
+            // walk back from the tail and stop at the first one that is too old
+            for (int k = count - 1; k >= 0; k--) {
+                DamageNumber number = numbers[(head + k) % numbers.length];
+                if (number.getAge() > MERGE_WINDOW) {
+                    break;
+                }
+                if (number.getHandle() == handle) {
+                    number.merge(damage);
+                    return;
+                }
+            }
+        }
+
+        if (count == numbers.length) {
+            // Full: the oldest number gives up its slot
+            head = (head + 1) % numbers.length;
+            count--;
+            evicted++;
+        }
+        DamageNumber number = numbers[(head + count) % numbers.length];
+        number.reset(handle, (int) enemy.getCenterX(), (int) enemy.getCenterY() - RISE_OFFSET, damage);
+        count++;
+    }
+
+    // Moves every number along and drops the ones that have faded out
+    public synchronized void update(float dt) {
+        for (int k = 0; k < count; k++) {
+            numbers[(head + k) % numbers.length].update(dt);
+        }
+        while (count > 0 && numbers[head].isDead()) {
+            head = (head + 1) % numbers.length;
+            count--;
+        }
+    }
+
+    // Draws every number, oldest first so new hits appear on top
+    public synchronized void draw(Graphics2D g) {
+        for (int k = 0; k < count; k++) {
+            numbers[(head + k) % numbers.length].draw(g);
+        }
+    }
+
+    // Number of damage numbers currently on screen
+    public synchronized int size() {
+        return count;
+    }
+
+    // Number of numbers pushed out early because the pool was full
+    public synchronized int getEvictedCount() {
+        return evicted;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class pre-renders the soft glows and dashed rings used by skill effects into images
+* once, so drawing an effect each frame is an image copy instead of filling a fresh gradient paint
+*/
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+public final class EffectAtlas {
+    // Entries in the color ramp each glow is baked from
+    private static final int RAMP_SIZE = 256;
+    // Glows up to this many pixels across are baked at their exact size the first
+    // time that size is drawn, so most draws are unscaled copies. Larger ones are
+    // scaled from the image baked up front
+    private static final int EXACT_SIZE_LIMIT = 128;
+    // Radii dashed rings are baked at; a ring draws from the smallest one at
+    // least as large as itself, so it is never scaled down more than 1.5 times
+    private static final int[] RING_RADII = { 16, 24, 36, 54, 81, 122, 182 };
+
+    // Private constructor to prevent instantiation of this utility class
+    private EffectAtlas() {
+    }
+
+    /**
+     * Bakes a radial glow like a RadialGradientPaint whose radius is the disc
+     * being filled. Each tint is one set of stop colors, baked into its own image,
+     * so effects that shift color pick a tint instead of building new colors.
+     *
+     * @param diameter  The size in pixels of the baked images
+     * @param fractions Where each stop sits, from 0 at the center to 1 at the edge
+     * @param tints     The stop colors of each tint
+     * @return The baked glow
+     */
+    public static Glow radial(int diameter, float[] fractions, Color[]... tints) {
+        int[][] ramps = new int[tints.length][];
+        BufferedImage[] images = new BufferedImage[tints.length];
+        for (int t = 0; t < tints.length; t++) {
+            ramps[t] = ramp(fractions, tints[t]);
+            images[t] = bakeRadial(diameter, ramps[t]);
+        }
+        return new Glow(ramps, images);
+    }
+
+    /**
+     * Bakes an outline circle drawn with the given color and stroke at a range of
+     * radii, so a growing ring keeps roughly the same line width and dash length.
+     *
+     * @param color  The ring color
+     * @param stroke The stroke the ring is drawn with
+     * @return The baked ring
+     */
+    public static Ring ring(Color color, BasicStroke stroke) {
+        int pad = (int) Math.ceil(stroke.getLineWidth()) + 2;
+        BufferedImage[] images = new BufferedImage[RING_RADII.length];
+        for (int level = 0; level < RING_RADII.length; level++) {
+            int radius = RING_RADII[level];
+            int size = (radius + pad) * 2;
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(color);
+            g.setStroke(stroke);
+            g.draw(new Ellipse2D.Float(pad, pad, radius * 2, radius * 2));
+            g.dispose();
+            images[level] = toCompatible(image);
+        }
+        return new Ring(images, pad);
+    }
+
+    /**
+     * Makes an empty translucent image in the screen's own pixel format when there
+     * is a screen, so copying it onto the back buffer needs no conversion.
+     *
+     * @param width  The image width
+     * @param height The image height
+     * @return The new image
+     */
+    static BufferedImage createTranslucentImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    // Copies a baked image into the screen's format
+    static BufferedImage toCompatible(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return image;
+        }
+        BufferedImage copy = createTranslucentImage(image.getWidth(), image.getHeight());
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    // Interpolates the stop colors into a fixed table of ARGB values, the same
+    // way a gradient paint with the default pad cycle does
+    private static int[] ramp(float[] fractions, Color[] colors) {
+        int[] ramp = new int[RAMP_SIZE];
+        for (int i = 0; i < RAMP_SIZE; i++) {
+            float t = i / (float) (RAMP_SIZE - 1);
+            int stop = 0;
+            while (stop < fractions.length - 1 && t > fractions[stop + 1]) {
+                stop++;
+            }
+            Color from = colors[stop];
+            Color to = colors[Math.min(stop + 1, colors.length - 1)];
+            float span = stop + 1 < fractions.length ? fractions[stop + 1] - fractions[stop] : 0f;
+            float mix = span > 0f ? Math.max(0f, Math.min(1f, (t - fractions[stop]) / span)) : 0f;
+            if (t < fractions[0]) {
+                mix = 0f;
+            }
+            int a = Math.round(from.getAlpha() + (to.getAlpha() - from.getAlpha()) * mix);
+            int r = Math.round(from.getRed() + (to.getRed() - from.getRed()) * mix);
+            int g = Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * mix);
+            int b = Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * mix);
+            ramp[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+        return ramp;
+    }
+
+    // Fills a disc by looking each pixel's distance from the center up in the
+    // ramp, fading the outermost pixel for a smooth edge
+    private static BufferedImage bakeRadial(int diameter, int[] ramp) {
+        BufferedImage image = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = new int[diameter * diameter];
+        float radius = diameter * 0.5f;
+        for (int py = 0; py < diameter; py++) {
+            float dy = py + 0.5f - radius;
+            for (int px = 0; px < diameter; px++) {
+                float dx = px + 0.5f - radius;
+                float dist = (float) Math.sqrt(dx * dx + dy * dy);
+                if (dist >= radius) {
+                    continue;
+                }
+                int argb = ramp[Math.min(RAMP_SIZE - 1, (int) (dist / radius * (RAMP_SIZE - 1)))];
+                float edge = Math.min(1f, radius - dist);
+                if (edge < 1f) {
+                    int alpha = Math.round((argb >>> 24) * edge);
+                    argb = (alpha << 24) | (argb & 0xFFFFFF);
+                }
+                pixels[py * diameter + px] = argb;
+            }
+        }
+        image.setRGB(0, 0, diameter, diameter, pixels, 0, diameter);
+        return toCompatible(image);
+    }
+
+    // A baked radial glow, in one or more tints
+    public static final class Glow {
+        private final int[][] ramps;
+        private final BufferedImage[] tints;
+        // Exact-size images by tint and diameter, baked on first use. Only the
+        // paint thread draws, so the cache needs no locking
+        private final BufferedImage[][] exact;
+
+        private Glow(int[][] ramps, BufferedImage[] tints) {
+            this.ramps = ramps;
+            this.tints = tints;
+            this.exact = new BufferedImage[tints.length][EXACT_SIZE_LIMIT + 1];
+        }
+
+        // Number of tints the glow was baked in
+        public int getTintCount() {
+            return tints.length;
+        }
+
+        // Draws the first tint into a framebuffer as a disc of the given radius
+        public void draw(Framebuffer frame, int layer, double centerX, double centerY, double radius,
+                float opacity) {
+            draw(frame, layer, centerX, centerY, radius, 0, opacity);
+        }
+
+        // Draws the given tint into a framebuffer straight from its color ramp,
+        // so any radius is exact and no image is scaled or copied
+        public void draw(Framebuffer frame, int layer, double centerX, double centerY, double radius, int tint,
+                float opacity) {
+            tint = Math.max(0, Math.min(ramps.length - 1, tint));
+            frame.fillRadial(layer, (float) centerX, (float) centerY, (float) radius, ramps[tint], opacity,
+                    Framebuffer.Blend.ALPHA);
+        }
+
+        // Draws the first tint as a disc of the given radius
+        public void draw(Graphics2D g, double centerX, double centerY, double radius) {
+            draw(g, centerX, centerY, radius, 0);
+        }
+
+        // Draws the given tint as a disc of the given radius
+        public void draw(Graphics2D g, double centerX, double centerY, double radius, int tint) {
+            int size = (int) Math.round(radius * 2);
+            if (size <= 0) {
+                return;
+            }
+            tint = Math.max(0, Math.min(tints.length - 1, tint));
+            int left = (int) Math.round(centerX - radius);
+            int top = (int) Math.round(centerY - radius);
+            if (size <= EXACT_SIZE_LIMIT) {
+                BufferedImage image = exact[tint][size];
+                if (image == null) {
+                    image = exact[tint][size] = bakeRadial(size, ramps[tint]);
+                }
+                g.drawImage(image, left, top, null);
+            } else {
+                g.drawImage(tints[tint], left, top, size, size, null);
+            }
+        }
+    }
+
+    // A baked dashed ring at a range of radii
+    public static final class Ring {
+        private final BufferedImage[] levels;
+        // The same images as framebuffer sprites
+        private final Framebuffer.Sprite[] sprites;
+        private final int pad;
+
+        private Ring(BufferedImage[] levels, int pad) {
+            this.levels = levels;
+            this.pad = pad;
+            sprites = new Framebuffer.Sprite[levels.length];
+            for (int level = 0; level < levels.length; level++) {
+                sprites[level] = Framebuffer.Sprite.of(levels[level]);
+            }
+        }
+
+        // Draws the ring into a framebuffer, stretched from the baked level
+        // that suits the radius, with the given opacity
+        public void draw(Framebuffer frame, int layer, double centerX, double centerY, double radius,
+                float opacity) {
+            if (radius <= 0) {
+                return;
+            }
+            int level = levelFor(radius);
+            double half = halfSize(level, radius);
+            int size = (int) Math.round(half * 2);
+            frame.drawSprite(layer, sprites[level], (int) Math.round(centerX - half),
+                    (int) Math.round(centerY - half), size, size, opacity);
+        }
+
+        // Draws the ring centred on the given point with the given radius
+        public void draw(Graphics2D g, double centerX, double centerY, double radius) {
+            if (radius <= 0) {
+                return;
+            }
+            int level = levelFor(radius);
+            double half = halfSize(level, radius);
+            int size = (int) Math.round(half * 2);
+            g.drawImage(levels[level], (int) Math.round(centerX - half), (int) Math.round(centerY - half), size,
+                    size, null);
+        }
+
+        // Smallest baked level at least as large as the radius
+        private static int levelFor(double radius) {
+            int level = 0;
+            while (level < RING_RADII.length - 1 && RING_RADII[level] < radius) {
+                level++;
+            }
+            return level;
+        }
+
+        // Half the drawn size of a level scaled so its line lands on the radius.
+        // The whole image is scaled, padding included
+        private double halfSize(int level, double radius) {
+            return (RING_RADII[level] + pad) * radius / RING_RADII[level];
+        }
+    }
+}
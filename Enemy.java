@@ -7,8 +7,6 @@
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class Enemy extends Entity {
     // Constants for enemy behavior and physics
@@ -22,13 +20,26 @@ public final class Enemy extends Entity {
     private static final float SEPARATION_WEIGHT = 1.2f; // Weight for separation behavior
     private static final float SEPARATION_RADIUS = 100f; // Radius for separation behavior
     private static final float RECOVERY_RATE = 0.05f; // Recovery rate after knockback
+    private static final float FLOW_FIELD_RANGE = 200f; // Distance beyond which the flow field steers the enemy
+    private static final float LOD_NEAR_RADIUS = 300f; // Within this distance steering runs every tick
+    private static final float LOD_MID_RADIUS = 500f; // Within this distance steering runs every other tick
+    private static final int LOD_MID_STRIDE = 2; // Ticks between steering updates in the middle tier
+    private static final int LOD_FAR_STRIDE = 4; // Ticks between steering updates in the far tier
+    private static int nextLodBucket = 0; // Spreads new enemies across the update buckets
 
     // Instance variables
-    private final CopyOnWriteArrayList<DamageNumber> damageNumbers = new CopyOnWriteArrayList<>();
     private int damage = 2; // Damage dealt by the enemy
     private boolean knockedBack; // Whether the enemy is in a knockback state
+    private boolean wrapped; // Whether the last update carried the enemy across a screen edge
+    private float stepStartX, stepStartY; // Center before the last update moved the enemy
     private float wanderAngle = (float) (Math.random() * Math.PI * 2.0); // Angle for wandering behavior
     private GamePanel gamePanel; // Reference to the game panel
+    private int handle = EnemyHandles.NONE; // Generational handle other systems use to refer to this enemy
+    private int crowdIndex = -1; // Slot of this enemy in the packed crowd buffer
+    private int spatialKey; // Morton key cached for the last spatial re-sort
+    private final float[] flow = new float[3]; // Scratch output for flow field lookups
+    private final int lodBucket = nextLodBucket++ & (LOD_FAR_STRIDE - 1); // Which tick of a stride this enemy steers on
+    private EnemyArchetype archetype = EnemyArchetype.SHADELING; // Which kind of monster this enemy is drawn as
 
     /**
      * Constructor for the Enemy class.
@@ -37,6 +48,9 @@ public final class Enemy extends Entity {
     public Enemy(int x, int y, int w, int h, int max_hp, int max_speed, BufferedImage[] sprites, GamePanel gamePanel) {
         super(x, y, w, h, max_hp, max_speed, sprites);
         this.gamePanel = gamePanel; // Store the reference to the game panel
+        setCollision(CollisionLayer.ENEMY, CollisionLayer.ENEMY_MASK);
+        stepStartX = (float) getCenterX();
+        stepStartY = (float) getCenterY();
     }
 
     /**
@@ -44,6 +58,9 @@ public final class Enemy extends Entity {
      * Handles behaviors such as steering, wandering, and separation.
      */
     public void update(float dt, Player player) {
+        wrapped = false;
+        stepStartX = (float) getCenterX();
+        stepStartY = (float) getCenterY();
         if (knockedBack) {
             // Handle knockback behavior if the enemy is in a knockback state
             handleKnockback(dt);
@@ -63,15 +80,41 @@ public final class Enemy extends Entity {
             }
         }
 
-        // Calculate direction to the player
-        float toX = (float) (player.getCenterX() - getCenterX());
-        float toY = (float) (player.getCenterY() - getCenterY());
-        float dist = (float) Math.hypot(toX, toY);
+        // Level of detail: away from the player the steering stack only runs every
+        // few ticks, staggered by bucket, and the enemy coasts on its velocity in between
+        int stride = lodStride(player);
+        if (gamePanel != null && !steersOnTick(stride, gamePanel.getTick())) {
+            x += x_velocity * dt * 60f;
+            y += y_velocity * dt * 60f;
+            wrap();
+            return;
+        }
+        // A skipped tick's worth of steering is applied in one go
+        float steerDt = dt * stride;
+
+        // Direction to the player. Far away it comes straight from the flow field;
+        // close in, the exact offset keeps the arrival smooth
+        float toX, toY, dist;
+        FlowField field = gamePanel != null ? gamePanel.flowField : null;
+        if (field != null && field.sample(getCenterX(), getCenterY(), flow) && flow[2] > FLOW_FIELD_RANGE) {
+            toX = flow[0];
+            toY = flow[1];
+            dist = flow[2];
+        } else {
+            toX = (float) (player.getCenterX() - getCenterX());
+            toY = (float) (player.getCenterY() - getCenterY());
+            if (field != null) {
+                // Chase across the screen edge when that is the shorter way, like the field does
+                toX = FlowField.wrapDelta(toX, field.getWorldWidth());
+                toY = FlowField.wrapDelta(toY, field.getWorldHeight());
+            }
+            dist = (float) Math.hypot(toX, toY);
 
-        // Normalize direction vector
-        if (dist > 1e-3f) {
-            toX /= dist;
-            toY /= dist;
+            // Normalize direction vector
+            if (dist > 1e-3f) {
+                toX /= dist;
+                toY /= dist;
+            }
         }
 
         // Calculate desired speed based on distance to the player
@@ -89,43 +132,19 @@ public final class Enemy extends Entity {
         float desiredY = toY * desiredSpeed;
 
         // Add wandering behavior
-        wanderAngle += (Math.random() - 0.5f) * WANDER_JITTER * dt * 60f;
+        wanderAngle += (Math.random() - 0.5f) * WANDER_JITTER * steerDt * 60f;
         wanderAngle *= 0.98f; // Dampen wandering angle
         float wanderStrength = Math.min(1.0f, dist / 200.0f);
         desiredX += Math.cos(wanderAngle) * WANDER_RADIUS * wanderStrength;
         desiredY += Math.sin(wanderAngle) * WANDER_RADIUS * wanderStrength;
 
-        // Separation behavior to avoid crowding with other enemies
-        float sepX = 0;
-        float sepY = 0;
-        int neighbors = 0;
-        if (gamePanel != null) {
-            List<Enemy> enemies = gamePanel.enemies;
-            for (Enemy other : enemies) {
-                if (other == this) {
-                    continue;
-                }
-                float dx = (float) (getCenterX() - other.getCenterX());
-                float dy = (float) (getCenterY() - other.getCenterY());
-                float d = (float) Math.hypot(dx, dy);
-                if (d > 0 && d < SEPARATION_RADIUS) {
-                    float factor = SEPARATION_WEIGHT * (SEPARATION_RADIUS / (d * d));
-                    sepX += (dx / d) * factor;
-                    sepY += (dy / d) * factor;
-                    neighbors++;
-                }
-            }
-            if (neighbors > 0) {
-                // Normalize separation vector and limit its magnitude
-                float sepMag = (float) Math.hypot(sepX, sepY);
-                if (sepMag > MAX_SPEED) {
-                    sepX = (sepX / sepMag) * MAX_SPEED;
-                    sepY = (sepY / sepMag) * MAX_SPEED;
-                }
-                // Blend separation behavior with desired velocity
-                desiredX = desiredX * 0.8f + sepX * 0.2f;
-                desiredY = desiredY * 0.8f + sepY * 0.2f;
-            }
+        // Separation behavior to avoid crowding with other enemies, worked out for
+        // the whole packed crowd before steering and already limited to top speed
+        CrowdBuffer crowd = gamePanel != null ? gamePanel.crowd : null;
+        if (crowd != null && crowdIndex >= 0 && crowdIndex < crowd.count && crowd.neighbours[crowdIndex] > 0) {
+            // Blend separation behavior with desired velocity
+            desiredX = desiredX * 0.8f + crowd.separationX[crowdIndex] * 0.2f;
+            desiredY = desiredY * 0.8f + crowd.separationY[crowdIndex] * 0.2f;
         }
 
         // Steering behavior to adjust velocity towards the desired velocity
@@ -133,8 +152,9 @@ public final class Enemy extends Entity {
         float dynamicResponsiveness = RESPONSIVENESS * (1.0f + (1.0f - Math.max(0, dot)) * 0.5f);
         float steerX = desiredX - x_velocity;
         float steerY = desiredY - y_velocity;
-        x_velocity += steerX * dynamicResponsiveness * dt * 60f;
-        y_velocity += steerY * dynamicResponsiveness * dt * 60f;
+        float steerRate = Math.min(1.0f, dynamicResponsiveness * steerDt * 60f);
+        x_velocity += steerX * steerRate;
+        y_velocity += steerY * steerRate;
 
         // Limit speed to maximum
         float speed = (float) Math.hypot(x_velocity, y_velocity);
@@ -152,6 +172,99 @@ public final class Enemy extends Entity {
         wrap();
     }
 
+    /**
+     * Works out the separation push of every packed enemy that steers on the
+     * given tick into the crowd's separation arrays, then limits every push to
+     * the top speed in one pass over the arrays, which the SIMD kernel runs
+     * lane-wise. Enemies that coast or are knocked back this tick get no push.
+     */
+    static void separateCrowd(CrowdBuffer crowd, Player player, long tick) {
+        float[] push = new float[2];
+        for (int i = 0; i < crowd.count; i++) {
+            Enemy enemy = crowd.enemies[i];
+            int neighbours = 0;
+            if (!enemy.knockedBack && enemy.steersOnTick(enemy.lodStride(player), tick)) {
+                neighbours = SteeringKernel.separation(crowd, i, SEPARATION_RADIUS, SEPARATION_WEIGHT, push);
+            }
+            crowd.neighbours[i] = neighbours;
+            crowd.separationX[i] = neighbours > 0 ? push[0] : 0f;
+            crowd.separationY[i] = neighbours > 0 ? push[1] : 0f;
+        }
+        SteeringKernel.clampLengths(crowd.separationX, crowd.separationY, crowd.count, MAX_SPEED);
+    }
+
+    // Whether the steering stack runs on the given tick for an enemy whose
+    // steering runs every stride ticks
+    private boolean steersOnTick(int stride, long tick) {
+        return stride <= 1 || (tick + lodBucket) % stride == 0;
+    }
+
+    /**
+     * Picks how many ticks apart this enemy's steering runs from its wrap-aware
+     * distance to the player.
+     */
+    private int lodStride(Player player) {
+        float dx = FlowField.wrapDelta((float) (player.getCenterX() - getCenterX()), GamePanel.GAME_WIDTH);
+        float dy = FlowField.wrapDelta((float) (player.getCenterY() - getCenterY()), GamePanel.GAME_HEIGHT);
+        float distSq = dx * dx + dy * dy;
+        if (distSq < LOD_NEAR_RADIUS * LOD_NEAR_RADIUS) {
+            return 1;
+        }
+        if (distSq < LOD_MID_RADIUS * LOD_MID_RADIUS) {
+            return LOD_MID_STRIDE;
+        }
+        return LOD_FAR_STRIDE;
+    }
+
+    /**
+     * Records which slot of the packed crowd buffer this enemy was copied into.
+     */
+    void setCrowdIndex(int index) {
+        crowdIndex = index;
+    }
+
+    /**
+     * Gets the generational handle of this enemy.
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    /**
+     * Stores the handle given out by EnemyHandles.
+     */
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Gets the kind of monster this enemy is drawn as.
+     */
+    public EnemyArchetype getArchetype() {
+        return archetype;
+    }
+
+    /**
+     * Sets the kind of monster this enemy is drawn as.
+     */
+    public void setArchetype(EnemyArchetype archetype) {
+        this.archetype = archetype;
+    }
+
+    /**
+     * Gets the Morton key cached for the last spatial re-sort.
+     */
+    int getSpatialKey() {
+        return spatialKey;
+    }
+
+    /**
+     * Caches the Morton key used by the spatial re-sort.
+     */
+    void setSpatialKey(int key) {
+        spatialKey = key;
+    }
+
     /**
      * Moves the enemy by updating its state.
      * This method is a wrapper for the update method with a fixed delta time.
@@ -216,6 +329,7 @@ public final class Enemy extends Entity {
      * out of bounds.
      */
     private void wrap() {
+        int oldX = x, oldY = y;
         if (x < -WIDTH) {
             x = GamePanel.GAME_WIDTH;
         } else if (x > GamePanel.GAME_WIDTH) {
@@ -226,6 +340,7 @@ public final class Enemy extends Entity {
         } else if (y > GamePanel.GAME_HEIGHT) {
             y = -HEIGHT;
         }
+        wrapped |= x != oldX || y != oldY;
     }
 
     /**
@@ -254,6 +369,29 @@ public final class Enemy extends Entity {
         return knockedBack;
     }
 
+    /**
+     * Checks if the last update wrapped the enemy around a screen edge. Its path
+     * over that step is not a straight line, so sweeps skip it.
+     */
+    public boolean hasWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Gets the center x-coordinate the enemy had before its last update moved it.
+     * Sweeps start here, since knockback can replace the velocity after the move.
+     */
+    public float getStepStartX() {
+        return stepStartX;
+    }
+
+    /**
+     * Gets the center y-coordinate the enemy had before its last update moved it.
+     */
+    public float getStepStartY() {
+        return stepStartY;
+    }
+
     /**
      * Gets the damage dealt by the enemy.
      * Returns the amount of damage this enemy can inflict.
@@ -269,65 +407,50 @@ public final class Enemy extends Entity {
      */
     @Override
     public void takeDamage(int damage) {
-        // Create and add a damage number at enemy's position before applying damage
+        // Show the damage number at the enemy's position before applying damage
         // This ensures the damage number is created even if the enemy dies
-        DamageNumber damageNum = new DamageNumber(
-                (int) getCenterX(),
-                (int) getCenterY() - 20,
-                damage);
-        damageNumbers.add(damageNum);
+        if (gamePanel != null) {
+            gamePanel.damageNumbers.spawn(this, damage);
+        }
 
         // Apply damage after creating the damage number
         super.takeDamage(damage);
     }
 
     /**
-     * Updates damage number effects
-     * 
-     * @param dt Delta time for frame-rate independence
-     */
-    public void updateDamageNumbers(float dt) {
-        for (DamageNumber damageNumber : new java.util.ArrayList<>(damageNumbers)) {
-            damageNumber.update(dt);
-            if (damageNumber.isDead()) {
-                damageNumbers.remove(damageNumber);
-            }
-        }
-    }
-
-    /**
-     * Draws the enemy on the screen.
-     * Renders the enemy as a red rectangle with a white outline.
+     * Draws the enemy into the frame.
+     * Renders the archetype's current frame centred on the enemy, or a red
+     * rectangle with a white outline while its frames are not in the sprite cache.
      * If the enemy is in a knockback state, a yellow line indicates the knockback
      * direction.
      */
     @Override
-    public void draw(Graphics g) {
-        // Draw the enemy as a red rectangle
-        g.setColor(Color.RED);
-        g.fillRect(x, y, width, height);
+    public void draw(Framebuffer frame) {
+        SpriteAtlas.Animation animation = SpriteAtlas.peekArchetype(archetype);
+        if (animation != null) {
+            // The art faces left, so enemies heading right use the mirrored frame.
+            // The update bucket offsets the frame so crowds don't flap in step
+            Framebuffer.Sprite sprite = animation.getSprite(SpriteAtlas.enemyFrame(animation, lodBucket),
+                    x_velocity > 0);
+            frame.drawSprite(Framebuffer.LAYER_ENEMY, sprite, (int) getCenterX() - sprite.getWidth() / 2,
+                    (int) getCenterY() - sprite.getHeight() / 2);
+        } else {
+            // Draw the enemy as a red rectangle
+            frame.fillRect(Framebuffer.LAYER_ENEMY, x, y, width, height, Color.RED.getRGB(), Framebuffer.Blend.ALPHA);
 
-        // Draw the enemy's outline
-        g.setColor(Color.WHITE);
-        g.drawRect(x, y, width, height);
+            // Draw the enemy's outline
+            frame.drawRect(Framebuffer.LAYER_MARKER, x, y, width, height, Color.WHITE.getRGB(),
+                    Framebuffer.Blend.ALPHA);
+        }
 
         // Draw knockback indicator if in knockback state
         if (knockedBack) {
-            g.setColor(Color.YELLOW);
-            g.drawLine(
+            frame.drawLine(Framebuffer.LAYER_MARKER,
                     (int) getCenterX(),
                     (int) getCenterY(),
                     (int) (getCenterX() + x_velocity * 5),
-                    (int) (getCenterY() + y_velocity * 5));
-        }
-
-        // Draw damage numbers with proper Graphics2D object
-        if (!damageNumbers.isEmpty()) {
-            Graphics2D g2d = (Graphics2D) g.create(); // Create a new graphics context to avoid affecting the main one
-            for (DamageNumber damageNumber : damageNumbers) {
-                damageNumber.draw(g2d);
-            }
-            g2d.dispose(); // Clean up
+                    (int) (getCenterY() + y_velocity * 5),
+                    Color.YELLOW.getRGB(), Framebuffer.Blend.ALPHA);
         }
     }
 }
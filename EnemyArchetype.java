@@ -0,0 +1,87 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This enum lists every kind of monster and boss, with the sprite frames it is drawn from
+* and the wave it first appears in
+*/
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum EnemyArchetype {
+    SHADELING("Shadeling", "shadeling", 1, false),
+    GLOOMSPAWN("Gloomspawn", "gloomspawn", 5, false),
+    VAMPIRE_BATS("Vampire Bats", "vampirebats", 10, false),
+    SHADOW_WALKER("Shadow Walker", "shadowglider", 15, false),
+    OBSIDIAN_MAW("Obsidian Maw", "obsidianmaw", 20, false),
+    WITHERING_WRAITH("Withering Wraith", "witheringwraith", 25, false),
+    MIDNIGHT_ABYSS("Midnight Abyss", "midnightabyss", 30, false),
+    CHAOS_DEMON("Chaos Demon", "chaosdemon", 40, false),
+    VOID_TITAN("Void Titan", "voidtitan", 46, true),
+    ECLIPSE_HARBINGER("Eclipse Harbinger", "eclipseharbringer", 47, true),
+    MIST_STALKER("Mist Stalker", "miststalker", 48, true),
+    NIGHT_DEVOURER("Night Devourer", "nightdevourer", 49, true),
+    ANTHONYS_WRATH("Anthony's Wrath", "anthony'swrath", 50, true);
+
+    // Animation frames in each sprite set
+    public static final int FRAME_COUNT = 2;
+    // Side of the square body monsters and bosses collide with. Sprites are drawn
+    // as tall as the body, with the width following the art, so the art stays
+    // inside the hit box
+    private static final int MONSTER_SIZE = 20;
+    private static final int BOSS_SIZE = 96;
+
+    private final String displayName;
+    private final String spriteName;
+    private final int firstWave;
+    private final boolean boss;
+
+    EnemyArchetype(String displayName, String spriteName, int firstWave, boolean boss) {
+        this.displayName = displayName;
+        this.spriteName = spriteName;
+        this.firstWave = firstWave;
+        this.boss = boss;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Resource paths of the animation frames, in order
+    public String[] getFramePaths() {
+        String[] paths = new String[FRAME_COUNT];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            paths[i] = SpriteAtlas.SPRITE_DIR + spriteName + (i + 1) + ".png";
+        }
+        return paths;
+    }
+
+    // First wave this kind shows up in; bosses only show up in that wave
+    public int getFirstWave() {
+        return firstWave;
+    }
+
+    public boolean isBoss() {
+        return boss;
+    }
+
+    public int getBodySize() {
+        return boss ? BOSS_SIZE : MONSTER_SIZE;
+    }
+
+    public int getSpriteHeight() {
+        return getBodySize();
+    }
+
+    // Every kind that can spawn in the given wave: the monsters unlocked so far
+    // plus that wave's boss
+    public static List<EnemyArchetype> forWave(int wave) {
+        List<EnemyArchetype> types = new ArrayList<>();
+        for (EnemyArchetype type : values()) {
+            if (type.boss ? type.firstWave == wave : type.firstWave <= wave) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class hands out generational handles for enemies. A handle is a slot index plus a
+* generation counter, so a handle to an enemy that has since been removed never resolves to whatever
+* enemy reuses its slot
+*/
+
+import java.util.Arrays;
+
+public class EnemyHandles {
+    // The handle that never refers to anything
+    public static final int NONE = 0;
+
+    // Bits of a handle used for the slot index; the rest hold the generation
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    // Generations run from 1 to this value and then wrap back to 1, so no live
+    // handle is ever equal to NONE
+    private static final int MAX_GENERATION = (1 << (31 - INDEX_BITS)) - 1;
+    // Starting number of slots
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Enemy currently held by each slot, null when the slot is free
+    private volatile Enemy[] slots = new Enemy[INITIAL_CAPACITY];
+    // Current generation of each slot
+    private volatile int[] generations = new int[INITIAL_CAPACITY];
+    // Stack of free slot indices
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    // Number of slots ever used
+    private int slotCount;
+
+    /**
+     * Gives an enemy a slot and returns its handle. The handle is also stored on
+     * the enemy.
+     */
+    public synchronized int register(Enemy enemy) {
+        int index;
+        if (freeCount > 0) {
+            index = freeSlots[--freeCount];
+        } else {
+            index = slotCount++;
+            if (index > INDEX_MASK) {
+                throw new IllegalStateException("Out of enemy handles");
+            }
+            if (index >= slots.length) {
+                int size = slots.length * 2;
+                generations = Arrays.copyOf(generations, size);
+                slots = Arrays.copyOf(slots, size);
+            }
+            generations[index] = 1;
+        }
+        slots[index] = enemy;
+        int handle = (generations[index] << INDEX_BITS) | index;
+        enemy.setHandle(handle);
+        return handle;
+    }
+
+    /**
+     * Frees the slot behind a handle and bumps its generation so every copy of the
+     * handle becomes stale. Stale or NONE handles are ignored.
+     */
+    public synchronized void release(int handle) {
+        if (!isValid(handle)) {
+            return;
+        }
+        int index = indexOf(handle);
+        slots[index] = null; // Do not keep the removed enemy alive
+        int generation = generations[index] + 1;
+        generations[index] = generation > MAX_GENERATION ? 1 : generation;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = index;
+    }
+
+    /**
+     * Returns the enemy behind a handle, or null if the handle is NONE or the enemy
+     * has been released.
+     */
+    public Enemy get(int handle) {
+        if (handle == NONE) {
+            return null;
+        }
+        int index = indexOf(handle);
+        Enemy[] currentSlots = slots;
+        int[] currentGenerations = generations;
+        if (index >= currentSlots.length || currentGenerations[index] != generationOf(handle)) {
+            return null;
+        }
+        return currentSlots[index];
+    }
+
+    // Returns true if the handle still refers to a registered enemy
+    public boolean isValid(int handle) {
+        return get(handle) != null;
+    }
+
+    // Returns the slot index part of a handle
+    public static int indexOf(int handle) {
+        return handle & INDEX_MASK;
+    }
+
+    // Returns the generation part of a handle
+    public static int generationOf(int handle) {
+        return handle >>> INDEX_BITS;
+    }
+
+    // Returns one more than the highest slot index handed out so far
+    public int getSlotCount() {
+        return slotCount;
+    }
+}
@@ -25,6 +25,9 @@ public class Entity extends GameObject {
     private String name;
     // A flag indicating whether the entity is dead.
     private boolean dead;
+    // The collision layer the entity sits on and the layers it is tested against.
+    private int collision_layer = CollisionLayer.NONE;
+    private int collision_mask = CollisionLayer.ALL;
 
     // The current position of the entity.
     float cx, cy;
@@ -108,6 +111,27 @@ public class Entity extends GameObject {
         dead = hp == 0; // Update the dead flag based on the health value.
     }
 
+    // Returns the collision layer of the entity.
+    public int getCollisionLayer() {
+        return collision_layer;
+    }
+
+    // Returns the layers the entity is tested against.
+    public int getCollisionMask() {
+        return collision_mask;
+    }
+
+    // Sets the collision layer and mask of the entity.
+    public void setCollision(int layer, int mask) {
+        collision_layer = layer;
+        collision_mask = mask;
+    }
+
+    // Returns whether this entity and another should be tested against each other.
+    public boolean collidesWith(Entity other) {
+        return CollisionLayer.canCollide(collision_layer, collision_mask, other.collision_layer, other.collision_mask);
+    }
+
     // Returns the name of the entity.
     public String getName() {
         return name;
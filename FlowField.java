@@ -0,0 +1,413 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class builds a grid flow field pointing every cell towards the player so enemies can
+* read their chase direction with a single lookup
+*/
+
+import java.util.Arrays;
+
+public class FlowField {
+    // Path cost of a straight and a diagonal step between cells (10 per cell width)
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    // Distance value used for cells that cannot reach the player
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Obstacle changes repaired in place between builds; more than this and the
+    // next update rebuilds the whole field instead
+    private static final int MAX_REPAIR_CELLS = 64;
+
+    // Neighbour offsets, straight steps first
+    private static final int[] STEP_X = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] STEP_Y = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    // Size of the world the field covers and the cell size, in pixels
+    private final int worldWidth, worldHeight;
+    private final float cellSize;
+    // Number of columns and rows in the grid
+    private final int cols, rows;
+
+    // Path cost from every cell to the player cell
+    private final int[] distance;
+    // Unit direction each cell points in
+    private final float[] dirX, dirY;
+    // Cells that cannot be walked through
+    private final boolean[] blocked;
+
+    // Binary heap of (cost << 32 | cell) entries used by the distance transform.
+    // A cell is pushed again each time its cost drops, and entries whose cost is
+    // above the cell's current distance are skipped when popped
+    private long[] heap;
+    private int heapSize;
+
+    // Player cell the field was last built for, -1 before the first build
+    private int targetCell = -1;
+    // Set when the whole field must be rebuilt even if the player stayed put
+    private boolean dirty = true;
+    // Cells whose blocked state changed since the last build
+    private final int[] changedCells = new int[MAX_REPAIR_CELLS];
+    private int changedCount;
+    // Cells whose distance the current repair reset or lowered, and their marks
+    private final int[] touchedCells;
+    private final boolean[] touched;
+    private int touchedCount;
+
+    // Constructor to set up an empty field covering the given world size
+    public FlowField(int worldWidth, int worldHeight, float cellSize) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.cellSize = cellSize;
+        this.cols = (int) Math.ceil(worldWidth / cellSize);
+        this.rows = (int) Math.ceil(worldHeight / cellSize);
+        int cells = cols * rows;
+        this.distance = new int[cells];
+        this.dirX = new float[cells];
+        this.dirY = new float[cells];
+        this.blocked = new boolean[cells];
+        // A full build lowers every cell at most once per neighbour, plus the first push
+        this.heap = new long[cells * STEP_X.length + 1];
+        this.touchedCells = new int[cells];
+        this.touched = new boolean[cells];
+    }
+
+    /**
+     * Rebuilds the field if the player has moved into a different cell since the
+     * last build, or repairs the cells around obstacles that changed while the
+     * player stayed put. Every distance is measured from the player cell, so a
+     * move rebuilds the whole field. Returns true if anything changed.
+     */
+    public boolean update(double playerX, double playerY) {
+        int cell = cellAt(playerX, playerY);
+        if (cell != targetCell || dirty) {
+            targetCell = cell;
+            dirty = false;
+            changedCount = 0;
+            computeDistances(cell);
+            computeDirections();
+            return true;
+        }
+        if (changedCount == 0) {
+            return false;
+        }
+        repairDistances();
+        changedCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int touchedCell = touchedCells[i];
+            touched[touchedCell] = false;
+            // A cell's direction reads its neighbours, so they are redone too
+            int col = touchedCell % cols;
+            int row = touchedCell / cols;
+            computeDirection(col, row);
+            for (int k = 0; k < STEP_X.length; k++) {
+                computeDirection(Math.floorMod(col + STEP_X[k], cols), Math.floorMod(row + STEP_Y[k], rows));
+            }
+        }
+        touchedCount = 0;
+        return true;
+    }
+
+    /**
+     * Looks up the field at a world position. Writes the unit direction towards the
+     * player into out[0] and out[1] and the approximate path length in pixels into
+     * out[2]. Returns false if the field has not been built or the cell cannot reach
+     * the player.
+     */
+    public boolean sample(double x, double y, float[] out) {
+        if (targetCell < 0) {
+            return false;
+        }
+        int cell = cellAt(x, y);
+        if (distance[cell] == UNREACHABLE) {
+            return false;
+        }
+        out[0] = dirX[cell];
+        out[1] = dirY[cell];
+        out[2] = distance[cell] * cellSize / STRAIGHT_COST;
+        return true;
+    }
+
+    // Marks a cell as blocked or open; the field is repaired on the next update
+    public void setBlocked(int col, int row, boolean value) {
+        int cell = row * cols + col;
+        if (blocked[cell] != value) {
+            blocked[cell] = value;
+            if (changedCount < MAX_REPAIR_CELLS) {
+                changedCells[changedCount++] = cell;
+            } else {
+                dirty = true;
+            }
+        }
+    }
+
+    // Returns the cell index containing a world position, wrapping around the edges
+    private int cellAt(double x, double y) {
+        int col = Math.floorMod((int) Math.floor(x / cellSize), cols);
+        int row = Math.floorMod((int) Math.floor(y / cellSize), rows);
+        return row * cols + col;
+    }
+
+    // Dijkstra distance transform outward from the target cell. Steps wrap around
+    // the grid edges the same way entities wrap around the screen
+    private void computeDistances(int target) {
+        Arrays.fill(distance, UNREACHABLE);
+        heapSize = 0;
+        distance[target] = 0;
+        push(0, target);
+        relax(false);
+    }
+
+    // Brings the distances up to date with the obstacle changes since the last
+    // build without redoing the whole grid. Blocking a cell can only lengthen the
+    // paths that ran through it, so every cell whose path may have used it (or a
+    // diagonal it now cuts off) is reset and refilled from the cells around it.
+    // Opening a cell can only shorten paths, so it and its neighbours are simply
+    // relaxed again
+    private void repairDistances() {
+        heapSize = 0;
+        touchedCount = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            if (blocked[cell]) {
+                invalidateFrom(cell);
+                invalidateCutDiagonals(cell);
+            }
+        }
+        // The player cell keeps its zero distance even if it was just blocked
+        if (touched[targetCell]) {
+            distance[targetCell] = 0;
+            push(0, targetCell);
+        }
+        // Cells next to the reset region still hold good distances; pushing them
+        // lets the transform flow back in
+        for (int i = 0; i < touchedCount; i++) {
+            pushNeighbours(touchedCells[i]);
+        }
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            if (!blocked[cell]) {
+                pushNeighbours(cell);
+            }
+        }
+        relax(true);
+    }
+
+    // Resets a cell and every cell whose distance was reached through it, found by
+    // following the steps whose cost matches the distance difference exactly
+    private void invalidateFrom(int start) {
+        if (touched[start]) {
+            return;
+        }
+        int first = touchedCount;
+        markTouched(start);
+        for (int i = first; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            int d = distance[cell];
+            if (d == UNREACHABLE) {
+                continue;
+            }
+            int col = cell % cols;
+            int row = cell / cols;
+            for (int k = 0; k < STEP_X.length; k++) {
+                int next = Math.floorMod(row + STEP_Y[k], rows) * cols + Math.floorMod(col + STEP_X[k], cols);
+                if (!touched[next] && distance[next] == d + (k < 4 ? STRAIGHT_COST : DIAGONAL_COST)) {
+                    markTouched(next);
+                }
+            }
+        }
+        for (int i = first; i < touchedCount; i++) {
+            distance[touchedCells[i]] = UNREACHABLE;
+        }
+    }
+
+    // A newly blocked cell also closes the diagonal steps between the straight
+    // neighbours on either side of it; resets whatever was reached through them
+    private void invalidateCutDiagonals(int cell) {
+        int col = cell % cols;
+        int row = cell / cols;
+        for (int k = 0; k < 4; k++) {
+            for (int m = 0; m < 4; m++) {
+                if (STEP_X[k] == 0 || STEP_Y[m] == 0) {
+                    continue;
+                }
+                int a = row * cols + Math.floorMod(col + STEP_X[k], cols);
+                int b = Math.floorMod(row + STEP_Y[m], rows) * cols + col;
+                int da = distance[a], db = distance[b];
+                if (da != UNREACHABLE && db == da + DIAGONAL_COST) {
+                    invalidateFrom(b);
+                } else if (db != UNREACHABLE && da == db + DIAGONAL_COST) {
+                    invalidateFrom(a);
+                }
+            }
+        }
+    }
+
+    // Queues every reachable neighbour of a cell, along with the cell itself, at
+    // its current distance
+    private void pushNeighbours(int cell) {
+        int col = cell % cols;
+        int row = cell / cols;
+        if (distance[cell] != UNREACHABLE) {
+            push(distance[cell], cell);
+        }
+        for (int k = 0; k < STEP_X.length; k++) {
+            int next = Math.floorMod(row + STEP_Y[k], rows) * cols + Math.floorMod(col + STEP_X[k], cols);
+            if (distance[next] != UNREACHABLE) {
+                push(distance[next], next);
+            }
+        }
+    }
+
+    // Records that the current repair changed a cell's distance
+    private void markTouched(int cell) {
+        if (!touched[cell]) {
+            touched[cell] = true;
+            touchedCells[touchedCount++] = cell;
+        }
+    }
+
+    // Pops queued cells in order of cost and lowers their neighbours' distances
+    // until nothing more can be shortened, recording the lowered cells if asked
+    private void relax(boolean track) {
+        while (heapSize > 0) {
+            long entry = pop();
+            int cell = (int) entry;
+            int cellCost = (int) (entry >>> 32);
+            // A cheaper entry for this cell was already handled
+            if (cellCost > distance[cell]) {
+                continue;
+            }
+            int col = cell % cols;
+            int row = cell / cols;
+            for (int k = 0; k < STEP_X.length; k++) {
+                int nc = Math.floorMod(col + STEP_X[k], cols);
+                int nr = Math.floorMod(row + STEP_Y[k], rows);
+                int next = nr * cols + nc;
+                if (blocked[next]) {
+                    continue;
+                }
+                // Do not cut diagonally between two blocked cells
+                if (k >= 4 && (blocked[row * cols + nc] || blocked[nr * cols + col])) {
+                    continue;
+                }
+                int cost = cellCost + (k < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+                if (cost < distance[next]) {
+                    distance[next] = cost;
+                    push(cost, next);
+                    if (track) {
+                        markTouched(next);
+                    }
+                }
+            }
+        }
+    }
+
+    // Points every cell down the distance gradient
+    private void computeDirections() {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                computeDirection(col, row);
+            }
+        }
+    }
+
+    // Points one cell down the distance gradient, falling back to the cheapest
+    // neighbour where the gradient cancels out
+    private void computeDirection(int col, int row) {
+        int cell = row * cols + col;
+        dirX[cell] = 0f;
+        dirY[cell] = 0f;
+        if (distance[cell] == UNREACHABLE || cell == targetCell) {
+            return;
+        }
+
+        float gx = neighbourCost(col - 1, row, cell) - neighbourCost(col + 1, row, cell);
+        float gy = neighbourCost(col, row - 1, cell) - neighbourCost(col, row + 1, cell);
+        float len = (float) Math.sqrt(gx * gx + gy * gy);
+        if (len > 1e-3f) {
+            dirX[cell] = gx / len;
+            dirY[cell] = gy / len;
+            return;
+        }
+
+        int best = distance[cell];
+        for (int k = 0; k < STEP_X.length; k++) {
+            int next = Math.floorMod(row + STEP_Y[k], rows) * cols + Math.floorMod(col + STEP_X[k], cols);
+            if (distance[next] < best) {
+                best = distance[next];
+                float inv = k < 4 ? 1f : 0.70710677f;
+                dirX[cell] = STEP_X[k] * inv;
+                dirY[cell] = STEP_Y[k] * inv;
+            }
+        }
+    }
+
+    // Distance of a neighbouring cell, treating walls as no cheaper than the cell itself
+    private float neighbourCost(int col, int row, int from) {
+        int cell = Math.floorMod(row, rows) * cols + Math.floorMod(col, cols);
+        int d = distance[cell];
+        return d == UNREACHABLE ? distance[from] : d;
+    }
+
+    // Adds a cell to the heap at the given cost
+    private void push(int cost, int cell) {
+        long entry = ((long) cost << 32) | cell;
+        // A repair can queue cells more often than a full build
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    // Removes and returns the entry with the smallest cost
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int smallest = i * 2 + 1;
+            if (smallest >= heapSize) {
+                break;
+            }
+            if (smallest + 1 < heapSize && heap[smallest + 1] < heap[smallest]) {
+                smallest++;
+            }
+            if (last <= heap[smallest]) {
+                break;
+            }
+            heap[i] = heap[smallest];
+            i = smallest;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    // Shortest signed offset from a to b along an axis that wraps every size pixels
+    public static float wrapDelta(float delta, float size) {
+        if (delta > size * 0.5f) {
+            return delta - size;
+        }
+        if (delta < -size * 0.5f) {
+            return delta + size;
+        }
+        return delta;
+    }
+
+    // Returns the width of the world covered by the field
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    // Returns the height of the world covered by the field
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+}
@@ -0,0 +1,999 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is the frame the game scene is drawn into. Sprites, particles and filled shapes are
+* written straight into its pixel array, skipping Graphics2D's per-call state checks, while effects that need
+* strokes or transforms draw through a Graphics2D on the same image so everything stays in draw order. The
+* finished scene goes to the screen as one image copy, and text and UI are drawn over it with Graphics2D.
+* Direct draws are recorded as commands rather than drawn on the spot, each on an explicit layer. When the
+* frame needs its pixels, the commands are put in layer order, and within a layer each run of draws that do
+* not overlap one another is sorted by blend, kind and texture, so draws that share state run back to back
+* while overlapping draws keep the order they were recorded in. The batch is then split into screen tiles
+* that are drawn side by side on the fork/join pool
+*/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+public final class Framebuffer {
+    // How a fill is combined with the pixels under it
+    public enum Blend {
+        ALPHA, // Drawn over the scene, as AlphaComposite.SrcOver does
+        ADD // Added to the scene, so overlapping glows brighten toward white
+    }
+
+    // Layers a batch of direct draws is stacked in, bottom to top. Draws on
+    // the same layer that overlap keep their recording order; only draws that
+    // cannot cover each other are reordered to group matching state
+    public static final int LAYER_BACKGROUND = 0;
+    public static final int LAYER_GLOW = 1; // Soft glows and auras
+    public static final int LAYER_PARTICLE = 2; // Particles and the cores drawn over glows
+    public static final int LAYER_PLAYER = 3;
+    public static final int LAYER_ENEMY = 4;
+    public static final int LAYER_MARKER = 5; // Outlines and indicators drawn over everything
+
+    // Side in pixels of the square tiles the frame is split into
+    private static final int TILE_SIZE = 64;
+    // Batches with fewer commands than this are drawn on the calling thread
+    private static final int PARALLEL_THRESHOLD = 64;
+    // Number of tiles drawn by one parallel task
+    private static final int TILES_PER_TASK = 4;
+    // Side in pixels of the cells used to tell whether two draws might overlap
+    // while grouping them by state
+    private static final int OVERLAP_CELL = 16;
+
+    // Kinds of recorded command
+    private static final int CLEAR = 0;
+    private static final int SPRITE = 1;
+    private static final int RECT = 2;
+    private static final int CIRCLE = 3;
+    private static final int SPLAT = 4;
+    private static final int LINE = 5;
+    private static final int RADIAL = 6;
+    private static final int ARC = 7;
+    private static final int POLYGON = 8;
+    private static final int SCALED = 9;
+
+    private final BufferedImage image;
+    private final int[] pixels; // The image's pixels, one opaque RGB int each, row by row
+    private final int width;
+    private final int height;
+    private final int columns, rows; // Tiles across and down
+    private Graphics2D graphics; // Java2D view of the frame, created on first use each frame
+
+    // Commands recorded since the pixels were last brought up to date. The
+    // objects are kept and refilled from frame to frame
+    private Command[] commands = new Command[256];
+    private int commandCount;
+    // Sort key of each command, with the command's index in the low 32 bits.
+    // The top bits are first the layer, then blend, kind and texture within a
+    // run of draws that do not overlap; unsorted batches keep just the index
+    private long[] keys = new long[256];
+    // Run that last claimed each overlap cell while grouping, and the current run
+    private final int[] cellRun;
+    private final int cellColumns;
+    private int run;
+    // Indices of the commands touching each tile, in draw order: tile t's run
+    // is binned[tileStart[t]] up to binned[tileStart[t + 1]]
+    private final int[] tileStart;
+    private final int[] tileFill;
+    private int[] binned = new int[1024];
+
+    private volatile boolean parallel = Runtime.getRuntime().availableProcessors() > 1;
+    private volatile boolean sorting = true;
+    // Times the drawn state changed this frame and in the last presented frame
+    private int stateChanges;
+    private int lastStateChanges;
+
+    public Framebuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        tileStart = new int[columns * rows + 1];
+        tileFill = new int[columns * rows];
+        cellColumns = (width + OVERLAP_CELL - 1) / OVERLAP_CELL;
+        cellRun = new int[cellColumns * ((height + OVERLAP_CELL - 1) / OVERLAP_CELL)];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new Command();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // Chooses whether large batches are drawn tile by tile across the fork/join
+    // pool. On by default when there is more than one core
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isSorting() {
+        return sorting;
+    }
+
+    // Chooses whether each batch is put in layer order and grouped by state
+    // before drawing, or drawn in the order it was recorded
+    public void setSorting(boolean sorting) {
+        this.sorting = sorting;
+    }
+
+    // Number of times the blend, kind or texture changed while drawing the last
+    // presented frame
+    public int getStateChanges() {
+        return lastStateChanges;
+    }
+
+    // Fills the whole frame with one color
+    public void clear(Color color) {
+        Command command = record(LAYER_BACKGROUND, CLEAR, 0, 0, width, height);
+        command.argb = color.getRGB() | 0xFF000000;
+    }
+
+    /**
+     * Returns a Graphics2D drawing into this frame, for the shapes, lines and
+     * transformed images the direct methods don't cover. Direct draws recorded so
+     * far are drawn first, but ones recorded after this call wait for the next
+     * one, so get the context again before drawing with it after any direct
+     * draw. Layers only order the direct draws between two of these calls. The
+     * context is shared by every caller until the frame is presented, so callers
+     * that change its transform put it back afterwards.
+     *
+     * @return The frame's graphics context
+     */
+    public Graphics2D getGraphics() {
+        flush();
+        if (graphics == null) {
+            graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        return graphics;
+    }
+
+    // Finishes drawing the frame, copies it onto the screen and ends the frame
+    public void present(Graphics g, int x, int y) {
+        flush();
+        if (graphics != null) {
+            graphics.dispose();
+            graphics = null;
+        }
+        g.drawImage(image, x, y, null);
+        lastStateChanges = stateChanges;
+        stateChanges = 0;
+    }
+
+    /**
+     * Draws a sprite with its top left corner at the given point, blending its
+     * edges over the scene. Parts outside the frame are skipped.
+     *
+     * @param layer  The layer to draw on
+     * @param sprite The sprite
+     * @param x      The left edge
+     * @param y      The top edge
+     */
+    public void drawSprite(int layer, Sprite sprite, int x, int y) {
+        Command command = record(layer, SPRITE, x, y, x + sprite.width, y + sprite.height);
+        if (command != null) {
+            command.texture = System.identityHashCode(sprite);
+            command.sprite = sprite;
+            command.x = x;
+            command.y = y;
+        }
+    }
+
+    /**
+     * Draws a sprite stretched to the given size, with its pixels faded by an
+     * opacity. Each pixel takes the nearest sprite pixel.
+     *
+     * @param layer   The layer to draw on
+     * @param sprite  The sprite
+     * @param x       The left edge
+     * @param y       The top edge
+     * @param w       The drawn width
+     * @param h       The drawn height
+     * @param opacity How opaque the sprite is drawn, from 0 to 1
+     */
+    public void drawSprite(int layer, Sprite sprite, int x, int y, int w, int h, float opacity) {
+        int alpha = Math.round(Math.max(0f, Math.min(1f, opacity)) * 255);
+        if (w <= 0 || h <= 0 || alpha == 0) {
+            return;
+        }
+        Command command = record(layer, SCALED, x, y, x + w, y + h);
+        if (command != null) {
+            command.texture = System.identityHashCode(sprite);
+            command.sprite = sprite;
+            command.x = x;
+            command.y = y;
+            command.endX = w;
+            command.endY = h;
+            command.argb = alpha << 24;
+        }
+    }
+
+    /**
+     * Fills a rectangle with a color.
+     *
+     * @param layer The layer to draw on
+     * @param x     The left edge
+     * @param y     The top edge
+     * @param w     The width
+     * @param h     The height
+     * @param argb  The color, with its alpha
+     * @param blend How the color is combined with the scene
+     */
+    public void fillRect(int layer, int x, int y, int w, int h, int argb, Blend blend) {
+        if (argb >>> 24 == 0) {
+            return;
+        }
+        Command command = record(layer, RECT, x, y, x + w, y + h);
+        if (command != null) {
+            command.argb = argb;
+            command.blend = blend;
+        }
+    }
+
+    // Outlines a rectangle one pixel wide, covering the same pixels as
+    // Graphics.drawRect
+    public void drawRect(int layer, int x, int y, int w, int h, int argb, Blend blend) {
+        fillRect(layer, x, y, w + 1, 1, argb, blend);
+        fillRect(layer, x, y + h, w + 1, 1, argb, blend);
+        fillRect(layer, x, y + 1, 1, h - 1, argb, blend);
+        fillRect(layer, x + w, y + 1, 1, h - 1, argb, blend);
+    }
+
+    // Draws a one pixel wide line between two points, ends included
+    public void drawLine(int layer, int x0, int y0, int x1, int y1, int argb, Blend blend) {
+        if (argb >>> 24 == 0) {
+            return;
+        }
+        Command command = record(layer, LINE, Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1) + 1,
+                Math.max(y0, y1) + 1);
+        if (command != null) {
+            command.x = x0;
+            command.y = y0;
+            command.endX = x1;
+            command.endY = y1;
+            command.argb = argb;
+            command.blend = blend;
+        }
+    }
+
+    /**
+     * Fills a disc with a color, fading the outermost pixel for a smooth edge.
+     *
+     * @param layer   The layer to draw on
+     * @param centerX The center x
+     * @param centerY The center y
+     * @param radius  The radius
+     * @param argb    The color, with its alpha
+     * @param blend   How the color is combined with the scene
+     */
+    public void fillCircle(int layer, float centerX, float centerY, float radius, int argb, Blend blend) {
+        recordDisc(layer, CIRCLE, centerX, centerY, radius, argb, blend);
+    }
+
+    // Outlines a circle with a line of the given width centred on the radius
+    public void strokeCircle(int layer, float centerX, float centerY, float radius, float lineWidth, int argb,
+            Blend blend) {
+        strokeArc(layer, centerX, centerY, radius, lineWidth, 0f, (float) (Math.PI * 2), argb, blend);
+    }
+
+    /**
+     * Draws part of a circle's outline, fading the line's edges for a smooth
+     * look. Angles are in radians and go the way Math.atan2 does on screen, so
+     * they turn clockwise from the right.
+     *
+     * @param layer     The layer to draw on
+     * @param centerX   The center x
+     * @param centerY   The center y
+     * @param radius    The radius the line is centred on
+     * @param lineWidth The line width
+     * @param start     The angle the arc starts at
+     * @param extent    How far the arc turns from its start, a full circle for 2 pi
+     * @param argb      The color, with its alpha
+     * @param blend     How the color is combined with the scene
+     */
+    public void strokeArc(int layer, float centerX, float centerY, float radius, float lineWidth, float start,
+            float extent, int argb, Blend blend) {
+        float reach = radius + lineWidth / 2f + 1f;
+        if (radius <= 0f || lineWidth <= 0f || extent <= 0f || argb >>> 24 == 0) {
+            return;
+        }
+        Command command = record(layer, ARC, (int) Math.floor(centerX - reach), (int) Math.floor(centerY - reach),
+                (int) Math.ceil(centerX + reach), (int) Math.ceil(centerY + reach));
+        if (command != null) {
+            command.centerX = centerX;
+            command.centerY = centerY;
+            command.radius = radius;
+            command.lineWidth = lineWidth;
+            // Keep the start in 0 to 2 pi so each pixel's angle needs one wrap
+            command.start = (float) ((start % (Math.PI * 2) + Math.PI * 2) % (Math.PI * 2));
+            command.extent = extent;
+            command.argb = argb;
+            command.blend = blend;
+        }
+    }
+
+    /**
+     * Fills a polygon with a color. A pixel is inside when its center is, by the
+     * even-odd rule, so small shapes have hard edges.
+     *
+     * @param layer The layer to draw on
+     * @param xs    The corner x coordinates
+     * @param ys    The corner y coordinates
+     * @param n     The number of corners
+     * @param argb  The color, with its alpha
+     * @param blend How the color is combined with the scene
+     */
+    public void fillPolygon(int layer, float[] xs, float[] ys, int n, int argb, Blend blend) {
+        if (n < 3 || argb >>> 24 == 0) {
+            return;
+        }
+        float minX = xs[0], minY = ys[0], maxX = xs[0], maxY = ys[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        Command command = record(layer, POLYGON, (int) Math.floor(minX), (int) Math.floor(minY),
+                (int) Math.ceil(maxX), (int) Math.ceil(maxY));
+        if (command != null) {
+            // The corners are copied into the command's own array, which is kept
+            // from frame to frame like the command itself
+            if (command.points == null || command.points.length < n * 2) {
+                command.points = new float[n * 2];
+            }
+            for (int i = 0; i < n; i++) {
+                command.points[i * 2] = xs[i];
+                command.points[i * 2 + 1] = ys[i];
+            }
+            command.pointCount = n;
+            command.argb = argb;
+            command.blend = blend;
+        }
+    }
+
+    /**
+     * Draws a soft round particle whose color fades smoothly from full at the
+     * center to nothing at the radius.
+     *
+     * @param layer   The layer to draw on
+     * @param centerX The center x
+     * @param centerY The center y
+     * @param radius  The radius
+     * @param argb    The color at the center, with its alpha
+     * @param blend   How the color is combined with the scene
+     */
+    public void splat(int layer, float centerX, float centerY, float radius, int argb, Blend blend) {
+        recordDisc(layer, SPLAT, centerX, centerY, radius, argb, blend);
+    }
+
+    /**
+     * Fills a disc with a radial color ramp, the way a gradient paint whose radius
+     * is the disc's would, fading the outermost pixel for a smooth edge.
+     *
+     * @param layer   The layer to draw on
+     * @param centerX The center x
+     * @param centerY The center y
+     * @param radius  The radius
+     * @param ramp    ARGB colors from the center, first entry, out to the edge
+     * @param opacity How opaque the whole disc is drawn, from 0 to 1
+     * @param blend   How the colors are combined with the scene
+     */
+    public void fillRadial(int layer, float centerX, float centerY, float radius, int[] ramp, float opacity,
+            Blend blend) {
+        Command command = recordDisc(layer, RADIAL, centerX, centerY, radius,
+                Math.round(Math.max(0f, Math.min(1f, opacity)) * 255) << 24, blend);
+        if (command != null) {
+            command.ramp = ramp;
+            command.texture = System.identityHashCode(ramp);
+        }
+    }
+
+    private Command recordDisc(int layer, int op, float centerX, float centerY, float radius, int argb,
+            Blend blend) {
+        if (radius <= 0f || argb >>> 24 == 0) {
+            return null;
+        }
+        Command command = record(layer, op, (int) Math.floor(centerX - radius), (int) Math.floor(centerY - radius),
+                (int) Math.ceil(centerX + radius), (int) Math.ceil(centerY + radius));
+        if (command != null) {
+            command.centerX = centerX;
+            command.centerY = centerY;
+            command.radius = radius;
+            command.argb = argb;
+            command.blend = blend;
+        }
+        return command;
+    }
+
+    // Adds a command touching the given pixels, or returns null if they are all
+    // off the frame
+    private Command record(int layer, int op, int left, int top, int right, int bottom) {
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(width, right);
+        bottom = Math.min(height, bottom);
+        if (left >= right || top >= bottom) {
+            return null;
+        }
+        if (commandCount == commands.length) {
+            commands = Arrays.copyOf(commands, commandCount * 2);
+            for (int i = commandCount; i < commands.length; i++) {
+                commands[i] = new Command();
+            }
+            keys = Arrays.copyOf(keys, commands.length);
+        }
+        Command command = commands[commandCount++];
+        command.layer = layer;
+        command.op = op;
+        command.blend = Blend.ALPHA;
+        command.texture = 0;
+        command.left = left;
+        command.top = top;
+        command.right = right;
+        command.bottom = bottom;
+        return command;
+    }
+
+    // Draws every recorded command into the pixels, in layer order and grouped
+    // by state within each layer. Large batches are split into tiles, each
+    // drawing its own commands in that order, so tiles never write the same
+    // pixel and need no locking
+    private void flush() {
+        int count = commandCount;
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            keys[i] = sorting ? (long) commands[i].layer << 32 | i : i;
+        }
+        if (sorting) {
+            Arrays.sort(keys, 0, count);
+            groupByState(count);
+        }
+        countStateChanges(count);
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            bin(count);
+            new TileBlock(0, columns * rows).invoke();
+        } else {
+            for (int k = 0; k < count; k++) {
+                draw(commands[(int) keys[k]], 0, 0, width, height);
+            }
+        }
+        // Let go of the sprites and ramps so evicted animations can be collected
+        for (int i = 0; i < count; i++) {
+            commands[i].sprite = null;
+            commands[i].ramp = null;
+        }
+        commandCount = 0;
+    }
+
+    // Splits the layer-ordered batch into runs of draws whose bounds do not
+    // overlap, a new run starting at each layer and at each draw that touches
+    // a cell an earlier draw of the run already claimed. Draws in a run cannot
+    // cover one another, so each run is sorted by blend, kind and texture
+    // without changing a pixel, while overlapping draws stay in recording order
+    private void groupByState(int count) {
+        int runStart = 0;
+        int runLayer = -1;
+        for (int k = 0; k < count; k++) {
+            int index = (int) keys[k];
+            Command command = commands[index];
+            if (command.layer != runLayer || !claimCells(command)) {
+                Arrays.sort(keys, runStart, k);
+                runStart = k;
+                runLayer = command.layer;
+                if (++run == 0) {
+                    // The run counter wrapped, so stale claims could match again
+                    Arrays.fill(cellRun, 0);
+                    run = 1;
+                }
+                claimCells(command);
+            }
+            long state = (long) command.blend.ordinal() << 27 | (long) command.op << 24 | command.texture & 0xFFFFFF;
+            keys[k] = state << 32 | index;
+        }
+        Arrays.sort(keys, runStart, count);
+    }
+
+    // Marks the overlap cells under a command as taken by the current run.
+    // Returns false if one of them already was
+    private boolean claimCells(Command command) {
+        int column0 = command.left / OVERLAP_CELL;
+        int column1 = (command.right - 1) / OVERLAP_CELL;
+        for (int row = command.top / OVERLAP_CELL; row <= (command.bottom - 1) / OVERLAP_CELL; row++) {
+            for (int column = column0; column <= column1; column++) {
+                int cell = row * cellColumns + column;
+                if (cellRun[cell] == run) {
+                    return false;
+                }
+                cellRun[cell] = run;
+            }
+        }
+        return true;
+    }
+
+    // Counts the commands, in the order they are about to be drawn, whose
+    // blend, kind or texture differs from the one before
+    private void countStateChanges(int count) {
+        long previous = -1;
+        for (int k = 0; k < count; k++) {
+            Command command = commands[(int) keys[k]];
+            long state = (long) command.blend.ordinal() << 59 | (long) command.op << 56 | command.texture & 0xFFFFFFL;
+            if (state != previous) {
+                stateChanges++;
+                previous = state;
+            }
+        }
+    }
+
+    // Sorts the command indices by tile with a counting pass, keeping draw order
+    // within each tile
+    private void bin(int count) {
+        Arrays.fill(tileStart, 0);
+        int total = 0;
+        for (int k = 0; k < count; k++) {
+            Command command = commands[(int) keys[k]];
+            for (int row = command.top / TILE_SIZE; row <= (command.bottom - 1) / TILE_SIZE; row++) {
+                for (int column = command.left / TILE_SIZE; column <= (command.right - 1) / TILE_SIZE; column++) {
+                    tileStart[row * columns + column + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int t = 0; t < columns * rows; t++) {
+            tileStart[t + 1] += tileStart[t];
+            tileFill[t] = tileStart[t];
+        }
+        if (binned.length < total) {
+            binned = new int[Math.max(total, binned.length * 2)];
+        }
+        for (int k = 0; k < count; k++) {
+            int index = (int) keys[k];
+            Command command = commands[index];
+            for (int row = command.top / TILE_SIZE; row <= (command.bottom - 1) / TILE_SIZE; row++) {
+                for (int column = command.left / TILE_SIZE; column <= (command.right - 1) / TILE_SIZE; column++) {
+                    binned[tileFill[row * columns + column]++] = index;
+                }
+            }
+        }
+    }
+
+    // Draws the commands binned into one tile, clipped to it
+    private void drawTile(int tile) {
+        int left = (tile % columns) * TILE_SIZE;
+        int top = (tile / columns) * TILE_SIZE;
+        int right = Math.min(width, left + TILE_SIZE);
+        int bottom = Math.min(height, top + TILE_SIZE);
+        for (int k = tileStart[tile]; k < tileStart[tile + 1]; k++) {
+            draw(commands[binned[k]], left, top, right, bottom);
+        }
+    }
+
+    // Draws one command into the part of the frame inside the clip
+    private void draw(Command command, int clipLeft, int clipTop, int clipRight, int clipBottom) {
+        int left = Math.max(clipLeft, command.left);
+        int top = Math.max(clipTop, command.top);
+        int right = Math.min(clipRight, command.right);
+        int bottom = Math.min(clipBottom, command.bottom);
+        switch (command.op) {
+            case CLEAR:
+            case RECT:
+                fillPixels(left, top, right, bottom, command.argb, command.blend);
+                break;
+            case SPRITE:
+                blitPixels(command.sprite, command.x, command.y, left, top, right, bottom);
+                break;
+            case CIRCLE:
+            case SPLAT:
+                discPixels(command, left, top, right, bottom);
+                break;
+            case RADIAL:
+                radialPixels(command, left, top, right, bottom);
+                break;
+            case LINE:
+                linePixels(command, left, top, right, bottom);
+                break;
+            case ARC:
+                arcPixels(command, left, top, right, bottom);
+                break;
+            case POLYGON:
+                polygonPixels(command, left, top, right, bottom);
+                break;
+            case SCALED:
+                scaledPixels(command, left, top, right, bottom);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Fills the pixels from left, top up to right, bottom with a color
+    private void fillPixels(int left, int top, int right, int bottom, int argb, Blend blend) {
+        int alpha = argb >>> 24;
+        if (blend == Blend.ALPHA && alpha == 255) {
+            for (int row = top; row < bottom; row++) {
+                Arrays.fill(pixels, row * width + left, row * width + right, argb & 0xFFFFFF);
+            }
+            return;
+        }
+        int premultiplied = premultiply(argb, alpha);
+        for (int row = top; row < bottom; row++) {
+            for (int i = row * width + left, end = row * width + right; i < end; i++) {
+                pixels[i] = blend == Blend.ADD ? add(premultiplied, pixels[i]) : over(premultiplied, pixels[i], alpha);
+            }
+        }
+    }
+
+    // Draws the part of a sprite at x, y that falls inside the clip
+    private void blitPixels(Sprite sprite, int x, int y, int left, int top, int right, int bottom) {
+        int[] source = sprite.pixels;
+        for (int row = top; row < bottom; row++) {
+            // Only walk the part of the row between its first and last visible pixel
+            int start = Math.max(left, x + sprite.rowStart[row - y]);
+            int end = Math.min(right, x + sprite.rowEnd[row - y]);
+            int from = (row - y) * sprite.width + (start - x);
+            int to = row * width + start;
+            for (int col = start; col < end; col++, from++, to++) {
+                int argb = source[from];
+                int alpha = argb >>> 24;
+                if (alpha == 255) {
+                    pixels[to] = argb & 0xFFFFFF;
+                } else if (alpha != 0) {
+                    pixels[to] = over(argb, pixels[to], alpha);
+                }
+            }
+        }
+    }
+
+    // Walks the pixels inside the clip whose centers fall inside the disc. Each
+    // one gets the color scaled by its coverage, which is the edge fade for a
+    // filled circle or a falloff from the center for a splat
+    private void discPixels(Command command, int left, int top, int right, int bottom) {
+        float centerX = command.centerX;
+        float centerY = command.centerY;
+        float radius = command.radius;
+        int argb = command.argb;
+        Blend blend = command.blend;
+        boolean soft = command.op == SPLAT;
+        int alpha = argb >>> 24;
+        float radiusSq = radius * radius;
+        // Pixels of a filled circle this close to the center are fully covered
+        float innerSq = radius > 1f ? (radius - 1f) * (radius - 1f) : 0f;
+        int full = premultiply(argb, alpha);
+        for (int row = top; row < bottom; row++) {
+            float dy = row + 0.5f - centerY;
+            float spanSq = radiusSq - dy * dy;
+            if (spanSq <= 0f) {
+                continue;
+            }
+            float span = (float) Math.sqrt(spanSq);
+            int start = Math.max(left, (int) Math.floor(centerX - span));
+            int end = Math.min(right, (int) Math.ceil(centerX + span));
+            for (int col = start, i = row * width + start; col < end; col++, i++) {
+                float dx = col + 0.5f - centerX;
+                float distSq = dx * dx + dy * dy;
+                if (distSq >= radiusSq) {
+                    continue;
+                }
+                int a = alpha;
+                int premultiplied = full;
+                if (soft || distSq > innerSq) {
+                    float coverage;
+                    if (soft) {
+                        float falloff = 1f - distSq / radiusSq;
+                        coverage = falloff * falloff;
+                    } else {
+                        coverage = Math.min(1f, radius - (float) Math.sqrt(distSq));
+                    }
+                    a = (int) (alpha * coverage + 0.5f);
+                    if (a == 0) {
+                        continue;
+                    }
+                    premultiplied = premultiply(argb, a);
+                }
+                pixels[i] = blend == Blend.ADD ? add(premultiplied, pixels[i]) : over(premultiplied, pixels[i], a);
+            }
+        }
+    }
+
+    // Looks each pixel's distance from the center up in the ramp, as
+    // EffectAtlas bakes its glows, scaled by the command's opacity
+    private void radialPixels(Command command, int left, int top, int right, int bottom) {
+        float centerX = command.centerX;
+        float centerY = command.centerY;
+        float radius = command.radius;
+        int[] ramp = command.ramp;
+        int last = ramp.length - 1;
+        float scale = last / radius;
+        int opacity = command.argb >>> 24;
+        boolean additive = command.blend == Blend.ADD;
+        float radiusSq = radius * radius;
+        for (int row = top; row < bottom; row++) {
+            float dy = row + 0.5f - centerY;
+            for (int col = left, i = row * width + left; col < right; col++, i++) {
+                float dx = col + 0.5f - centerX;
+                float distSq = dx * dx + dy * dy;
+                if (distSq >= radiusSq) {
+                    continue;
+                }
+                float dist = (float) Math.sqrt(distSq);
+                int argb = ramp[Math.min(last, (int) (dist * scale))];
+                int a = (argb >>> 24) * opacity;
+                float edge = radius - dist;
+                a = edge < 1f ? (int) (a * edge + 127.5f) / 255 : (a + 127) / 255;
+                if (a == 0) {
+                    continue;
+                }
+                int premultiplied = premultiply(argb, a);
+                pixels[i] = additive ? add(premultiplied, pixels[i]) : over(premultiplied, pixels[i], a);
+            }
+        }
+    }
+
+    // Steps along a line one pixel at a time along its longer axis, drawing the
+    // pixels that fall inside the clip
+    private void linePixels(Command command, int left, int top, int right, int bottom) {
+        int dx = command.endX - command.x;
+        int dy = command.endY - command.y;
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+        int alpha = command.argb >>> 24;
+        int premultiplied = premultiply(command.argb, alpha);
+        for (int step = 0; step <= steps; step++) {
+            int px = command.x + (steps == 0 ? 0 : Math.round(dx * (float) step / steps));
+            int py = command.y + (steps == 0 ? 0 : Math.round(dy * (float) step / steps));
+            if (px < left || px >= right || py < top || py >= bottom) {
+                continue;
+            }
+            int i = py * width + px;
+            if (command.blend == Blend.ADD) {
+                pixels[i] = add(premultiplied, pixels[i]);
+            } else {
+                pixels[i] = alpha == 255 ? premultiplied & 0xFFFFFF : over(premultiplied, pixels[i], alpha);
+            }
+        }
+    }
+
+    // Walks the pixels of the band around the radius that fall inside the clip,
+    // fading the band's edges by how far each pixel center is from them. Pixels
+    // outside the arc's angles are skipped
+    private void arcPixels(Command command, int left, int top, int right, int bottom) {
+        float centerX = command.centerX;
+        float centerY = command.centerY;
+        float radius = command.radius;
+        float half = command.lineWidth / 2f;
+        float start = command.start;
+        float extent = command.extent;
+        boolean partial = extent < Math.PI * 2;
+        int alpha = command.argb >>> 24;
+        boolean additive = command.blend == Blend.ADD;
+        for (int row = top; row < bottom; row++) {
+            float dy = row + 0.5f - centerY;
+            for (int col = left, i = row * width + left; col < right; col++, i++) {
+                float dx = col + 0.5f - centerX;
+                float dist = (float) Math.sqrt(dx * dx + dy * dy);
+                float coverage = Math.min(1f, half + 0.5f - Math.abs(dist - radius));
+                if (coverage <= 0f) {
+                    continue;
+                }
+                if (partial) {
+                    double angle = Math.atan2(dy, dx) - start;
+                    if (angle < 0) {
+                        angle += Math.PI * 2;
+                    }
+                    if (angle > extent) {
+                        continue;
+                    }
+                }
+                int a = (int) (alpha * coverage + 0.5f);
+                if (a == 0) {
+                    continue;
+                }
+                int premultiplied = premultiply(command.argb, a);
+                pixels[i] = additive ? add(premultiplied, pixels[i]) : over(premultiplied, pixels[i], a);
+            }
+        }
+    }
+
+    // Fills the pixels inside the clip whose centers the polygon's edges cross
+    // an odd number of times on their way to the left
+    private void polygonPixels(Command command, int left, int top, int right, int bottom) {
+        float[] points = command.points;
+        int n = command.pointCount;
+        int alpha = command.argb >>> 24;
+        int premultiplied = premultiply(command.argb, alpha);
+        boolean additive = command.blend == Blend.ADD;
+        for (int row = top; row < bottom; row++) {
+            float y = row + 0.5f;
+            for (int col = left, i = row * width + left; col < right; col++, i++) {
+                float x = col + 0.5f;
+                boolean inside = false;
+                for (int a = 0, b = n - 1; a < n; b = a++) {
+                    float ax = points[a * 2], ay = points[a * 2 + 1];
+                    float bx = points[b * 2], by = points[b * 2 + 1];
+                    if ((ay > y) != (by > y) && x < ax + (y - ay) * (bx - ax) / (by - ay)) {
+                        inside = !inside;
+                    }
+                }
+                if (inside) {
+                    pixels[i] = additive ? add(premultiplied, pixels[i]) : over(premultiplied, pixels[i], alpha);
+                }
+            }
+        }
+    }
+
+    // Draws the part of a stretched sprite that falls inside the clip, each
+    // pixel taking the nearest sprite pixel scaled by the command's opacity
+    private void scaledPixels(Command command, int left, int top, int right, int bottom) {
+        Sprite sprite = command.sprite;
+        int[] source = sprite.pixels;
+        int x = command.x;
+        int y = command.y;
+        int w = command.endX;
+        int h = command.endY;
+        int opacity = command.argb >>> 24;
+        for (int row = top; row < bottom; row++) {
+            int sourceRow = (row - y) * sprite.height / h;
+            int start = sourceRow * sprite.width;
+            for (int col = left, i = row * width + left; col < right; col++, i++) {
+                int argb = source[start + (col - x) * sprite.width / w];
+                if (argb >>> 24 == 0) {
+                    continue;
+                }
+                if (opacity < 255) {
+                    argb = fade(argb, opacity);
+                }
+                int alpha = argb >>> 24;
+                pixels[i] = alpha == 255 ? argb & 0xFFFFFF : over(argb, pixels[i], alpha);
+            }
+        }
+    }
+
+    // A color's RGB with its alpha scaled by a fraction, ready for the fill
+    // methods
+    public static int withAlpha(Color color, float alpha) {
+        int a = Math.round(color.getAlpha() * Math.max(0f, Math.min(1f, alpha)));
+        return (a << 24) | (color.getRGB() & 0xFFFFFF);
+    }
+
+    // Scales a color's channels by an alpha, keeping that alpha on top
+    private static int premultiply(int argb, int alpha) {
+        int rb = ((argb & 0xFF00FF) * alpha + 0x800080) >>> 8 & 0xFF00FF;
+        int g = ((argb & 0x00FF00) * alpha + 0x008000) >>> 8 & 0x00FF00;
+        return (alpha << 24) | rb | g;
+    }
+
+    // Scales every channel of a premultiplied color, alpha included, by an opacity
+    private static int fade(int premultiplied, int opacity) {
+        int ag = ((premultiplied >>> 8 & 0xFF00FF) * opacity + 0x800080) & 0xFF00FF00;
+        int rb = ((premultiplied & 0xFF00FF) * opacity + 0x800080) >>> 8 & 0xFF00FF;
+        return ag | rb;
+    }
+
+    // Source-over of a premultiplied color onto an opaque pixel. The pixel is
+    // scaled by 256 - alpha, which rounds down enough that no channel can carry
+    // into the next
+    private static int over(int premultiplied, int rgb, int alpha) {
+        int inverse = 256 - alpha;
+        int rb = ((rgb & 0xFF00FF) * inverse >>> 8) & 0xFF00FF;
+        int g = ((rgb & 0x00FF00) * inverse >>> 8) & 0x00FF00;
+        return (premultiplied & 0xFFFFFF) + rb + g;
+    }
+
+    // Adds a premultiplied color to an opaque pixel, capping each channel at 255
+    private static int add(int premultiplied, int rgb) {
+        int r = Math.min(255, ((rgb >> 16) & 0xFF) + ((premultiplied >> 16) & 0xFF));
+        int g = Math.min(255, ((rgb >> 8) & 0xFF) + ((premultiplied >> 8) & 0xFF));
+        int b = Math.min(255, (rgb & 0xFF) + (premultiplied & 0xFF));
+        return (r << 16) | (g << 8) | b;
+    }
+
+    // An image's pixels, premultiplied by their alpha so drawing one is a scale
+    // and an add per pixel, along with where each row's visible pixels start
+    // and end so the transparent margins around the art are never read
+    public static final class Sprite {
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final int[] rowStart;
+        private final int[] rowEnd;
+
+        private Sprite(int[] pixels, int width, int height) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            rowStart = new int[height];
+            rowEnd = new int[height];
+            for (int row = 0; row < height; row++) {
+                int start = 0;
+                int end = width;
+                while (start < end && pixels[row * width + start] >>> 24 == 0) {
+                    start++;
+                }
+                while (end > start && pixels[row * width + end - 1] >>> 24 == 0) {
+                    end--;
+                }
+                rowStart[row] = start;
+                rowEnd[row] = end;
+            }
+        }
+
+        // Copies an image's pixels into a new sprite
+        public static Sprite of(BufferedImage image) {
+            int w = image.getWidth();
+            int h = image.getHeight();
+            int[] argb = image.getRGB(0, 0, w, h, null, 0, w);
+            for (int i = 0; i < argb.length; i++) {
+                argb[i] = premultiply(argb[i], argb[i] >>> 24);
+            }
+            return new Sprite(argb, w, h);
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    // One recorded draw, with the pixels it can touch clipped to the frame. The
+    // fields each kind uses are filled in by the method that records it
+    private static final class Command {
+        private int layer;
+        private int op;
+        private int texture; // Identity of the sprite or ramp drawn, zero for plain colors
+        private int left, top, right, bottom;
+        private int x, y, endX, endY;
+        private float centerX, centerY, radius;
+        private float lineWidth, start, extent;
+        private float[] points;
+        private int pointCount;
+        private int argb;
+        private Blend blend;
+        private Sprite sprite;
+        private int[] ramp;
+    }
+
+    // Splits the tiles into groups drawn in parallel. Run on the paint thread it
+    // forks onto the common pool
+    private final class TileBlock extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        TileBlock(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int tile = from; tile < to; tile++) {
+                    drawTile(tile);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileBlock(from, mid), new TileBlock(mid, to));
+        }
+    }
+}
@@ -61,9 +61,8 @@ public class GameObject extends Rectangle {
         y += y_velocity;
     }
 
-    // Draws the game object as a blue rectangle on the screen.
-    public void draw(Graphics g) {
-        g.setColor(Color.BLUE);
-        g.fillRect(x, y, WIDTH, HEIGHT);
+    // Draws the game object as a blue rectangle into the frame.
+    public void draw(Framebuffer frame) {
+        frame.fillRect(Framebuffer.LAYER_ENEMY, x, y, WIDTH, HEIGHT, Color.BLUE.getRGB(), Framebuffer.Blend.ALPHA);
     }
 }
@@ -10,6 +10,7 @@ import java.awt.event.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import javax.swing.*;
 
@@ -17,11 +18,20 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
     // Constants for game dimensions
     public static final int GAME_WIDTH = 1283;
     public static final int GAME_HEIGHT = 720;
+    // Resource path of the game font
+    static final String FONT_PATH = "/assets/gamefont.ttf";
 
     // Game state and core components
     public GameState game_state;
     public Player player;
     public CopyOnWriteArrayList<Enemy> enemies;
+    public final EnemyHandles enemyHandles = new EnemyHandles(); // Generational handles for every live enemy
+    public final ContactSolver contactSolver = new ContactSolver(GAME_WIDTH, GAME_HEIGHT); // Parallel impulse solver
+    public final CrowdSolver crowdSolver = new CrowdSolver(GAME_WIDTH, GAME_HEIGHT); // Position-based crowd solver
+    public final CrowdBuffer crowd = new CrowdBuffer(); // Packed enemy state shared by the crowd loops
+    public final SpatialOrder spatialOrder = new SpatialOrder(); // Keeps the enemy list in Z-order
+    public final DamageNumberManager damageNumbers = new DamageNumberManager(); // Every damage number on screen
+    public final FlowField flowField = new FlowField(GAME_WIDTH, GAME_HEIGHT, 40f); // Chase directions to the player
     public Map<String, Map<String, Object>> skill_map;
 
     // Heads-up display (HUD) and wave tracking
@@ -29,10 +39,29 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
     private int currentWave = 1;
     private int enemiesDefeated = 0;
     private int enemiesRequiredForNextWave = 10;
+    private long tick = 0; // Number of fixed simulation steps run so far
+    private float stepDt; // Delta time of the step currently being simulated
+
+    // Per-tick task graph and its profiling switch (-Dendlessnight.profile=true)
+    private final TickScheduler TICK_SCHEDULER;
+    private static final boolean PROFILE_TICKS = Boolean.getBoolean("endlessnight.profile");
+    private static final int PROFILE_INTERVAL = 300; // Ticks between timing reports
 
     // Font and screen management
     private final Font GAME_FONT;
     private final CardLayout SCREEN_MANAGER = new CardLayout();
+    // Screens built so far. Each one is built the first time it is shown, and
+    // menu screens are dropped again once they are left
+    private final Map<GameState, JPanel> screens = new EnumMap<>(GameState.class);
+    private GameState shownScreen; // State whose screen is currently showing
+    // Background each menu screen loads, released along with the screen
+    private static final Map<GameState, String> SCREEN_BACKGROUNDS = new EnumMap<>(GameState.class);
+
+    static {
+        SCREEN_BACKGROUNDS.put(GameState.INTRODUCTION, IntroScreen.BACKGROUND_PATH);
+        SCREEN_BACKGROUNDS.put(GameState.MAIN_MENU, MainMenu.BACKGROUND_PATH);
+        SCREEN_BACKGROUNDS.put(GameState.HOW_TO_PLAY, HowToPlayScreen.BACKGROUND_PATH);
+    }
     private final Thread GAME_THREAD;
 
     // Sound manager for background music and effects
@@ -41,18 +70,30 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
     public GamePanel() {
         game_state = GameState.INTRODUCTION;
         SOUND_MANAGER = new SoundManager();
-        GAME_FONT = loadFont("/assets/gamefont.ttf", 64f);
+        GAME_FONT = loadFont(FONT_PATH, 64f);
 
         // Initialize skills map
         init();
 
+        // Start loading the menu backgrounds, icons and the first wave's sprites in
+        // the background while the intro screen shows, then queue the next wave's
+        // sprites, so no sprite is decoded in the middle of a fight
+        AssetPreloader.image(IntroScreen.BACKGROUND_PATH, GAME_WIDTH, GAME_HEIGHT);
+        AssetPreloader.image(MainMenu.BACKGROUND_PATH, GAME_WIDTH, GAME_HEIGHT);
+        AssetPreloader.image(HowToPlayScreen.BACKGROUND_PATH, GAME_WIDTH, GAME_HEIGHT);
+        HowToPlayScreen.preloadIcons();
+        AssetPreloader.wave(currentWave);
+        SpriteAtlas.prefetchWave(currentWave + 1);
+
         // Initialize player and enemies
-        player = new Player(GAME_WIDTH / 2, GAME_HEIGHT / 2, 70, 70, 100, 10, null, this);
+        player = new Player(GAME_WIDTH / 2, GAME_HEIGHT / 2, Player.SIZE, Player.SIZE, 100, 10, null, this);
         enemies = new CopyOnWriteArrayList<>();
         for (int i = 0; i < 10; i++) {
             enemies.add(createEnemy());
         }
 
+        TICK_SCHEDULER = buildTickScheduler();
+
         // Initialize HUD and wave progress
         hud = new HUD(player, GAME_FONT);
         hud.setCurrentWave(currentWave);
@@ -79,17 +120,70 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
         addMouseListener(this);
         addMouseMotionListener(this);
 
-        // Add screens to the card layout
-        add(new IntroScreen(this), GameState.INTRODUCTION.name());
-        add(new MainMenu(this), GameState.MAIN_MENU.name());
-        add(new HowToPlayScreen(this), GameState.HOW_TO_PLAY.name());
-        add(new PlayScreen(this), GameState.PLAYING.name());
-
-        // Show the initial screen and start background music
-        SCREEN_MANAGER.show(this, game_state.name());
+        // Build and show the initial screen and start background music; the other
+        // screens are built when they are first shown
+        openScreen(game_state);
         SOUND_MANAGER.playBackgroundMusic("intro");
     }
 
+    // Builds the screen for a state, or returns null if the state has none
+    private JPanel createScreen(GameState state) {
+        switch (state) {
+            case INTRODUCTION:
+                return new IntroScreen(this);
+            case MAIN_MENU:
+                return new MainMenu(this);
+            case HOW_TO_PLAY:
+                return new HowToPlayScreen(this);
+            case PLAYING:
+                return new PlayScreen(this);
+            default:
+                return null;
+        }
+    }
+
+    // Shows the screen for a state, building it first if it has not been yet,
+    // and drops the screen that was showing. States without a screen leave the
+    // current one up
+    private void openScreen(GameState state) {
+        if (!screens.containsKey(state)) {
+            JPanel screen = createScreen(state);
+            if (screen == null) {
+                return;
+            }
+            screens.put(state, screen);
+            add(screen, state.name());
+        }
+        SCREEN_MANAGER.show(this, state.name());
+        if (shownScreen != null && shownScreen != state) {
+            closeScreen(shownScreen);
+        }
+        shownScreen = state;
+
+        // Nothing the menus preloaded is needed during play
+        if (state == GameState.PLAYING) {
+            for (String background : SCREEN_BACKGROUNDS.values()) {
+                AssetPreloader.release(background, GAME_WIDTH, GAME_HEIGHT);
+            }
+        }
+    }
+
+    // Drops a menu screen that was left, along with its background image, so
+    // menus hold no memory during play. The play screen is kept
+    private void closeScreen(GameState state) {
+        if (state == GameState.PLAYING) {
+            return;
+        }
+        JPanel screen = screens.remove(state);
+        if (screen != null) {
+            remove(screen);
+        }
+        String background = SCREEN_BACKGROUNDS.get(state);
+        if (background != null) {
+            AssetPreloader.release(background, GAME_WIDTH, GAME_HEIGHT);
+        }
+    }
+
     // Initializes the skill map with predefined skills
     private void init() {
         skill_map = new HashMap<>();
@@ -113,41 +207,73 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
         int x = (int) Math.round(centerX + radius * Math.cos(angle));
         int y = (int) Math.round(centerY + radius * Math.sin(angle));
 
-        return new Enemy(x, y, 20, 20, 50, 1, null, this);
+        // The body is sized from the monster's kind, matching its sprite
+        EnemyArchetype type = randomMonster();
+        Enemy enemy = new Enemy(x, y, type.getBodySize(), type.getBodySize(), 50, 1, null, this);
+        enemy.setArchetype(type);
+        enemyHandles.register(enemy);
+        return enemy;
     }
 
-    // Paints the game components on the screen
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // Picks which monster a regular spawn looks like from the kinds unlocked by
+    // the current wave. Bosses are left out, since regular spawns share one size
+    private EnemyArchetype randomMonster() {
+        List<EnemyArchetype> types = EnemyArchetype.forWave(currentWave);
+        types.removeIf(EnemyArchetype::isBoss);
+        return types.get(ThreadLocalRandom.current().nextInt(types.size()));
+    }
 
-        if (game_state == GameState.PLAYING) {
-            player.draw(g2);
-            for (Enemy enemy : enemies) {
-                enemy.draw(g2);
-            }
-            hud.draw(g2, GAME_WIDTH);
+    // Runs one fixed simulation step through the tick task graph
+    public void step(float dt) {
+        if (game_state != GameState.PLAYING) {
+            return;
         }
-    } // Updates the positions of the player and enemies
+        tick++;
+        stepDt = dt;
+        AnimationClock.advance(dt);
+        TICK_SCHEDULER.run();
+
+        // Print how long each system took, when profiling is switched on
+        if (PROFILE_TICKS && tick % PROFILE_INTERVAL == 0) {
+            StringBuilder report = new StringBuilder("Tick " + tick + " (avg ms):");
+            TICK_SCHEDULER.getAverageMillis()
+                    .forEach((name, ms) -> report.append(String.format(" %s=%.3f", name, ms)));
+            System.out.println(report);
+        }
+    }
 
-    public void move(float dt) {
-        if (game_state == GameState.PLAYING) {
-            player.move();
-            player.update(dt, enemies);
+    // Builds the task graph for one simulation step. Each system lists the shared
+    // state it reads and writes; systems that do not conflict run side by side
+    private TickScheduler buildTickScheduler() {
+        TickScheduler scheduler = new TickScheduler(
+                new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+        scheduler.addTask("player.move", List.of(), List.of("player"), player::move);
+        scheduler.addTask("flowfield", List.of("player"), List.of("flowfield"),
+                () -> flowField.update(player.getCenterX(), player.getCenterY()));
+        scheduler.addTask("skills", List.of("player"), List.of("enemies", "damage_numbers"),
+                () -> player.update(stepDt, enemies));
+        scheduler.addTask("enemies.reorder", List.of(), List.of("enemies"),
+                () -> spatialOrder.maybeReorder(enemies, tick));
+        // Packing also stamps every enemy with its crowd slot, so it writes the enemies too
+        scheduler.addTask("crowd.pack", List.of(), List.of("crowd", "enemies"), () -> crowd.pack(enemies));
+        scheduler.addTask("crowd.separation", List.of("player", "enemies"), List.of("crowd"),
+                () -> Enemy.separateCrowd(crowd, player, tick));
+        scheduler.addTask("enemies.steer", List.of("player", "flowfield", "crowd"), List.of("enemies"), () -> {
             for (Enemy enemy : enemies) {
-                enemy.update(dt, player);
-                enemy.updateDamageNumbers(dt);
+                enemy.update(stepDt, player);
             }
-        }
-    } // Checks for collisions between game entities
-
-    public void checkCollisions(float dt) {
-        Physics.resolveCollisions(game_state, player, enemies, dt);
-
-        // Remove dead enemies and spawn new ones
-        updateEnemies();
+        });
+        // Damage numbers only rise and fade, so they run alongside enemy steering
+        scheduler.addTask("damage_numbers", List.of(), List.of("damage_numbers"),
+                () -> damageNumbers.update(stepDt));
+        scheduler.addTask("physics", List.of("crowd"), List.of("player", "enemies"),
+                () -> Physics.resolveCollisions(game_state, player, enemies, crowd, crowdSolver,
+                        contactSolver, stepDt));
+        // Remove dead enemies and spawn new ones, advancing the wave count
+        scheduler.addTask("enemies.cleanup", List.of("player"), List.of("enemies", "wave", "hud"),
+                this::updateEnemies);
+        return scheduler;
     }
 
     // Handles removing dead enemies and spawning new ones
@@ -158,6 +284,7 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
         for (Enemy enemy : enemies) {
             if (enemy.isDead()) {
                 deadEnemies.add(enemy);
+                enemyHandles.release(enemy.getHandle());
                 enemiesDefeated++;
 
                 // Collect a new enemy to be added later
@@ -173,6 +300,7 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
                     enemiesRequiredForNextWave += 5; // Increase enemies required for next wave
                     hud.setCurrentWave(currentWave);
                     hud.updateWaveProgress(enemiesDefeated, enemiesRequiredForNextWave);
+                    SpriteAtlas.prefetchWave(currentWave + 1);
                 }
             }
         }
@@ -207,14 +335,12 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
             if (game_state == GameState.PLAYING) {
                 // Update game logic at fixed intervals
                 while (accumulator >= FRAME_TIME) {
-                    move(fixedDT);
-                    checkCollisions(fixedDT);
+                    step(fixedDT);
                     accumulator -= FRAME_TIME;
                 }
             }
 
-            // Update the screen and repaint
-            SCREEN_MANAGER.show(this, game_state.name());
+            // Repaint the screen
             repaint();
 
             // Sleep to maintain consistent frame rate
@@ -243,13 +369,18 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
                 hud.stopTimer();
             }
 
-            SCREEN_MANAGER.show(this, game_state.name());
+            openScreen(game_state);
             requestFocusInWindow();
         } catch (IllegalArgumentException e) {
             System.out.println("Invalid screen name: " + name);
         }
     }
 
+    // Returns the number of fixed simulation steps run so far
+    public long getTick() {
+        return tick;
+    }
+
     // Returns the game font
     public Font getGameFont() {
         return GAME_FONT;
@@ -258,7 +389,7 @@ public class GamePanel extends JPanel implements Runnable, KeyListener, MouseLis
     // Loads a custom font from a file
     private Font loadFont(String path, float size) {
         try {
-            Font f = Font.createFont(Font.TRUETYPE_FONT, IntroScreen.class.getResourceAsStream(path));
+            Font f = Font.createFont(Font.TRUETYPE_FONT, AssetPack.openFile(path));
             GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
             ge.registerFont(f);
             return f.deriveFont(size);
@@ -20,6 +20,14 @@ public class GameTimer {
 
     private final DecimalFormat TIME_FORMAT = new DecimalFormat("00"); // Format for displaying time in two digits
 
+    // Cached image of the time, the space kept around the text, where it is
+    // drawn and the second and screen width it was last drawn for
+    private static final int LAYER_PAD = 2;
+    private final HudLayer LAYER = new HudLayer();
+    private long renderedSeconds = -1;
+    private int renderedWidth;
+    private int layerX;
+
     // Constructor to initialize the timer with a specific font
     public GameTimer(Font font) {
         this.TIMER_FONT = font.deriveFont(24f); // Set font size to 24
@@ -50,17 +58,30 @@ public class GameTimer {
         return System.currentTimeMillis() - startTimeMillis;
     }
 
-    // Draws the timer on the screen
+    // Draws the timer on the screen, redrawing its layer only when the shown
+    // second or the screen width changes
     public void draw(Graphics2D g2d, int screenWidth) {
         if (!running) {
             return; // Do nothing if the timer is not running
         }
 
+        // Calculate elapsed time in whole seconds
+        long elapsedSeconds = getElapsedTimeMillis() / 1000;
+        if (elapsedSeconds != renderedSeconds || screenWidth != renderedWidth) {
+            render(g2d, elapsedSeconds, screenWidth);
+        }
+        LAYER.draw(g2d, layerX, TOP_MARGIN - LAYER_PAD);
+    }
+
+    // Draws the time into the timer's layer
+    private void render(Graphics2D screen, long elapsedSeconds, int screenWidth) {
+        renderedSeconds = elapsedSeconds;
+        renderedWidth = screenWidth;
+
         // Calculate elapsed time in hours, minutes, and seconds
-        long elapsedMillis = getElapsedTimeMillis();
-        long seconds = (elapsedMillis / 1000) % 60;
-        long minutes = (elapsedMillis / (1000 * 60)) % 60;
-        long hours = elapsedMillis / (1000 * 60 * 60);
+        long seconds = elapsedSeconds % 60;
+        long minutes = (elapsedSeconds / 60) % 60;
+        long hours = elapsedSeconds / (60 * 60);
 
         // Format the time string based on whether hours are present
         String timeString;
@@ -70,13 +91,15 @@ public class GameTimer {
             timeString = minutes + ":" + TIME_FORMAT.format(seconds);
         }
 
-        g2d.setFont(TIMER_FONT); // Set the font for the timer text
-
         // Calculate the position of the timer text (top-right corner)
-        FontMetrics fm = g2d.getFontMetrics();
+        FontMetrics fm = screen.getFontMetrics(TIMER_FONT);
         int textWidth = fm.stringWidth(timeString);
-        int textX = screenWidth - textWidth - RIGHT_MARGIN;
-        int textY = TOP_MARGIN + fm.getAscent();
+        layerX = screenWidth - textWidth - RIGHT_MARGIN - LAYER_PAD;
+        int textX = LAYER_PAD;
+        int textY = LAYER_PAD + fm.getAscent();
+
+        Graphics2D g2d = LAYER.begin(textWidth + 2 * LAYER_PAD + 2, fm.getHeight() + 2 * LAYER_PAD + 2);
+        g2d.setFont(TIMER_FONT); // Set the font for the timer text
 
         // Draw a shadow for the text to improve visibility
         g2d.setColor(SHADOW_COLOR);
@@ -85,5 +108,6 @@ public class GameTimer {
         // Draw the timer text
         g2d.setColor(TEXT_COLOR);
         g2d.drawString(timeString, textX, textY);
+        g2d.dispose();
     }
 }
@@ -0,0 +1,175 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class bakes the digits used by damage numbers, glow and shadow included, into one
+* image at a few sizes, so drawing a number is a handful of image copies instead of many drawString calls
+*/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public final class GlyphAtlas {
+    // Font sizes the digits are baked at; numbers snap to the closest one
+    private static final float[] SIZES = { 21.6f, 25.2f, 28.8f, 32.4f, 36f };
+    // Space around each glyph for the glow and shadow passes
+    private static final int PAD = 4;
+    // Colors and pass strengths matching the old drawString passes, relative to
+    // the number's own alpha
+    private static final Color TEXT_COLOR = new Color(255, 80, 120);
+    private static final Color GLOW_COLOR = new Color(255, 200, 200, 80);
+    private static final Color SHADOW_COLOR = new Color(40, 10, 30, 200);
+    private static final float GLOW_STRENGTH = 0.6f;
+    private static final float SHADOW_STRENGTH = 0.8f;
+
+    private static volatile GlyphAtlas instance;
+
+    // Name of the font the digits were baked from
+    private final String fontName;
+    // The atlas image. Each size has two rows of ten digits: the glow and shadow
+    // layer, then the text layer, so whole numbers can lay one under the other
+    private final BufferedImage image;
+    // Per size: width of a digit cell, height of a row, top of its glow row,
+    // ascent, and the advance of each digit
+    private final int[] cellWidth = new int[SIZES.length];
+    private final int[] rowHeight = new int[SIZES.length];
+    private final int[] rowTop = new int[SIZES.length];
+    private final int[] ascent = new int[SIZES.length];
+    private final int[][] advance = new int[SIZES.length][10];
+    // Views into the atlas for each size, layer and digit, so drawing one is a
+    // plain unscaled copy
+    private final BufferedImage[][][] glyphs = new BufferedImage[SIZES.length][2][10];
+
+    // Returns the shared atlas for the given base font, the font of the graphics
+    // context the numbers are drawn on. It is baked on first use and baked again
+    // if the base font changes
+    public static GlyphAtlas get(Font base) {
+        GlyphAtlas atlas = instance;
+        if (atlas == null || !atlas.fontName.equals(base.getName())) {
+            synchronized (GlyphAtlas.class) {
+                atlas = instance;
+                if (atlas == null || !atlas.fontName.equals(base.getName())) {
+                    instance = atlas = new GlyphAtlas(base);
+                }
+            }
+        }
+        return atlas;
+    }
+
+    private GlyphAtlas(Font base) {
+        fontName = base.getName();
+        // Measure every size first to find how big the image has to be
+        Graphics2D probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        Font[] fonts = new Font[SIZES.length];
+        int width = 0, height = 0;
+        for (int s = 0; s < SIZES.length; s++) {
+            // Derived the same way the old drawString passes derived theirs
+            fonts[s] = base.deriveFont(Font.BOLD, SIZES[s]);
+            FontMetrics metrics = probe.getFontMetrics(fonts[s]);
+            int widest = 0;
+            for (int d = 0; d < 10; d++) {
+                advance[s][d] = metrics.charWidth((char) ('0' + d));
+                widest = Math.max(widest, advance[s][d]);
+            }
+            cellWidth[s] = widest + PAD * 2;
+            rowHeight[s] = metrics.getAscent() + metrics.getDescent() + PAD * 2;
+            ascent[s] = metrics.getAscent();
+            rowTop[s] = height;
+            height += rowHeight[s] * 2;
+            width = Math.max(width, cellWidth[s] * 10);
+        }
+        probe.dispose();
+
+        image = EffectAtlas.createTranslucentImage(width, height);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        for (int s = 0; s < SIZES.length; s++) {
+            g.setFont(fonts[s]);
+            for (int d = 0; d < 10; d++) {
+                String digit = String.valueOf((char) ('0' + d));
+                int x = d * cellWidth[s] + PAD;
+                int glowY = rowTop[s] + PAD + ascent[s];
+                int textY = glowY + rowHeight[s];
+
+                // Outer glow, the same twelve offsets the old passes used
+                g.setComposite(AlphaComposite.SrcOver.derive(GLOW_STRENGTH));
+                g.setColor(GLOW_COLOR);
+                for (int i = 1; i <= 3; i++) {
+                    g.drawString(digit, x - i, glowY - i);
+                    g.drawString(digit, x + i, glowY - i);
+                    g.drawString(digit, x - i, glowY + i);
+                    g.drawString(digit, x + i, glowY + i);
+                }
+                // Drop shadow
+                g.setComposite(AlphaComposite.SrcOver.derive(SHADOW_STRENGTH));
+                g.setColor(SHADOW_COLOR);
+                for (int i = 1; i <= 2; i++) {
+                    g.drawString(digit, x + i, glowY + i);
+                }
+                // Main text
+                g.setComposite(AlphaComposite.SrcOver);
+                g.setColor(TEXT_COLOR);
+                g.drawString(digit, x, textY);
+            }
+        }
+        g.dispose();
+
+        for (int s = 0; s < SIZES.length; s++) {
+            for (int layer = 0; layer < 2; layer++) {
+                for (int d = 0; d < 10; d++) {
+                    glyphs[s][layer][d] = image.getSubimage(d * cellWidth[s], rowTop[s] + layer * rowHeight[s],
+                            cellWidth[s], rowHeight[s]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a non-negative number centred on x with its baseline at y.
+     *
+     * @param g        The graphics context
+     * @param value    The number to draw
+     * @param x        The x coordinate of the number's center
+     * @param y        The y coordinate of the baseline
+     * @param fontSize The font size wanted; the closest baked size is used
+     * @param alpha    The opacity of the whole number
+     */
+    public void drawNumber(Graphics2D g, int value, int x, int y, float fontSize, float alpha) {
+        int s = closestSize(fontSize);
+        int number = Math.max(0, value);
+        // Place value of the leading digit; digits are read off most significant first
+        int lead = 1;
+        while (number / lead >= 10) {
+            lead *= 10;
+        }
+        int width = 0;
+        for (int place = lead; place > 0; place /= 10) {
+            width += advance[s][number / place % 10];
+        }
+
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.SrcOver.derive(alpha));
+        int left = x - width / 2 - PAD;
+        int top = y - ascent[s] - PAD;
+        // Glow and shadow under every digit first, then the text on top
+        for (int layer = 0; layer < 2; layer++) {
+            int penX = left;
+            for (int place = lead; place > 0; place /= 10) {
+                int digit = number / place % 10;
+                g.drawImage(glyphs[s][layer][digit], penX, top, null);
+                penX += advance[s][digit];
+            }
+        }
+        g.setComposite(composite);
+    }
+
+    // Index of the baked size nearest the given font size
+    private static int closestSize(float fontSize) {
+        int best = 0;
+        for (int s = 1; s < SIZES.length; s++) {
+            if (Math.abs(SIZES[s] - fontSize) < Math.abs(SIZES[best] - fontSize)) {
+                best = s;
+            }
+        }
+        return best;
+    }
+}
@@ -12,6 +12,15 @@ public class HealthBar {
     private static final int BAR_WIDTH = 80; // Width of the health bar
     private static final int BAR_HEIGHT = 10; // Height of the health bar
     private static final int Y_OFFSET = 15; // Distance below the player
+    private static final int ARC = 10; // Rounded corner radius
+    private static final int SHADOW_OFFSET = 3; // Shadow offset
+    private static final Color SHADOW_COLOR = new Color(0, 0, 0, 80); // Shadow color
+
+    // Cached image of the bar, the space kept around it for the border, and the
+    // filled width it was last drawn with
+    private static final int LAYER_PAD = 2;
+    private final HudLayer LAYER = new HudLayer();
+    private int renderedFill = -1;
 
     // Reference to the player whose health is being displayed
     private final Player PLAYER;
@@ -26,12 +35,9 @@ public class HealthBar {
         this.PLAYER = player;
     }
 
-    // Method to draw the health bar
+    // Method to draw the health bar below the player, redrawing its layer only
+    // when the filled width changes
     public void draw(Graphics2D g2d) {
-        // Enable anti-aliasing for smoother rendering
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON);
-
         // Compute the position of the health bar centered below the player
         int barX = (int) (PLAYER.getX() + PLAYER.getWidth() / 2.0 - BAR_WIDTH / 2.0);
         int barY = (int) (PLAYER.getY() + PLAYER.getHeight() + Y_OFFSET);
@@ -40,34 +46,43 @@ public class HealthBar {
         float fraction = (float) PLAYER.getHp() / PLAYER.getMaxHp();
         fraction = Math.max(0f, Math.min(1f, fraction));
 
-        // Rounded corner radius and shadow offset
-        int arc = 10;
-        int shadowOffset = 3;
-        Color shadowColor = new Color(0, 0, 0, 80); // Shadow color
+        // Calculate the width of the filled portion based on health fraction
+        int fillWidth = (int) (BAR_WIDTH * fraction);
+        if (fillWidth != renderedFill) {
+            render(fillWidth);
+        }
+        LAYER.draw(g2d, barX - LAYER_PAD, barY - LAYER_PAD);
+    }
+
+    // Draws the health bar into its layer
+    private void render(int fillWidth) {
+        renderedFill = fillWidth;
+        int barX = LAYER_PAD;
+        int barY = LAYER_PAD;
+        Graphics2D g2d = LAYER.begin(BAR_WIDTH + SHADOW_OFFSET + 2 * LAYER_PAD,
+                BAR_HEIGHT + SHADOW_OFFSET + 2 * LAYER_PAD);
 
         // Draw shadow for the health bar
-        g2d.setColor(shadowColor);
-        g2d.fillRoundRect(barX + shadowOffset,
-                barY + shadowOffset,
+        g2d.setColor(SHADOW_COLOR);
+        g2d.fillRoundRect(barX + SHADOW_OFFSET,
+                barY + SHADOW_OFFSET,
                 BAR_WIDTH,
                 BAR_HEIGHT,
-                arc, arc);
+                ARC, ARC);
 
         // Draw the background track of the health bar
         RoundRectangle2D track = new RoundRectangle2D.Float(
-                barX, barY, BAR_WIDTH, BAR_HEIGHT, arc, arc);
+                barX, barY, BAR_WIDTH, BAR_HEIGHT, ARC, ARC);
         g2d.setColor(BACKGROUND_COLOR.darker());
         g2d.fill(track);
 
-        // Calculate the width of the filled portion based on health fraction
-        int fillWidth = (int) (BAR_WIDTH * fraction);
         if (fillWidth > 0) {
             // Create a gradient for the health fill
             GradientPaint grad = new GradientPaint(
                     barX, barY, HEALTH_COLOR.brighter(),
                     barX, barY + BAR_HEIGHT, HEALTH_COLOR.darker());
             g2d.setPaint(grad);
-            g2d.fillRoundRect(barX, barY, fillWidth, BAR_HEIGHT, arc, arc);
+            g2d.fillRoundRect(barX, barY, fillWidth, BAR_HEIGHT, ARC, ARC);
         }
 
         // Add a glossy effect to the health bar
@@ -76,14 +91,12 @@ public class HealthBar {
                 barX, barY, new Color(255, 255, 255, 180),
                 barX, barY + glossHeight, new Color(255, 255, 255, 30));
         g2d.setPaint(gloss);
-        g2d.fillRoundRect(barX, barY, BAR_WIDTH, glossHeight + arc / 2, arc, arc);
+        g2d.fillRoundRect(barX, barY, BAR_WIDTH, glossHeight + ARC / 2, ARC, ARC);
 
         // Draw the border of the health bar
         g2d.setColor(BORDER_COLOR);
         g2d.setStroke(new BasicStroke(2f));
         g2d.draw(track);
-
-        // Reset the paint to default
-        g2d.setPaint(null);
+        g2d.dispose();
     }
 }
@@ -8,8 +8,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.*;
 import java.io.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 public class HowToPlayScreen extends JPanel {
@@ -57,11 +57,50 @@ public class HowToPlayScreen extends JPanel {
             )
     };
 
+    // Icon files in the bordered sprites folder for each row of the icon page
+    private static final String[] MONSTER_ICONS = {
+            "shadeling.png",
+            "gloomspawn.png",
+            "vampire_bats.png",
+            "shadow_walker.png",
+            "obsidian_maw.png",
+            "withering_wraith.png",
+            "midnight_abyss.png",
+            "chaos_demon.png"
+    };
+
+    private static final String[] BOSS_ICONS = {
+            "void_titan.png",
+            "eclipse_harbinger.png",
+            "mist_stalker.png",
+            "night_devourer.png",
+            "anthonys_wrath.png"
+    };
+
+    private static final String[] SKILL_ICONS = {
+            "luminous_pulse.png",
+            "light_lance.png",
+            "photon_orbs.png",
+            "angelic_summons.png",
+            "starfall_ritual.png"
+    };
+
+    private static final String[] SUPER_ICONS = {
+            "solar_flare.png",
+            "prismatic_ray.png",
+            "celestial_constellation.png",
+            "archangel.png",
+            "cosmic_cataclysm.png"
+    };
+
     private final GamePanel PARENT; // Reference to the parent game panel
     private final Font UI_FONT; // Font used for UI elements
     private final JLabel TITLE_LABEL, TEXT_LABEL; // Labels for the title and text content
     private final GameButton PREV_BTN, NEXT_BTN, BACK_BTN; // Navigation buttons
-    private BufferedImage bgImage; // Background image for the screen
+    static final String BACKGROUND_PATH = "/assets/images/backgrounds/instructionsbg.png"; // Background image file
+    static final String ICON_DIR = "/assets/images/bordered_sprites/"; // Folder of the bordered icons
+    static final int ICON_SIZE = 64; // Width and height the icons are shown at
+    private ScreenBackground bgImage; // Faded background image for the screen
     private int pageIndex = 0; // Current page index
 
     // Constructor to initialize the "How To Play" screen
@@ -107,14 +146,32 @@ public class HowToPlayScreen extends JPanel {
 
     // Loads the background image for the screen
     private void loadBackground() {
-        try {
-            bgImage = ImageIO.read(
-                    getClass().getResourceAsStream("/assets/images/backgrounds/instructionsbg.png"));
-        } catch (IOException e) {
-            bgImage = null;
+        CompletableFuture<BufferedImage> image = AssetPreloader.image(BACKGROUND_PATH, GamePanel.GAME_WIDTH,
+                GamePanel.GAME_HEIGHT);
+        image.thenRun(this::repaint);
+        bgImage = new ScreenBackground(image, 0.5f);
+    }
+
+    // Starts loading every icon in the background, so the icon page is ready
+    // by the time it is opened
+    static void preloadIcons() {
+        for (String[] icons : new String[][] { MONSTER_ICONS, BOSS_ICONS, SKILL_ICONS, SUPER_ICONS }) {
+            for (String icon : icons) {
+                AssetPreloader.animation(new String[] { ICON_DIR + icon }, ICON_SIZE, ICON_SIZE);
+            }
         }
     }
 
+    // Loads a bordered icon at the given size through the sprite cache, waiting
+    // for the preloader if it is still decoding it
+    private static BufferedImage loadIcon(String path, int size) throws IOException {
+        SpriteAtlas.Animation icon = AssetPreloader.await(AssetPreloader.animation(new String[] { path }, size, size));
+        if (icon == null) {
+            throw new IOException("Could not load " + path);
+        }
+        return icon.getFrame(0, false);
+    }
+
     // Creates a navigation button with the specified text and action listener
     private GameButton makeNav(String text, ActionListener al) {
         GameButton b = new GameButton(text);
@@ -176,7 +233,7 @@ public class HowToPlayScreen extends JPanel {
     // Displays the icon grid for monsters, bosses, and skills
     private void showIconGrid() {
         int gap = 16;
-        int size = 64;
+        int size = ICON_SIZE;
 
         String[] monsterNames = {
                 "Shadeling", "Gloomspawn", "Vampire Bats", "Shadow Walker",
@@ -217,41 +274,6 @@ public class HowToPlayScreen extends JPanel {
                 "Shoots omni-directional projectiles of starlight regularly.<br><br>Level 9: \"cosmic cataclysm\" - massive light meteor showers down on mouse every 5 seconds."
 
         };
-        String[] monsterIcons = {
-                "shadeling.png",
-                "gloomspawn.png",
-                "vampire_bats.png",
-                "shadow_walker.png",
-                "obsidian_maw.png",
-                "withering_wraith.png",
-                "midnight_abyss.png",
-                "chaos_demon.png"
-        };
-
-        String[] bossIcons = {
-                "void_titan.png",
-                "eclipse_harbinger.png",
-                "mist_stalker.png",
-                "night_devourer.png",
-                "anthonys_wrath.png"
-        };
-
-        String[] skillIcons = {
-                "luminous_pulse.png",
-                "light_lance.png",
-                "photon_orbs.png",
-                "angelic_summons.png",
-                "starfall_ritual.png"
-        };
-
-        String[] superIcons = {
-                "solar_flare.png",
-                "prismatic_ray.png",
-                "celestial_constellation.png",
-                "archangel.png",
-                "cosmic_cataclysm.png"
-        };
-
         JPanel container = new JPanel();
         container.setLayout(new BoxLayout(container, BoxLayout.Y_AXIS));
         container.setOpaque(false);
@@ -282,17 +304,16 @@ public class HowToPlayScreen extends JPanel {
 
                 String imagePath = null;
                 if (names == monsterNames) {
-                    imagePath = "/assets/images/bordered_sprites/" + monsterIcons[i];
+                    imagePath = ICON_DIR + MONSTER_ICONS[i];
                 } else if (names == bossNames) {
-                    imagePath = "/assets/images/bordered_sprites/" + bossIcons[i];
+                    imagePath = ICON_DIR + BOSS_ICONS[i];
                 } else if (names == skillNames) {
-                    imagePath = "/assets/images/bordered_sprites/" + skillIcons[i];
+                    imagePath = ICON_DIR + SKILL_ICONS[i];
                 }
 
                 try {
                     if (imagePath != null) {
-                        BufferedImage img = ImageIO.read(getClass().getResourceAsStream(imagePath));
-                        icon.setIcon(new ImageIcon(img.getScaledInstance(size, size, Image.SCALE_SMOOTH)));
+                        icon.setIcon(new ImageIcon(loadIcon(imagePath, size)));
                     } else {
                         throw new IOException("No image path specified");
                     }
@@ -323,9 +344,8 @@ public class HowToPlayScreen extends JPanel {
                     superIcon.setPreferredSize(new Dimension(size, size));
 
                     try {
-                        String superImagePath = "/assets/images/bordered_sprites/" + superIcons[i];
-                        BufferedImage img = ImageIO.read(getClass().getResourceAsStream(superImagePath));
-                        superIcon.setIcon(new ImageIcon(img.getScaledInstance(size, size, Image.SCALE_SMOOTH)));
+                        String superImagePath = ICON_DIR + SUPER_ICONS[i];
+                        superIcon.setIcon(new ImageIcon(loadIcon(superImagePath, size)));
                     } catch (Exception e) {
                         BufferedImage placeholderImg = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
                         Graphics2D g2d = placeholderImg.createGraphics();
@@ -377,11 +397,8 @@ public class HowToPlayScreen extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (bgImage != null) {
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setComposite(AlphaComposite.SrcOver.derive(0.5f));
-            g2.drawImage(bgImage, 0, 0, getWidth(), getHeight(), null);
-            g2.dispose();
-        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        bgImage.draw(g2, getWidth(), getHeight());
+        g2.dispose();
     }
 }
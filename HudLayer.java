@@ -0,0 +1,40 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class holds the last drawn image of one HUD widget. Widgets only redraw it when the
+* values they show change, and otherwise just copy it onto the screen
+*/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class HudLayer {
+    private BufferedImage image; // The widget as last drawn, or null before the first draw
+
+    /**
+     * Starts redrawing the layer at the given size. The old contents are cleared,
+     * and the image is only replaced when the size changes.
+     *
+     * @param width  The layer width
+     * @param height The layer height
+     * @return A graphics context for the layer, to be disposed by the caller
+     */
+    public Graphics2D begin(int width, int height) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = EffectAtlas.createTranslucentImage(width, height);
+        }
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g;
+    }
+
+    // Copies the layer onto the screen with its top left corner at x, y
+    public void draw(Graphics2D g, int x, int y) {
+        if (image != null) {
+            g.drawImage(image, x, y, null);
+        }
+    }
+}
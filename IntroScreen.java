@@ -7,8 +7,7 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.*;
-import java.io.*;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class IntroScreen extends JPanel {
@@ -34,8 +33,12 @@ public class IntroScreen extends JPanel {
     // JLabel for displaying the lore text.
     private final JLabel lore_label;
 
-    // Background image for the intro screen.
-    private BufferedImage background_image;
+    // Background image for the intro screen, and where it is loaded from.
+    static final String BACKGROUND_PATH = "/assets/images/backgrounds/introbg.jpg";
+    private ScreenBackground background_image;
+
+    // Repaints the loading bar until every preloaded asset is in.
+    private final Timer progress_timer;
 
     // Index of the currently displayed lore text.
     private int index;
@@ -79,16 +82,23 @@ public class IntroScreen extends JPanel {
         loadBackground(); // Load the background image.
         setupButtons(); // Set up navigation buttons.
         refreshContent(); // Display the initial content.
+
+        progress_timer = new Timer(40, e -> {
+            repaint();
+            if (AssetPreloader.isDone()) {
+                ((Timer) e.getSource()).stop(); // Stop once the bar is full.
+            }
+        });
+        progress_timer.start();
     }
 
     // Loads the background image for the intro screen.
     private void loadBackground() {
-        try {
-            background_image = ImageIO.read(
-                    getClass().getResourceAsStream("/assets/images/backgrounds/introbg.jpg"));
-        } catch (IOException e) {
-            background_image = null; // Set to null if the image cannot be loaded.
-        }
+        // Loaded in the background already screen-sized; repaint once it arrives.
+        CompletableFuture<BufferedImage> image = AssetPreloader.image(BACKGROUND_PATH, GamePanel.GAME_WIDTH,
+                GamePanel.GAME_HEIGHT);
+        image.thenRun(this::repaint);
+        background_image = new ScreenBackground(image, 0.5f); // Drawn at 50% opacity.
     }
 
     // Sets up the navigation buttons (Back, Next, Skip) for the intro screen.
@@ -172,18 +182,33 @@ public class IntroScreen extends JPanel {
         lore_label.setBounds((w - ld.width) / 2, h / 2 - ld.height / 2, ld.width, ld.height);
     }
 
-    // Paints the background image and applies transparency.
+    // Paints the background image and applies transparency, plus a loading bar
+    // while assets are still being preloaded.
     @Override
     protected void paintComponent(Graphics g) {
+        AssetPreloader.reportFirstFrame(); // Log the time to the first frame.
         Graphics2D g2 = (Graphics2D) g.create();
-        if (background_image != null) {
-            g2.setComposite(AlphaComposite.SrcOver.derive(0.5f)); // Apply transparency to the background image.
-            g2.drawImage(background_image, 0, 0, getWidth(), getHeight(), null); // Draw the background image.
+        background_image.draw(g2, getWidth(), getHeight()); // Draw the faded background image.
+        if (!AssetPreloader.isDone()) {
+            int barW = 400, barH = 6; // Loading bar size.
+            int barX = (getWidth() - barW) / 2;
+            int barY = getHeight() - 30;
+            g2.setColor(new Color(255, 255, 255, 60)); // Track.
+            g2.fillRect(barX, barY, barW, barH);
+            g2.setColor(new Color(137, 100, 255)); // Filled part, in the title's purple.
+            g2.fillRect(barX, barY, Math.round(barW * AssetPreloader.getProgress()), barH);
         }
         g2.dispose();
         super.paintComponent(g); // Call the superclass's paintComponent method.
     }
 
+    // Stops the loading bar timer once the screen is taken off the window.
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        progress_timer.stop();
+    }
+
     // Invalidates the panel and repositions components when the layout changes.
     @Override
     public void invalidate() {
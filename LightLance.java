@@ -27,6 +27,15 @@ public class LightLance extends Skill {
     static final Color GLOW_COLOR = new Color(100, 150, 255, 100);
     static final Color CHARGE_COLOR = new Color(200, 220, 255);
 
+    // Particle glows, pre-rendered as the part of each old gradient that the
+    // filled disc showed, so the last stop is where the disc's edge cut it off
+    static final EffectAtlas.Glow CHARGE_GLOW = EffectAtlas.radial(64, new float[] { 0f, 1f },
+            new Color[] { new Color(255, 255, 255, 200), new Color(235, 241, 255, 120) });
+    static final EffectAtlas.Glow BEAM_OUTER_GLOW = EffectAtlas.radial(64, new float[] { 0f, 1f },
+            new Color[] { new Color(180, 210, 255, 60), new Color(159, 194, 255, 44) });
+    static final EffectAtlas.Glow BEAM_MAIN_GLOW = EffectAtlas.radial(64, new float[] { 0f, 1f },
+            new Color[] { new Color(255, 255, 255, 220), new Color(192, 218, 255, 173) });
+
     final CopyOnWriteArrayList<BeamParticle> particles = new CopyOnWriteArrayList<>();
     final CopyOnWriteArrayList<ImpactEffect> impacts = new CopyOnWriteArrayList<>();
 
@@ -41,7 +50,7 @@ public class LightLance extends Skill {
     final Random rng = new Random();
 
     final Line2D.Float beam_line = new Line2D.Float();
-    final List<Enemy> hit_enemies = new ArrayList<>();
+    final List<Integer> hit_enemies = new ArrayList<>(); // Handles of enemies hit by the last beam
 
     public LightLance(Player owner) {
         super("Light Lance", 1, (int) COOLDOWN_MS, false);
@@ -103,6 +112,8 @@ public class LightLance extends Skill {
         // Variables removed since they were unused
         hit_enemies.clear();
         for (Enemy enemy : enemies) {
+            if (!canHit(enemy))
+                continue;
             Rectangle2D bounds = new Rectangle2D.Double(enemy.getX(), enemy.getY(), enemy.getWidth(),
                     enemy.getHeight());
             boolean hit = beam_line.intersects(bounds);
@@ -121,7 +132,7 @@ public class LightLance extends Skill {
             if (hit) {
                 int dmg = BASE_DAMAGE + (getLevel() - 1) * DAMAGE_PER_LEVEL;
                 enemy.takeDamage(dmg);
-                hit_enemies.add(enemy);
+                hit_enemies.add(enemy.getHandle());
                 Point2D impact = getIntersectionPoint(beam_line, bounds);
                 if (impact == null)
                     impact = new Point2D.Double(enemy.getCenterX(), enemy.getCenterY());
@@ -239,12 +250,14 @@ public class LightLance extends Skill {
         }
     }
 
-    public void draw(Graphics2D g) {
+    public void draw(Framebuffer frame) {
         if (firing)
-            drawBeam(g);
+            drawBeam(frame.getGraphics());
         for (BeamParticle p : particles)
             if (p.type == BeamParticle.Type.BEAM)
-                p.draw(g);
+                p.draw(frame);
+        // Taken again so the particles above are drawn under the impacts
+        Graphics2D g = frame.getGraphics();
         for (ImpactEffect imp : impacts)
             imp.draw(g);
     }
@@ -368,53 +381,31 @@ public class LightLance extends Skill {
             return life <= 0;
         }
 
-        void draw(Graphics2D g) {
+        void draw(Framebuffer frame) {
             float alpha = Math.max(0.0f, Math.min(1f, life / max_life));
             if (type == Type.CHARGE)
-                drawCharge(g, alpha);
+                drawCharge(frame, alpha);
             else
-                drawBeam(g, alpha);
+                drawBeam(frame, alpha);
         }
 
-        void drawCharge(Graphics2D g, float alpha) {
-            Graphics2D p = (Graphics2D) g.create();
-            p.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.min(alpha * 0.8f, 1f)));
-            RadialGradientPaint paint = new RadialGradientPaint((float) x, (float) y, size * 2.5f,
-                    new float[] { 0f, 1f },
-                    new Color[] { new Color(255, 255, 255, Math.min(255, Math.max(0, (int) (200 * alpha)))),
-                            new Color(200, 220, 255, 0) });
-            p.setPaint(paint);
-            float d = size * 2f;
-            p.fill(new Ellipse2D.Float((float) (x - d / 2), (float) (y - d / 2), d, d));
-            p.setColor(CHARGE_COLOR);
-            p.fill(new Ellipse2D.Float((float) (x - size / 2), (float) (y - size / 2), size, size));
-            p.dispose();
+        // The glows go on the glow layer and the cores above them, so every
+        // particle's glow sits under every core
+        void drawCharge(Framebuffer frame, float alpha) {
+            CHARGE_GLOW.draw(frame, Framebuffer.LAYER_GLOW, x, y, size, Math.min(alpha * 0.8f, 1f) * alpha);
+            frame.fillCircle(Framebuffer.LAYER_PARTICLE, (float) x, (float) y, size / 2,
+                    Framebuffer.withAlpha(CHARGE_COLOR, Math.min(alpha * 0.8f, 1f)), Framebuffer.Blend.ALPHA);
         }
 
-        void drawBeam(Graphics2D g, float alpha) {
-            Graphics2D p = (Graphics2D) g.create();
+        void drawBeam(Framebuffer frame, float alpha) {
             float safe_alpha = Math.max(0.0f, Math.min(alpha * 0.9f, 1f));
-            p.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, safe_alpha));
-            RadialGradientPaint outer = new RadialGradientPaint((float) x, (float) y, size * 4f,
-                    new float[] { 0f, 0.7f, 1f },
-                    new Color[] { new Color(180, 210, 255, Math.min(255, Math.max(0, (int) (60 * alpha)))),
-                            new Color(140, 180, 255, Math.min(255, Math.max(0, (int) (30 * alpha)))),
-                            new Color(120, 160, 255, 0) });
-            p.setPaint(outer);
-            float outer_d = size * 3f;
-            p.fill(new Ellipse2D.Float((float) (x - outer_d / 2), (float) (y - outer_d / 2), outer_d, outer_d));
-            p.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, safe_alpha));
-            RadialGradientPaint main = new RadialGradientPaint((float) x, (float) y, size * 3f,
-                    new float[] { 0f, 0.5f, 1f },
-                    new Color[] { new Color(255, 255, 255, Math.min(255, Math.max(0, (int) (220 * alpha)))),
-                            new Color(160, 200, 255, Math.min(255, Math.max(0, (int) (150 * alpha)))),
-                            new Color(120, 180, 255, 0) });
-            p.setPaint(main);
-            float d = size * 2f;
-            p.fill(new Ellipse2D.Float((float) (x - d / 2), (float) (y - d / 2), d, d));
-            p.setColor(new Color(255, 255, 255, Math.min(255, Math.max(0, (int) (240 * alpha)))));
-            p.fill(new Ellipse2D.Float((float) (x - size / 4), (float) (y - size / 4), size / 2, size / 2));
-            p.dispose();
+            // The glows' colors fade with the particle too, so it goes into their opacity
+            float glowOpacity = safe_alpha * Math.min(1f, alpha);
+            BEAM_OUTER_GLOW.draw(frame, Framebuffer.LAYER_GLOW, x, y, size * 1.5f, glowOpacity);
+            BEAM_MAIN_GLOW.draw(frame, Framebuffer.LAYER_GLOW, x, y, size, glowOpacity);
+            Color core = new Color(255, 255, 255, Math.min(255, Math.max(0, (int) (240 * alpha))));
+            frame.fillCircle(Framebuffer.LAYER_PARTICLE, (float) x, (float) y, size / 4,
+                    Framebuffer.withAlpha(core, safe_alpha), Framebuffer.Blend.ALPHA);
         }
     }
 
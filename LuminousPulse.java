@@ -5,7 +5,6 @@
 */
 
 import java.awt.*;
-import java.awt.geom.*;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -25,15 +24,38 @@ public class LuminousPulse extends Skill { // Core mechanics
     private static final Color COL_PULSE_BRIGHT = new Color(160, 80, 255, 180);
     private static final Color COL_PULSE_DIM = new Color(100, 40, 180, 80);
     private static final Color COL_PARTICLE = new Color(220, 160, 255, 220);
-    private static final Color COL_DAMAGE_TEXT = new Color(255, 120, 150);
-    private static final Color COL_DAMAGE_SHADOW = new Color(60, 20, 40, 180);
+
+    private static final Color COL_SHIMMER = new Color(255, 255, 255, 100);
+    private static final Color COL_SPARKLE = new Color(255, 200, 255, 180);
+    // Corners of the sparkle star around its center, before turning and scaling
+    private static final float[] SPARKLE_X = { 0, -2, -6, -2, 0, 2, 6, 2 };
+    private static final float[] SPARKLE_Y = { -6, -2, 0, 2, 6, 2, 0, -2 };
+
+    // Pre-rendered glows and rings, baked once from the gradients they replace
+    private static final EffectAtlas.Glow CORE_AURA = EffectAtlas.radial(128,
+            new float[] { 0f, 0.6f, 1f },
+            new Color[] { COL_CORE_INNER, COL_CORE_OUTER, new Color(120, 60, 200, 0) });
+    private static final EffectAtlas.Glow PULSE_FIELD = EffectAtlas.radial(256,
+            new float[] { 0f, 0.4f, 0.8f, 1f },
+            new Color[] { new Color(140, 80, 200, 60), new Color(100, 60, 160, 40), new Color(80, 40, 120, 20),
+                    new Color(80, 40, 120, 0) });
+    private static final EffectAtlas.Glow RING_FILL = EffectAtlas.radial(256,
+            new float[] { 0.5f, 0.8f, 1f },
+            new Color[] { COL_PULSE_DIM, new Color(140, 70, 220, 100), new Color(100, 50, 200, 0) });
+    private static final EffectAtlas.Glow RING_RIPPLE = EffectAtlas.radial(128,
+            new float[] { 0f, 1f },
+            new Color[] { COL_PULSE_BRIGHT, new Color(180, 90, 255, 0) });
+    private static final BasicStroke RING_STROKE = new BasicStroke(
+            4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND,
+            12f, new float[] { 12f, 8f }, 0f); // Modernized dash pattern for a premium look
+    private static final EffectAtlas.Ring RING_BRIGHT = EffectAtlas.ring(COL_PULSE_BRIGHT, RING_STROKE);
+    private static final EffectAtlas.Ring RING_DIM = EffectAtlas.ring(COL_PULSE_DIM, RING_STROKE);
 
     private static final Random RNG = new Random();
 
     // Visual effect collections
     private final CopyOnWriteArrayList<PulseRing> rings = new CopyOnWriteArrayList<>();
     private final CopyOnWriteArrayList<LightParticle> particles = new CopyOnWriteArrayList<>();
-    private final CopyOnWriteArrayList<DamageNumber> damageNumbers = new CopyOnWriteArrayList<>();
     private final CopyOnWriteArrayList<AuraSparkle> sparkles = new CopyOnWriteArrayList<>();
 
     // Animation state
@@ -85,7 +107,7 @@ public class LuminousPulse extends Skill { // Core mechanics
 
     private void applyDamageAndSlow(List<Enemy> enemies) {
         for (Enemy enemy : enemies) {
-            if (enemy.isDead())
+            if (enemy.isDead() || !canHit(enemy))
                 continue;
 
             double dx = enemy.getCenterX() - owner.getCenterX();
@@ -95,12 +117,6 @@ public class LuminousPulse extends Skill { // Core mechanics
                 int damage = BASE_DMG + (getLevel() - 1) * DMG_PER_LVL;
                 enemy.takeDamage(damage);
 
-                // Create enhanced damage number
-                damageNumbers.add(new DamageNumber(
-                        (int) enemy.getCenterX(),
-                        (int) enemy.getCenterY() - 20,
-                        damage));
-
                 // We don't need additional velocity reduction since the takeDamage() method now
                 // handles this
 
@@ -110,26 +126,15 @@ public class LuminousPulse extends Skill { // Core mechanics
         }
     }
 
-    public void draw(Graphics2D g) {
-        Composite originalComposite = g.getComposite();
-        Stroke originalStroke = g.getStroke();
-        RenderingHints originalHints = g.getRenderingHints();
-
-        // Enable anti-aliasing for smoother visuals
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-        drawCoreAura(g);
-        drawPulseField(g);
-        drawVisualEffects(g);
-
-        // Restore original graphics state
-        g.setComposite(originalComposite);
-        g.setStroke(originalStroke);
-        g.setRenderingHints(originalHints);
+    public void draw(Framebuffer frame) {
+        // Everything is a direct framebuffer draw, so no graphics state is
+        // changed and the layers keep the aura under the rings and sparkles
+        drawCoreAura(frame);
+        drawPulseField(frame);
+        drawVisualEffects(frame);
     }
 
-    private void drawCoreAura(Graphics2D g) {
+    private void drawCoreAura(Framebuffer frame) {
         float centerX = (float) owner.getCenterX();
         float centerY = (float) owner.getCenterY();
 
@@ -139,61 +144,35 @@ public class LuminousPulse extends Skill { // Core mechanics
         float finalRadius = AURA_RADIUS * pulseIntensity * breathe;
 
         // Multi-layered core effect
-        g.setComposite(AlphaComposite.SrcOver.derive(0.4f));
-        g.setPaint(new RadialGradientPaint(
-                new Point2D.Float(centerX, centerY),
-                finalRadius,
-                new float[] { 0f, 0.6f, 1f },
-                new Color[] { COL_CORE_INNER, COL_CORE_OUTER, new Color(120, 60, 200, 0) }));
-
-        int radius = (int) finalRadius;
-        g.fillOval((int) (centerX - radius), (int) (centerY - radius),
-                radius * 2, radius * 2);
+        CORE_AURA.draw(frame, Framebuffer.LAYER_GLOW, centerX, centerY, finalRadius, 0.4f);
     }
 
-    private void drawPulseField(Graphics2D g) {
+    private void drawPulseField(Framebuffer frame) {
         float centerX = (float) owner.getCenterX();
         float centerY = (float) owner.getCenterY();
 
         // Outer pulse field with subtle animation
         float fieldPulse = 0.1f * (float) Math.sin(idlePhase * 0.5f) + 0.9f;
 
-        g.setComposite(AlphaComposite.SrcOver.derive(0.15f));
-        g.setPaint(new RadialGradientPaint(
-                new Point2D.Float(centerX, centerY),
-                PULSE_RADIUS * fieldPulse,
-                new float[] { 0f, 0.4f, 0.8f, 1f },
-                new Color[] {
-                        new Color(140, 80, 200, 60),
-                        new Color(100, 60, 160, 40),
-                        new Color(80, 40, 120, 20),
-                        new Color(80, 40, 120, 0)
-                }));
-
-        int fieldRadius = (int) (PULSE_RADIUS * fieldPulse);
-        g.fillOval((int) (centerX - fieldRadius), (int) (centerY - fieldRadius),
-                fieldRadius * 2, fieldRadius * 2);
+        PULSE_FIELD.draw(frame, Framebuffer.LAYER_GLOW, centerX, centerY, PULSE_RADIUS * fieldPulse, 0.15f);
     }
 
-    private void drawVisualEffects(Graphics2D g) {
+    private void drawVisualEffects(Framebuffer frame) {
         // Draw effects in proper z-order
-        sparkles.forEach(sparkle -> sparkle.draw(g));
-        rings.forEach(ring -> ring.draw(g));
-        particles.forEach(particle -> particle.draw(g));
-        damageNumbers.forEach(number -> number.draw(g));
+        sparkles.forEach(sparkle -> sparkle.draw(frame));
+        rings.forEach(ring -> ring.draw(frame));
+        particles.forEach(particle -> particle.draw(frame));
     }
 
     private void updateEffects(float dt) {
         rings.forEach(ring -> ring.update(dt));
         particles.forEach(particle -> particle.update(dt));
-        damageNumbers.forEach(number -> number.update(dt));
         sparkles.forEach(sparkle -> sparkle.update(dt));
     }
 
     private void cleanupDeadEffects() {
         rings.removeIf(PulseRing::isDead);
         particles.removeIf(LightParticle::isDead);
-        damageNumbers.removeIf(DamageNumber::isDead);
         sparkles.removeIf(AuraSparkle::isDead);
     }
 
@@ -277,10 +256,6 @@ public class LuminousPulse extends Skill { // Core mechanics
         private final float delay;
         private float currentDelay;
 
-        private final Stroke dashStroke = new BasicStroke(
-                4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND,
-                12f, new float[] { 12f, 8f }, 0f); // Modernized dash pattern for a premium look
-
         public PulseRing(Type type) {
             this(type, 0f);
         }
@@ -307,7 +282,7 @@ public class LuminousPulse extends Skill { // Core mechanics
             return life <= 0;
         }
 
-        public void draw(Graphics2D g) {
+        public void draw(Framebuffer frame) {
             if (life <= 0 || currentDelay > 0)
                 return;
 
@@ -319,41 +294,24 @@ public class LuminousPulse extends Skill { // Core mechanics
             double centerY = owner.getCenterY();
 
             // Dynamic fill effect with advanced gradient glow
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.5f));
-            g.setPaint(new RadialGradientPaint(
-                    new Point2D.Double(centerX, centerY),
-                    (float) radius,
-                    new float[] { 0.5f, 0.8f, 1f },
-                    new Color[] { COL_PULSE_DIM, new Color(140, 70, 220, 100), new Color(100, 50, 200, 0) }));
-            g.fill(new Ellipse2D.Double(centerX - radius, centerY - radius,
-                    radius * 2, radius * 2));
-
-            // Outer ring with glowing edge
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha));
-            g.setStroke(dashStroke);
-            g.setColor(type == Type.MAIN ? COL_PULSE_BRIGHT : COL_PULSE_DIM);
-            g.draw(new Ellipse2D.Double(centerX - radius, centerY - radius,
-                    radius * 2, radius * 2));
+            RING_FILL.draw(frame, Framebuffer.LAYER_GLOW, centerX, centerY, radius, alpha * 0.5f);
+
+            // Outer ring with glowing edge, on the layer above the fill
+            (type == Type.MAIN ? RING_BRIGHT : RING_DIM).draw(frame, Framebuffer.LAYER_PARTICLE, centerX, centerY,
+                    radius, alpha);
 
             // Inner ripple effect for added depth
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.3f));
-            g.setPaint(new RadialGradientPaint(
-                    new Point2D.Double(centerX, centerY),
-                    (float) radius * 0.6f,
-                    new float[] { 0f, 1f },
-                    new Color[] { COL_PULSE_BRIGHT, new Color(180, 90, 255, 0) }));
-            g.fill(new Ellipse2D.Double(centerX - radius * 0.6, centerY - radius * 0.6,
-                    radius * 1.2, radius * 1.2));
+            RING_RIPPLE.draw(frame, Framebuffer.LAYER_GLOW, centerX, centerY, radius * 0.6, alpha * 0.3f);
 
             // Subtle particle-like shimmer for modern aesthetics
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.2f));
-            g.setColor(new Color(255, 255, 255, 100));
+            int shimmer = Framebuffer.withAlpha(COL_SHIMMER, alpha * 0.2f);
             for (int i = 0; i < 5; i++) {
                 double angle = RNG.nextDouble() * Math.PI * 2;
                 double shimmerRadius = radius * (0.7 + RNG.nextDouble() * 0.3);
                 double shimmerX = centerX + Math.cos(angle) * shimmerRadius;
                 double shimmerY = centerY + Math.sin(angle) * shimmerRadius;
-                g.fill(new Ellipse2D.Double(shimmerX - 2, shimmerY - 2, 4, 4));
+                frame.fillCircle(Framebuffer.LAYER_PARTICLE, (float) shimmerX, (float) shimmerY, 2f, shimmer,
+                        Framebuffer.Blend.ALPHA);
             }
         }
     }
@@ -434,22 +392,20 @@ public class LuminousPulse extends Skill { // Core mechanics
             return life <= 0;
         }
 
-        public void draw(Graphics2D g) {
+        public void draw(Framebuffer frame) {
             float alpha = (float) life / maxLife;
             if (type == Type.IMPACT) {
                 alpha = Math.min(alpha * 2f, 1f); // Brighter initially
             }
-
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha));
-            g.setColor(COL_PARTICLE);
+            int color = Framebuffer.withAlpha(COL_PARTICLE, alpha);
 
             int px = (int) x;
             int py = (int) y;
             int s = (int) size;
 
             // Cross pattern for better visibility
-            g.fillRect(px - s, py - 1, s * 2 + 1, 3);
-            g.fillRect(px - 1, py - s, 3, s * 2 + 1);
+            frame.fillRect(Framebuffer.LAYER_PARTICLE, px - s, py - 1, s * 2 + 1, 3, color, Framebuffer.Blend.ALPHA);
+            frame.fillRect(Framebuffer.LAYER_PARTICLE, px - 1, py - s, 3, s * 2 + 1, color, Framebuffer.Blend.ALPHA);
         }
     }
 
@@ -474,83 +430,23 @@ public class LuminousPulse extends Skill { // Core mechanics
             return life <= 0;
         }
 
-        public void draw(Graphics2D g) {
+        public void draw(Framebuffer frame) {
             float alpha = (float) life / maxLife;
             float scale = 0.5f + 0.5f * (float) Math.sin(Math.PI * (1 - alpha));
 
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.7f));
-            g.setColor(new Color(255, 200, 255, 180));
-
-            AffineTransform oldTransform = g.getTransform();
-            g.translate(x, y);
-            g.rotate(Math.toRadians(rotation));
-            g.scale(scale, scale);
-
-            // Draw sparkle as small star
-            int[] xPoints = { 0, -2, -6, -2, 0, 2, 6, 2 };
-            int[] yPoints = { -6, -2, 0, 2, 6, 2, 0, -2 };
-            g.fillPolygon(xPoints, yPoints, 8);
-
-            g.setTransform(oldTransform);
-        }
-    }
-
-    // Enhanced DamageNumber class with better animations
-    private class DamageNumber {
-        private double x, y;
-        private final int damage;
-        private int life = 40;
-        private final double initialY;
-        private final float hueShift;
-
-        public DamageNumber(int x, int y, int damage) {
-            this.x = x;
-            this.y = this.initialY = y;
-            this.damage = damage;
-            this.hueShift = RNG.nextFloat() * 0.2f - 0.1f; // Slight color variation
-        }
-
-        public void update(float dt) {
-            float progress = 1f - (life / 40f);
-            y = initialY - (80 * progress + 20 * Math.sin(Math.PI * progress));
-            life--;
-        }
-
-        public boolean isDead() {
-            return life <= 0;
-        }
-
-        public void draw(Graphics2D g) {
-            float lifeRatio = life / 40f;
-            float alpha = lifeRatio > 0.3f ? 1f : (lifeRatio / 0.3f);
-
-            // Dynamic scaling with bounce effect
-            float scale = 1f + 0.6f * (float) Math.sin(Math.PI * (1 - lifeRatio));
-
-            String text = String.valueOf(damage);
-            Font font = g.getFont().deriveFont(Font.BOLD, 16f * scale);
-            g.setFont(font);
-
-            FontMetrics metrics = g.getFontMetrics();
-            int textWidth = metrics.stringWidth(text);
-            int textX = (int) x - textWidth / 2;
-            int textY = (int) y;
-
-            // Enhanced shadow with blur effect
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.8f));
-            g.setColor(COL_DAMAGE_SHADOW);
-            for (int i = 1; i <= 2; i++) {
-                g.drawString(text, textX + i, textY + i);
+            // Turn and scale the star's corners here rather than on a transform
+            float cos = (float) Math.cos(Math.toRadians(rotation)) * scale;
+            float sin = (float) Math.sin(Math.toRadians(rotation)) * scale;
+            float[] xs = new float[SPARKLE_X.length];
+            float[] ys = new float[SPARKLE_Y.length];
+            for (int i = 0; i < xs.length; i++) {
+                xs[i] = (float) x + SPARKLE_X[i] * cos - SPARKLE_Y[i] * sin;
+                ys[i] = (float) y + SPARKLE_X[i] * sin + SPARKLE_Y[i] * cos;
             }
 
-            // Main text with slight color variation
-            g.setComposite(AlphaComposite.SrcOver.derive(alpha));
-            Color textColor = new Color(
-                    Math.max(0, Math.min(255, (int) (COL_DAMAGE_TEXT.getRed() * (1 + hueShift)))),
-                    Math.max(0, Math.min(255, (int) (COL_DAMAGE_TEXT.getGreen() * (1 + hueShift * 0.5f)))),
-                    Math.max(0, Math.min(255, (int) (COL_DAMAGE_TEXT.getBlue() * (1 - hueShift * 0.3f)))));
-            g.setColor(textColor);
-            g.drawString(text, textX, textY);
+            // Draw sparkle as small star
+            frame.fillPolygon(Framebuffer.LAYER_PARTICLE, xs, ys, xs.length,
+                    Framebuffer.withAlpha(COL_SPARKLE, alpha * 0.7f), Framebuffer.Blend.ALPHA);
         }
     }
 }
\ No newline at end of file
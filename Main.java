@@ -5,7 +5,15 @@
 */
 
 public class Main {
+    // When the game was launched, for startup timing
+    private static final long START_NANOS = System.nanoTime();
+
     public static void main(String[] args) {
         new GameFrame();
     }
+
+    // Milliseconds since the game was launched
+    public static long millisSinceStart() {
+        return (System.nanoTime() - START_NANOS) / 1_000_000;
+    }
 }
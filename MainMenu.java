@@ -7,8 +7,7 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.*;
-import java.io.*;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class MainMenu extends JPanel {
@@ -33,8 +32,9 @@ public class MainMenu extends JPanel {
     private final GameButton credits_button;
     private final GameButton start_button;
 
-    // Background image for the main menu.
-    private BufferedImage background_image;
+    // Background image for the main menu, and where it is loaded from.
+    static final String BACKGROUND_PATH = "/assets/images/backgrounds/mainmenubg.jpg";
+    private ScreenBackground background_image;
 
     // Constructor initializes the main menu and its components.
     public MainMenu(GamePanel parent) {
@@ -55,16 +55,16 @@ public class MainMenu extends JPanel {
         add(highscores_button); // Add the button to the panel.
 
         // Initialize and configure the "How to Play" button.
-        how_button = makeMenuButton("HOW 2 PLAY", 35f, e -> PARENT.game_state = GameState.HOW_TO_PLAY);
+        how_button = makeMenuButton("HOW 2 PLAY", 35f, e -> PARENT.showScreen(GameState.HOW_TO_PLAY.name()));
         add(how_button); // Add the button to the panel.
 
         // Initialize and configure the credits button.
-        credits_button = makeMenuButton("CREDITS", 40f, e -> PARENT.game_state = GameState.CREDITS);
+        credits_button = makeMenuButton("CREDITS", 40f, e -> PARENT.showScreen(GameState.CREDITS.name()));
         add(credits_button); // Add the button to the panel.
 
         // Initialize and configure the start button.
         start_button = makeMenuButton("START", 64f, e -> {
-            PARENT.game_state = GameState.PLAYING; // Change game state to "PLAYING" when clicked.
+            PARENT.showScreen(GameState.PLAYING.name()); // Switch to the game screen when clicked.
         });
         start_button.setColor(new Color(76, 72, 144)); // Set custom color for the button.
         add(start_button); // Add the button to the panel.
@@ -75,12 +75,11 @@ public class MainMenu extends JPanel {
 
     // Loads the background image from the resources folder.
     private void loadBackground() {
-        try {
-            background_image = ImageIO
-                    .read(getClass().getResourceAsStream("/assets/images/backgrounds/mainmenubg.jpg"));
-        } catch (IOException e) {
-            background_image = null; // Set to null if the image cannot be loaded.
-        }
+        // Loaded in the background already screen-sized; repaint once it arrives.
+        CompletableFuture<BufferedImage> image = AssetPreloader.image(BACKGROUND_PATH, GamePanel.GAME_WIDTH,
+                GamePanel.GAME_HEIGHT);
+        image.thenRun(this::repaint);
+        background_image = new ScreenBackground(image, 0.5f); // Drawn at 50% opacity.
     }
 
     // Creates a menu button with the specified text, font size, and action
@@ -107,10 +106,7 @@ public class MainMenu extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D g2 = (Graphics2D) g.create(); // Create a copy of the Graphics object.
-        if (background_image != null) {
-            g2.setComposite(AlphaComposite.SrcOver.derive(0.5f)); // Set transparency to 50%.
-            g2.drawImage(background_image, 0, 0, getWidth(), getHeight(), null); // Draw the background image.
-        }
+        background_image.draw(g2, getWidth(), getHeight()); // Draw the faded background image.
         g2.dispose(); // Dispose of the Graphics2D object.
         super.paintComponent(g); // Call the superclass method to paint other components.
     }
@@ -1,5 +1,4 @@
 import java.awt.*;
-import java.awt.geom.*;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -20,7 +19,51 @@ public class PhotonOrbs extends Skill {    // Core mechanics
     private static final Color ORB_GLOW_COLOR = new Color(100, 200, 255, 160); // Blue glow
     private static final Color ORB_TRAIL_COLOR = new Color(80, 170, 255, 120); // Trail color
     private static final Color IMPACT_FLASH_COLOR = new Color(220, 240, 255, 200); // Bright flash on impact
-    private static final Color DAMAGE_TEXT_COLOR = new Color(50, 200, 255); // Bright blue damage text
+    private static final Color BRIGHT_SPOT_COLOR = new Color(255, 255, 255, 180);
+    private static final Color INNER_BURST_COLOR = new Color(255, 255, 255, 200);
+    // Widths of the swirl and ray lines, and of the thin arcs and rings
+    private static final float LINE_WIDTH = 1.5f;
+    private static final float ARC_WIDTH = 0.8f;
+
+    // Steps orb colors brighten through as an orb closes on its target, and
+    // steps of the random tint impacts get
+    private static final int CONVERGENCE_STEPS = 8;
+    private static final int IMPACT_TINTS = 4;
+    private static final Color[] CORE_COLORS = new Color[CONVERGENCE_STEPS];
+    // Pre-rendered orb glow for each convergence step and impact burst for each tint
+    private static final EffectAtlas.Glow ORB_GLOW;
+    private static final EffectAtlas.Glow IMPACT_BURST;
+
+    static {
+        Color[][] glowTints = new Color[CONVERGENCE_STEPS][];
+        for (int step = 0; step < CONVERGENCE_STEPS; step++) {
+            float level = step / (float) (CONVERGENCE_STEPS - 1);
+            // Glow whitens past half convergence, the core past 70%
+            float glowIntensity = Math.max(0f, (level - 0.5f) * 2f);
+            float coreIntensity = Math.min(1f, Math.max(0f, (level - 0.7f) * 3.3f));
+            Color glow = ORB_GLOW_COLOR;
+            int r = Math.min(255, (int) (glow.getRed() + (255 - glow.getRed()) * glowIntensity * 0.7f));
+            int g = Math.min(255, (int) (glow.getGreen() + (255 - glow.getGreen()) * glowIntensity * 0.3f));
+            int b = Math.min(255, (int) (glow.getBlue() + (255 - glow.getBlue()) * glowIntensity * 0.1f));
+            glowTints[step] = new Color[] { new Color(r, g, b, 180), new Color(r, g, b, 100), new Color(r, g, b, 0) };
+            Color core = ORB_CORE_COLOR;
+            CORE_COLORS[step] = new Color(
+                    Math.min(255, (int) (core.getRed() + (255 - core.getRed()) * coreIntensity)),
+                    Math.min(255, (int) (core.getGreen() + (255 - core.getGreen()) * coreIntensity)),
+                    Math.min(255, (int) (core.getBlue() + (255 - core.getBlue()) * coreIntensity * 0.5f)),
+                    core.getAlpha());
+        }
+        ORB_GLOW = EffectAtlas.radial(64, new float[] { 0f, 0.5f, 1.0f }, glowTints);
+
+        Color[][] impactTints = new Color[IMPACT_TINTS][];
+        for (int tint = 0; tint < IMPACT_TINTS; tint++) {
+            Color color = impactColor(0.7f + 0.3f * tint / (IMPACT_TINTS - 1));
+            impactTints[tint] = new Color[] { color,
+                    new Color(color.getRed(), color.getGreen(), color.getBlue(), 160),
+                    new Color(color.getRed(), color.getGreen(), color.getBlue(), 0) };
+        }
+        IMPACT_BURST = EffectAtlas.radial(64, new float[] { 0f, 0.5f, 1.0f }, impactTints);
+    }
     
     private static final Random RNG = new Random();
     
@@ -28,7 +71,6 @@ public class PhotonOrbs extends Skill {    // Core mechanics
     private final CopyOnWriteArrayList<PhotonOrb> orbs = new CopyOnWriteArrayList<>();
     private final CopyOnWriteArrayList<OrbTrailParticle> trailParticles = new CopyOnWriteArrayList<>();
     private final CopyOnWriteArrayList<ImpactEffect> impactEffects = new CopyOnWriteArrayList<>();
-    private final CopyOnWriteArrayList<DamageNumber> damageNumbers = new CopyOnWriteArrayList<>();
     
     private final Player owner;
     private long lastOrbSpawnTime = 0;
@@ -101,14 +143,22 @@ public class PhotonOrbs extends Skill {    // Core mechanics
     private void updateEffects(float dt) {
         trailParticles.forEach(particle -> particle.update(dt));
         impactEffects.forEach(effect -> effect.update(dt));
-        damageNumbers.forEach(number -> number.update(dt));
     }
     
     private void cleanupDeadEffects() {
         orbs.removeIf(PhotonOrb::isDead);
         trailParticles.removeIf(OrbTrailParticle::isDead);
         impactEffects.removeIf(ImpactEffect::isDead);
-        damageNumbers.removeIf(DamageNumber::isDead);
+    }
+    
+    // Color of an impact flash shifted toward blue by the given amount
+    private static Color impactColor(float blueShift) {
+        return new Color(
+            Math.min(255, (int)(IMPACT_FLASH_COLOR.getRed() * (1.0f - blueShift * 0.3f))),
+            Math.min(255, (int)(IMPACT_FLASH_COLOR.getGreen() * (1.0f - blueShift * 0.1f))),
+            Math.min(255, (int)(IMPACT_FLASH_COLOR.getBlue())),
+            IMPACT_FLASH_COLOR.getAlpha()
+        );
     }
     
     private Enemy findClosestEnemy(List<Enemy> enemies) {
@@ -116,7 +166,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         double minDistance = Double.MAX_VALUE;
         
         for (Enemy enemy : enemies) {
-            if (enemy.isDead()) continue;
+            if (enemy.isDead() || !canHit(enemy)) continue;
             
             double dx = enemy.getCenterX() - owner.getCenterX();
             double dy = enemy.getCenterY() - owner.getCenterY();
@@ -129,47 +179,30 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         }
         
         return closest;
-    }    public void draw(Graphics2D g2d) {
-        // Save original graphics settings
-        Composite originalComposite = g2d.getComposite();
-        RenderingHints originalHints = g2d.getRenderingHints();
-        
-        // Enable anti-aliasing for smooth circles
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        
-        // Draw in proper z-order: trails, orbs, impact effects, damage numbers
-        drawTrailParticles(g2d);
-        drawOrbs(g2d);
-        drawImpactEffects(g2d);
-        drawDamageNumbers(g2d);
-        
-        // Restore original graphics settings
-        g2d.setComposite(originalComposite);
-        g2d.setRenderingHints(originalHints);
+    }    public void draw(Framebuffer frame) {
+        // Draw in proper z-order: trails, orbs, impact effects. All of them are
+        // direct framebuffer draws, so no graphics state is saved or changed;
+        // the glows go on the glow layer, everything else on the particle layer
+        drawTrailParticles(frame);
+        drawOrbs(frame);
+        drawImpactEffects(frame);
     }
     
-    private void drawTrailParticles(Graphics2D g2d) {
+    private void drawTrailParticles(Framebuffer frame) {
         for (OrbTrailParticle particle : trailParticles) {
-            particle.draw(g2d);
+            particle.draw(frame);
         }
     }
     
-    private void drawOrbs(Graphics2D g2d) {
+    private void drawOrbs(Framebuffer frame) {
         for (PhotonOrb orb : orbs) {
-            orb.draw(g2d);
+            orb.draw(frame);
         }
     }
     
-    private void drawImpactEffects(Graphics2D g2d) {
+    private void drawImpactEffects(Framebuffer frame) {
         for (ImpactEffect effect : impactEffects) {
-            effect.draw(g2d);
-        }
-    }
-    
-    private void drawDamageNumbers(Graphics2D g2d) {
-        for (DamageNumber number : damageNumbers) {
-            number.draw(g2d);
+            effect.draw(frame);
         }
     }
     
@@ -182,12 +215,12 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         private float speed;
         private float rotation = 0;
         private float pulsePhase = 0;
-        private Enemy target;
+        private int targetHandle; // Handle of the enemy being chased, resolved every update
         private boolean isDead = false;        private final float orbSize;
         private final float glowSize;public PhotonOrb(double x, double y, Enemy target) {
             this.x = (float) x;
             this.y = (float) y;
-            this.target = target;
+            this.targetHandle = target.getHandle();
             this.speed = ORB_SPEED;
             this.orbSize = ORB_RADIUS * (0.8f + (RNG.nextFloat() * 0.4f));
             this.glowSize = orbSize * 2.5f;
@@ -206,7 +239,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
             this.wobbleAmplitude = 10f + RNG.nextFloat() * 10f;
             
             // Initial velocity toward target
-            updateVelocityTowardTarget();
+            updateVelocityTowardTarget(target);
         }        // Enhanced pathfinding variables for more advanced curves
         private float pathPhase = 0;
         private final float orbitRadius = 60f; // Maximum orbit radius
@@ -228,9 +261,11 @@ public class PhotonOrbs extends Skill {    // Core mechanics
             wobblePhase = (wobblePhase + dt * wobbleSpeed) % (float)(Math.PI * 2);
             rotation += dt * 140f; // Rotate orb
             
-            // If target is dead, find a new one
+            // If target is dead or its handle has gone stale, find a new one
+            Enemy target = owner.getEnemyHandles().get(targetHandle);
             if (target == null || target.isDead()) {
                 target = findClosestEnemy(enemies);
+                targetHandle = target != null ? target.getHandle() : EnemyHandles.NONE;
                 if (target == null) {
                     // No targets, just continue on current trajectory with more elaborate curve
                     float curveAngle = dt * 1.5f;
@@ -328,7 +363,23 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                 float accelerationFactor = 1.0f + (1.0f - approachFactor) * 0.5f;
                 speed = Math.min(MAX_ORB_SPEED, speed + ORB_ACCELERATION * dt * accelerationFactor);                // Check for collision with target - increased collision radius for more reliable hits
                 float collisionRadius = orbSize + target.getRadius() + 2f; // Added a small buffer for more forgiving collision
-                if (distance < collisionRadius) {
+                boolean hit = distance < collisionRadius;
+                // A fast orb can cover more than its own size in one step, so sweep
+                // it along this step's move to catch a target it would skip past
+                float stepX = vx * dt * 60;
+                float stepY = vy * dt * 60;
+                if (!hit && Physics.needsSweep(stepX, stepY, orbSize)) {
+                    float targetStepX = target.getXVelocity() * dt * 60;
+                    float targetStepY = target.getYVelocity() * dt * 60;
+                    float toi = Physics.sweptCircleTOI(x, y, stepX, stepY, orbSize,
+                            targetX, targetY, targetStepX, targetStepY, collisionRadius - orbSize);
+                    if (toi >= 0f) {
+                        x += stepX * toi;
+                        y += stepY * toi;
+                        hit = true;
+                    }
+                }
+                if (hit) {
                     // Hit detected!
                     int damage = BASE_DAMAGE + (getLevel() - 1) * DAMAGE_PER_LEVEL;
                     target.takeDamage(damage);
@@ -337,12 +388,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                     float contactY = y + dirY * orbSize;
                     impactEffects.add(new ImpactEffect(contactX, contactY));
                     
-                    // Create damage number
-                    damageNumbers.add(new DamageNumber(
-                        (int) target.getCenterX(), 
-                        (int) target.getCenterY() - 20,
-                        damage
-                    ));                    // Create particle burst
+                    // Create particle burst
                     createImpactParticles(contactX, contactY);
                     
                     // Always set isDead to true after hitting - orbs only hit once
@@ -351,7 +397,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                 }
             } else {
                 // No target, but still try to refresh its trajectory periodically
-                updateVelocityTowardTarget();
+                updateVelocityTowardTarget(target);
             }
             
             // Move orb
@@ -364,7 +410,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                 isDead = true;
             }
         }
-          private void updateVelocityTowardTarget() {
+          private void updateVelocityTowardTarget(Enemy target) {
             if (target != null) {
                 float dx = (float) target.getCenterX() - x;
                 float dy = (float) target.getCenterY() - y;
@@ -421,101 +467,54 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         public boolean isDead() {
             return isDead;
         }
-          public void draw(Graphics2D g2d) {
+          public void draw(Framebuffer frame) {
             // Calculate various animation factors based on phases
             float pulseScale = 1f + 0.2f * (float) Math.sin(pulsePhase);
             float wobbleScale = 1f + 0.1f * (float) Math.sin(wobblePhase * 1.7f);
             float currentGlowSize = glowSize * pulseScale * wobbleScale;
             
             // Enhanced color based on convergence (gets brighter as it approaches target)
-            Color glowColor = ORB_GLOW_COLOR;
-            if (convergenceFactor > 0.5f) {
-                float intensity = Math.min(1.0f, (convergenceFactor - 0.5f) * 2f);
-                glowColor = new Color(
-                    Math.min(255, (int)(glowColor.getRed() + (255 - glowColor.getRed()) * intensity * 0.7f)),
-                    Math.min(255, (int)(glowColor.getGreen() + (255 - glowColor.getGreen()) * intensity * 0.3f)),
-                    Math.min(255, (int)(glowColor.getBlue() + (255 - glowColor.getBlue()) * intensity * 0.1f)),
-                    glowColor.getAlpha()
-                );
-            }
+            int step = Math.round(Math.max(0f, Math.min(1f, convergenceFactor)) * (CONVERGENCE_STEPS - 1));
             
             // Draw outer glow with enhanced opacity based on speed
             float speedFactor = Math.min(1.0f, speed / MAX_ORB_SPEED);
             float glowOpacity = 0.6f + speedFactor * 0.3f;
-            g2d.setComposite(AlphaComposite.SrcOver.derive(glowOpacity));
-            
-            g2d.setPaint(new RadialGradientPaint(
-                new Point2D.Float(x, y),
-                currentGlowSize,
-                new float[] { 0f, 0.5f, 1.0f },
-                new Color[] {
-                    new Color(glowColor.getRed(), 
-                             glowColor.getGreen(), 
-                             glowColor.getBlue(), 180),
-                    new Color(glowColor.getRed(), 
-                             glowColor.getGreen(), 
-                             glowColor.getBlue(), 100),
-                    new Color(glowColor.getRed(), 
-                             glowColor.getGreen(), 
-                             glowColor.getBlue(), 0)
-                }
-            ));
-            g2d.fill(new Ellipse2D.Float(x - currentGlowSize, y - currentGlowSize, 
-                                       currentGlowSize * 2, currentGlowSize * 2));
-            
-            // Draw inner core with rotation effect
-            g2d.setComposite(AlphaComposite.SrcOver.derive(0.9f));
-            
-            AffineTransform oldTransform = g2d.getTransform();
-            g2d.translate(x, y);
-            g2d.rotate(Math.toRadians(rotation));
+            ORB_GLOW.draw(frame, Framebuffer.LAYER_GLOW, x, y, currentGlowSize, step, glowOpacity);
             
             // Inner bright core with enhanced glow based on convergence
-            Color coreColor = ORB_CORE_COLOR;
-            if (convergenceFactor > 0.7f) {
-                float intensity = Math.min(1.0f, (convergenceFactor - 0.7f) * 3.3f);
-                coreColor = new Color(
-                    Math.min(255, (int)(coreColor.getRed() + (255 - coreColor.getRed()) * intensity)),
-                    Math.min(255, (int)(coreColor.getGreen() + (255 - coreColor.getGreen()) * intensity)),
-                    Math.min(255, (int)(coreColor.getBlue() + (255 - coreColor.getBlue()) * intensity * 0.5f)),
-                    coreColor.getAlpha()
-                );
-            }
-            g2d.setColor(coreColor);
-            g2d.fill(new Ellipse2D.Float(-orbSize, -orbSize, orbSize * 2, orbSize * 2));
+            frame.fillCircle(Framebuffer.LAYER_PARTICLE, x, y, orbSize, Framebuffer.withAlpha(CORE_COLORS[step], 0.9f),
+                    Framebuffer.Blend.ALPHA);
             
             // Dynamic inner bright spot
             float brightSpotSize = orbSize * 0.7f * pulseScale;
-            g2d.setColor(new Color(255, 255, 255, 180));
-            g2d.fill(new Ellipse2D.Float(-brightSpotSize/2, -brightSpotSize/2, brightSpotSize, brightSpotSize));
+            frame.fillCircle(Framebuffer.LAYER_PARTICLE, x, y, brightSpotSize / 2,
+                    Framebuffer.withAlpha(BRIGHT_SPOT_COLOR, 0.9f), Framebuffer.Blend.ALPHA);
             
-            // Energy swirl patterns - more complex with multiple layers
-            g2d.setColor(Color.WHITE);
-            g2d.setComposite(AlphaComposite.SrcOver.derive(0.7f));
-            g2d.setStroke(new BasicStroke(1.5f));
+            // Energy swirl patterns, turned with the orb's rotation
+            float turn = (float) Math.toRadians(rotation);
+            float cos = (float) Math.cos(turn);
+            float sin = (float) Math.sin(turn);
+            int swirl = Framebuffer.withAlpha(Color.WHITE, 0.7f);
             
             // Draw primary swirling energy patterns
             for (int i = 0; i < 2; i++) {
                 double spiralPhase = pulsePhase + Math.PI * i;
-                float spiralX = (float) Math.cos(spiralPhase) * orbSize * 0.7f;
-                float spiralY = (float) Math.sin(spiralPhase) * orbSize * 0.7f;
-                g2d.drawOval((int)(-orbSize/2 + spiralX/2), (int)(-orbSize/2 + spiralY/2), 
-                            (int)orbSize, (int)orbSize);
+                float spiralX = (float) Math.cos(spiralPhase) * orbSize * 0.35f;
+                float spiralY = (float) Math.sin(spiralPhase) * orbSize * 0.35f;
+                frame.strokeCircle(Framebuffer.LAYER_PARTICLE, x + spiralX * cos - spiralY * sin,
+                        y + spiralX * sin + spiralY * cos, orbSize / 2, LINE_WIDTH, swirl, Framebuffer.Blend.ALPHA);
             }
             
-            // Draw additional energy arcs for visual interest
-            g2d.setStroke(new BasicStroke(0.8f));
-            g2d.setComposite(AlphaComposite.SrcOver.derive(0.5f));
+            // Draw additional energy arcs for visual interest. Arc phases turn
+            // counterclockwise, the screen angles the frame takes clockwise
+            int arc = Framebuffer.withAlpha(Color.WHITE, 0.5f);
+            float third = (float) (Math.PI * 2 / 3);
             for (int i = 0; i < 3; i++) {
-                double arcPhase = pulsePhase * 1.5f + (Math.PI * 2/3) * i;
+                double arcPhase = pulsePhase * 1.5f + third * i;
                 float arcSize = orbSize * 1.3f;
-                g2d.drawArc((int)(-arcSize/2), (int)(-arcSize/2), 
-                           (int)arcSize, (int)arcSize,
-                           (int)(Math.toDegrees(arcPhase)), 120);
+                frame.strokeArc(Framebuffer.LAYER_PARTICLE, x, y, arcSize / 2, ARC_WIDTH,
+                        (float) (turn - arcPhase) - third, third, arc, Framebuffer.Blend.ALPHA);
             }
-            
-            // Restore transform
-            g2d.setTransform(oldTransform);
         }
     }
       /**
@@ -595,16 +594,20 @@ public class PhotonOrbs extends Skill {    // Core mechanics
             return life <= 0;
         }
         
-        public void draw(Graphics2D g2d) {
+        public void draw(Framebuffer frame) {
             float alpha = (float) life / maxLife;
-            g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.7f));
-            g2d.setColor(color);
+            int argb = Framebuffer.withAlpha(color, alpha * 0.7f);
             
-            // Draw particle
+            // Draw particle; impact sparks are added to the scene so a burst
+            // flares brighter where they overlap
             float drawSize = size * (type == Type.IMPACT ? 
                                     (1f + 0.5f * (1f - alpha)) : 
                                     (0.5f + 0.5f * alpha));
-            g2d.fill(new Ellipse2D.Float(x - drawSize, y - drawSize, drawSize * 2, drawSize * 2));
+            if (type == Type.IMPACT) {
+                frame.splat(Framebuffer.LAYER_PARTICLE, x, y, drawSize * 1.5f, argb, Framebuffer.Blend.ADD);
+            } else {
+                frame.fillCircle(Framebuffer.LAYER_PARTICLE, x, y, drawSize, argb, Framebuffer.Blend.ALPHA);
+            }
         }
     }
       /**
@@ -619,7 +622,7 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         private final float pulseSpeed;
         private final float rayLength;
         private final int numRays;
-        private final Color impactColor;
+        private final int impactTint;
         
         public ImpactEffect(float x, float y) {
             this.x = x;
@@ -629,14 +632,8 @@ public class PhotonOrbs extends Skill {    // Core mechanics
             this.rayLength = 20f + RNG.nextFloat() * 15f;
             this.numRays = 4 + RNG.nextInt(4);  // 4-7 rays
             
-            // Random tint for variety
-            float blueShift = 0.7f + RNG.nextFloat() * 0.3f;
-            this.impactColor = new Color(
-                Math.min(255, (int)(IMPACT_FLASH_COLOR.getRed() * (1.0f - blueShift * 0.3f))),
-                Math.min(255, (int)(IMPACT_FLASH_COLOR.getGreen() * (1.0f - blueShift * 0.1f))),
-                Math.min(255, (int)(IMPACT_FLASH_COLOR.getBlue())),
-                IMPACT_FLASH_COLOR.getAlpha()
-            );
+            // Random tint for variety, one of the pre-rendered ones
+            this.impactTint = RNG.nextInt(IMPACT_TINTS);
         }
           public void update(float dt) {
             life--;
@@ -665,52 +662,35 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         public boolean isDead() {
             return life <= 0;
         }
-          public void draw(Graphics2D g2d) {
+          public void draw(Framebuffer frame) {
             float alpha = life / 20f;
             float pulsePhase = (1f - alpha) * pulseSpeed * 10f;
             float pulseEffect = 1f + 0.2f * (float)Math.sin(pulsePhase * Math.PI);
             
-            g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.8f));
-            
-            // Save current transform
-            AffineTransform oldTransform = g2d.getTransform();
-            
-            // Apply transform for rotation
-            g2d.translate(x, y);
-            g2d.rotate(Math.toRadians(rotation));
-            
             // Draw expanding/contracting burst
-            g2d.setPaint(new RadialGradientPaint(
-                new Point2D.Float(0, 0),
-                size,
-                new float[] { 0f, 0.5f, 1.0f },
-                new Color[] {
-                    impactColor,
-                    new Color(impactColor.getRed(), 
-                             impactColor.getGreen(), 
-                             impactColor.getBlue(), 160),
-                    new Color(impactColor.getRed(), 
-                             impactColor.getGreen(), 
-                             impactColor.getBlue(), 0)
-                }
-            ));
-            g2d.fill(new Ellipse2D.Float(-size, -size, size * 2, size * 2));
+            IMPACT_BURST.draw(frame, Framebuffer.LAYER_GLOW, x, y, size, impactTint, alpha * 0.8f);
             
             // Draw inner burst
             float innerSize = size * 0.6f * pulseEffect;
-            g2d.setColor(new Color(255, 255, 255, (int)(200 * alpha)));
-            g2d.fill(new Ellipse2D.Float(-innerSize, -innerSize, innerSize * 2, innerSize * 2));
-              // Draw dynamic rays with varied lengths and enhanced visual design
-            g2d.setColor(Color.WHITE);
-            g2d.setStroke(new BasicStroke(1.5f));
+            frame.fillCircle(Framebuffer.LAYER_PARTICLE, x, y, innerSize,
+                    Framebuffer.withAlpha(INNER_BURST_COLOR, alpha * alpha * 0.8f), Framebuffer.Blend.ALPHA);
+              // Draw dynamic rays with varied lengths and enhanced visual design,
+            // turned by the effect's rotation
+            int ray = Framebuffer.withAlpha(Color.WHITE, alpha * 0.8f);
+            int secondary = Framebuffer.withAlpha(Color.WHITE, alpha * 0.5f);
+            int dot = Framebuffer.withAlpha(Color.WHITE, alpha * 0.9f);
+            double turn = Math.toRadians(rotation);
+            int cx = Math.round(x);
+            int cy = Math.round(y);
             float currentRayLength = rayLength * size / maxSize * pulseEffect;
             
             // Main ray burst
             for (int i = 0; i < numRays; i++) {
-                double rayAngle = (Math.PI * 2 / numRays) * i + pulsePhase;
+                double rayAngle = (Math.PI * 2 / numRays) * i + pulsePhase + turn;
                 float rayX = (float) Math.cos(rayAngle) * currentRayLength;
                 float rayY = (float) Math.sin(rayAngle) * currentRayLength;
-                g2d.drawLine(0, 0, (int)rayX, (int)rayY);
+                frame.drawLine(Framebuffer.LAYER_PARTICLE, cx, cy, Math.round(x + rayX), Math.round(y + rayY), ray,
+                        Framebuffer.Blend.ALPHA);
                 
                 // Add secondary ray details for some rays
                 if (i % 2 == 0) {
@@ -718,9 +698,8 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                     float offsetAngle = (float)(rayAngle + Math.PI/12);
                     float secRayX = (float) Math.cos(offsetAngle) * secondaryLength;
                     float secRayY = (float) Math.sin(offsetAngle) * secondaryLength;
-                    g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.5f));
-                    g2d.drawLine(0, 0, (int)secRayX, (int)secRayY);
-                    g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.8f));
+                    frame.drawLine(Framebuffer.LAYER_PARTICLE, cx, cy, Math.round(x + secRayX),
+                            Math.round(y + secRayY), secondary, Framebuffer.Blend.ALPHA);
                 }
                 
                 // Add tiny dot accents at the end of some rays
@@ -728,20 +707,16 @@ public class PhotonOrbs extends Skill {    // Core mechanics
                     float dotSize = 1.5f + (float)Math.sin(pulsePhase * 2.5f);
                     float dotX = (float) Math.cos(rayAngle) * (currentRayLength * 0.85f);
                     float dotY = (float) Math.sin(rayAngle) * (currentRayLength * 0.85f);
-                    g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.9f));
-                    g2d.fill(new Ellipse2D.Float(dotX - dotSize/2, dotY - dotSize/2, dotSize, dotSize));
+                    frame.fillCircle(Framebuffer.LAYER_PARTICLE, x + dotX, y + dotY, dotSize / 2, dot,
+                            Framebuffer.Blend.ALPHA);
                 }
             }
             
             // Add animated concentric rings
-            g2d.setStroke(new BasicStroke(0.8f));
-            g2d.setComposite(AlphaComposite.SrcOver.derive(alpha * 0.3f));
             float ringPhase = pulsePhase * 3.0f;
             float ringSize = size * 0.7f * (0.6f + 0.4f * (float)Math.sin(ringPhase));
-            g2d.drawOval((int)(-ringSize), (int)(-ringSize), (int)(ringSize * 2), (int)(ringSize * 2));
-            
-            // Restore transform
-            g2d.setTransform(oldTransform);
+            frame.strokeCircle(Framebuffer.LAYER_PARTICLE, x, y, ringSize, ARC_WIDTH,
+                    Framebuffer.withAlpha(Color.WHITE, alpha * 0.3f), Framebuffer.Blend.ALPHA);
         }
     }
       /**
@@ -826,54 +801,4 @@ public class PhotonOrbs extends Skill {    // Core mechanics
         centralFlash.setColor(new Color(255, 255, 255, 220));
         trailParticles.add(centralFlash);
     }
-      /**
-     * Displays damage numbers when an enemy is hit
-     */
-    private class DamageNumber {
-        private final float x;
-        private float y;
-        private final int damage;
-        private int life = 40;
-        private final float initialY;
-        
-        public DamageNumber(int x, int y, int damage) {
-            this.x = x;
-            this.initialY = y;
-            this.y = y;
-            this.damage = damage;
-        }
-        
-        public void update(float dt) {
-            float progress = 1f - (life / 40f);
-            y = initialY - 30f * progress; // Float upward
-            life--;
-        }
-        
-        public boolean isDead() {
-            return life <= 0;
-        }
-        
-        public void draw(Graphics2D g2d) {
-            float alpha = life > 30 ? 1f : life / 30f;
-            g2d.setComposite(AlphaComposite.SrcOver.derive(alpha));
-            
-            String text = String.valueOf(damage);
-            Font originalFont = g2d.getFont();
-            Font damageFont = originalFont.deriveFont(Font.BOLD, 14f);
-            g2d.setFont(damageFont);
-            FontMetrics metrics = g2d.getFontMetrics();
-            int textWidth = metrics.stringWidth(text);
-            
-            // Draw shadow
-            g2d.setColor(new Color(0, 50, 100, 160));
-            g2d.drawString(text, x - textWidth/2 + 1, y + 1);
-            
-            // Draw text
-            g2d.setColor(DAMAGE_TEXT_COLOR);
-            g2d.drawString(text, x - textWidth/2, y);
-            
-            // Restore original font
-            g2d.setFont(originalFont);
-        }
-    }
 }
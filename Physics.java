@@ -29,14 +29,52 @@ public class Physics {
                                                           // calculations
     private static final float ENEMY_ENTITY_MASS = 1.0f; // Mass of an enemy entity, used in collision response
                                                          // calculations
+    private static final float WARM_START_FACTOR = 0.5f; // Share of last step's contact impulse re-applied before
+                                                         // solving a cached contact
+
+    // The ways enemy-enemy overlaps can be resolved
+    public enum CrowdModel {
+        IMPULSE, // One pass of positional correction plus velocity impulses, see ContactSolver
+        PBD // Position-based dynamics, see CrowdSolver
+    }
+
+    // Crowd model in use; start with -Dendlessnight.crowd=pbd to pick PBD
+    private static volatile CrowdModel crowd_model = "pbd".equalsIgnoreCase(System.getProperty("endlessnight.crowd"))
+            ? CrowdModel.PBD
+            : CrowdModel.IMPULSE;
+
+    // Whether collision response avoids randomness; start with
+    // -Dendlessnight.deterministic=true to turn it on
+    private static volatile boolean deterministic = Boolean.getBoolean("endlessnight.deterministic");
 
     // Private constructor to prevent instantiation of this utility class
     private Physics() {
     }
 
+    // Returns whether collision response is deterministic
+    public static boolean isDeterministic() {
+        return deterministic;
+    }
+
+    // Turns deterministic collision response on or off
+    public static void setDeterministic(boolean value) {
+        deterministic = value;
+    }
+
+    // Returns the crowd model in use
+    public static CrowdModel getCrowdModel() {
+        return crowd_model;
+    }
+
+    // Switches the crowd model; takes effect on the next step
+    public static void setCrowdModel(CrowdModel model) {
+        crowd_model = model;
+    }
+
     // Resolves collisions between the player, enemies, and other entities in the
     // game
-    public static void resolveCollisions(GameState state, Player player, List<Enemy> enemies, float dt) {
+    public static void resolveCollisions(GameState state, Player player, List<Enemy> enemies, CrowdBuffer crowd,
+            CrowdSolver crowd_solver, ContactSolver contact_solver, float dt) {
         // Only resolve collisions if the game state is "PLAYING"
         if (state != GameState.PLAYING)
             return;
@@ -47,8 +85,14 @@ public class Physics {
         // Resolve collisions between the player and enemies
         resolvePlayerEnemyCollisions(player, enemies, dt_scale);
 
-        // Resolve collisions between enemies
-        resolveEnemyEnemyCollisions(enemies, dt_scale);
+        // Resolve collisions between enemies with the selected model
+        if (crowd_model == CrowdModel.PBD && crowd_solver != null) {
+            crowd_solver.solve(crowd);
+        } else if (contact_solver != null) {
+            contact_solver.solve(crowd, dt_scale);
+        } else {
+            resolveEnemyEnemyCollisions(enemies, dt_scale);
+        }
     }
 
     // Resolves collisions between the player and enemies
@@ -59,6 +103,10 @@ public class Physics {
 
         // Iterate through all enemies
         for (Enemy enemy : enemies) {
+            // Skip enemies whose layers do not collide with the player
+            if (!player.collidesWith(enemy))
+                continue;
+
             // Get the enemy's bounding box and expand it based on velocity
             Rectangle enemy_broadphase = enemy.getBounds();
             expandRectByVelocity(enemy_broadphase, enemy.getXVelocity(), enemy.getYVelocity());
@@ -67,8 +115,9 @@ public class Physics {
             if (!player_broadphase.intersects(enemy_broadphase))
                 continue;
 
-            // Check if the player and enemy circles intersect
-            if (circleIntersection(player, enemy)) {
+            // Check if the player and enemy circles intersect, either now or, for a
+            // fast enemy, at some point during the step
+            if (circleIntersection(player, enemy) || sweepEnemyToPlayer(player, enemy)) {
                 // Apply damage to the player
                 player.takeDamage(enemy.getDamage());
 
@@ -80,7 +129,7 @@ public class Physics {
 
                 // Handle cases where the distance is too small to avoid division by zero
                 if (distance < FLOATING_POINT_EPSILON) {
-                    normal.set((float) Math.random() * 2 - 1, (float) Math.random() * 2 - 1).normalize();
+                    coincidentNormal(normal, enemy.getHandle());
                 } else {
                     normal.scale(1f / distance);
                 }
@@ -118,8 +167,8 @@ public class Physics {
         }
     }
 
-    // Resolves collisions between enemies
-    private static void resolveEnemyEnemyCollisions(List<Enemy> enemies, float dt_scale) {
+    // Resolves collisions between enemies with impulses (package-private for the benchmark)
+    static void resolveEnemyEnemyCollisions(List<Enemy> enemies, float dt_scale) {
         int size = enemies.size();
 
         // Iterate through all pairs of enemies
@@ -138,84 +187,194 @@ public class Physics {
                 if (!a_moving_fast && !(b_speed > 0.5f))
                     continue;
 
-                // Skip if the enemies' circles do not intersect
-                if (!circleIntersection(a, b))
+                // Skip if the enemies' layers do not collide or their circles do not intersect
+                if (!a.collidesWith(b) || !circleIntersection(a, b))
                     continue;
 
-                // Calculate the collision normal vector
-                Vector normal = new Vector(
-                        (float) (a.getCenterX() - b.getCenterX()),
-                        (float) (a.getCenterY() - b.getCenterY()));
-                float distance = normal.length();
-
-                // Handle cases where the distance is too small to avoid division by zero
-                if (distance < FLOATING_POINT_EPSILON) {
-                    normal.set((float) Math.random() * 2 - 1, (float) Math.random() * 2 - 1).normalize();
-                    distance = FLOATING_POINT_EPSILON;
-                } else {
-                    normal.scale(1f / distance);
-                }
-
-                // Calculate the target distance and penetration depth
-                float target_distance = a.getRadius() + b.getRadius() + ENEMY_SEPARATION_GAP;
-                float penetration = target_distance - distance;
-
-                // Resolve penetration by adjusting the positions of both enemies
-                if (penetration > COLLISION_SLOP) {
-                    float correction = (penetration - COLLISION_SLOP) * POSITION_BIAS_FACTOR * dt_scale;
+                resolveEnemyPair(a, b, dt_scale, 0f);
+            }
+        }
+    }
 
-                    a.setPos(
-                            a.getCenterX() + normal.x * correction * 0.5f,
-                            a.getCenterY() + normal.y * correction * 0.5f);
-                    b.setPos(
-                            b.getCenterX() - normal.x * correction * 0.5f,
-                            b.getCenterY() - normal.y * correction * 0.5f);
-                }
+    // Pushes two touching enemies apart and exchanges an impulse between them.
+    // Only the two enemies are written, so pairs that share no enemy can be
+    // resolved at the same time. warm_impulse is the normal impulse the pair
+    // built up last step; part of it is applied up front, and the pair's new
+    // total is returned so the caller can carry it into the next step
+    static float resolveEnemyPair(Enemy a, Enemy b, float dt_scale, float warm_impulse) {
+        Vector normal = separateEnemyPair(a, b, dt_scale);
+
+        // Skip if either enemy is in a knockback state
+        if (a.isInKnockbackState() || b.isInKnockbackState())
+            return 0f;
+
+        // Warm start: re-apply part of the impulse the pair carried last step, so
+        // a lasting contact does not start from zero every step. Like the impulse
+        // below it pushes a along the normal and b against it
+        float warm = warm_impulse * WARM_START_FACTOR;
+        if (warm > 0f) {
+            a.setVelocity(a.getXVelocity() + normal.x * warm, a.getYVelocity() + normal.y * warm);
+            b.setVelocity(b.getXVelocity() - normal.x * warm, b.getYVelocity() - normal.y * warm);
+        }
 
-                // Skip if either enemy is in a knockback state
-                if (a.isInKnockbackState() || b.isInKnockbackState())
-                    continue;
+        // Calculate the velocity of a relative to b
+        Vector rel_vel = new Vector(
+                a.getXVelocity() - b.getXVelocity(),
+                a.getYVelocity() - b.getYVelocity());
+
+        // Calculate the velocity along the collision normal, which points from b
+        // to a, so it is positive when the enemies move apart
+        float vel_along_normal = rel_vel.dot(normal);
+
+        // Calculate the impulse scalar based on restitution
+        float restitution = COLLISION_RESTITUTION;
+
+        float impulse_scalar = -(1.0f + restitution) * vel_along_normal;
+        impulse_scalar /= 2.0f;
+        impulse_scalar *= dt_scale;
+
+        // Contacts can only push, so the total impulse never drops below zero. A
+        // pair already moving apart gets no new push, and only takes back as much
+        // of the warm start as it needs
+        float total = Math.max(0f, warm + impulse_scalar);
+        impulse_scalar = total - warm;
+        if (impulse_scalar == 0f)
+            return total;
+
+        // Apply the impulse to both enemies
+        Vector impulse = normal.copy().scale(impulse_scalar);
+
+        // Calculate the friction impulse, only while the pair is being pushed apart
+        Vector tangent = new Vector(-normal.y, normal.x);
+        float vel_along_tangent = rel_vel.dot(tangent);
+        float friction_impulse = -vel_along_tangent * COLLISION_FRICTION * Math.max(0f, impulse_scalar);
+        Vector friction_vec = tangent.copy().scale(friction_impulse);
+
+        a.setVelocity(
+                a.getXVelocity() + impulse.x + friction_vec.x,
+                a.getYVelocity() + impulse.y + friction_vec.y);
+        b.setVelocity(
+                b.getXVelocity() - impulse.x - friction_vec.x,
+                b.getYVelocity() - impulse.y - friction_vec.y);
+        return total;
+    }
 
-                // Calculate the relative velocity between the two enemies
-                Vector rel_vel = new Vector(
-                        b.getXVelocity() - a.getXVelocity(),
-                        b.getYVelocity() - a.getYVelocity());
+    // Moves two overlapping enemies part of the way apart and returns the unit
+    // normal pointing from b to a. Also used on its own for resting contacts,
+    // which keep their positions apart while their velocities sleep
+    static Vector separateEnemyPair(Enemy a, Enemy b, float dt_scale) {
+        // Calculate the collision normal vector
+        Vector normal = new Vector(
+                (float) (a.getCenterX() - b.getCenterX()),
+                (float) (a.getCenterY() - b.getCenterY()));
+        float distance = normal.length();
+
+        // Handle cases where the distance is too small to avoid division by zero
+        if (distance < FLOATING_POINT_EPSILON) {
+            coincidentNormal(normal, a.getHandle() * 31 + b.getHandle());
+            distance = FLOATING_POINT_EPSILON;
+        } else {
+            normal.scale(1f / distance);
+        }
 
-                // Calculate the velocity along the collision normal
-                float vel_along_normal = rel_vel.dot(normal);
+        // Calculate the target distance and penetration depth
+        float target_distance = a.getRadius() + b.getRadius() + ENEMY_SEPARATION_GAP;
+        float penetration = target_distance - distance;
 
-                // Skip if the enemies are moving away from each other
-                if (vel_along_normal > 0)
-                    continue;
+        // Resolve penetration by adjusting the positions of both enemies
+        if (penetration > COLLISION_SLOP) {
+            float correction = (penetration - COLLISION_SLOP) * POSITION_BIAS_FACTOR * dt_scale;
 
-                // Calculate the impulse scalar based on restitution
-                float restitution = COLLISION_RESTITUTION;
+            a.setPos(
+                    a.getCenterX() + normal.x * correction * 0.5f,
+                    a.getCenterY() + normal.y * correction * 0.5f);
+            b.setPos(
+                    b.getCenterX() - normal.x * correction * 0.5f,
+                    b.getCenterY() - normal.y * correction * 0.5f);
+        }
+        return normal;
+    }
 
-                float impulse_scalar = -(1.0f + restitution) * vel_along_normal;
-                impulse_scalar /= 2.0f;
-                impulse_scalar *= dt_scale;
+    // Picks a collision normal for two entities whose centres coincide. In
+    // deterministic mode the direction comes from the seed instead of
+    // Math.random, so replays and serial/parallel runs match exactly
+    private static void coincidentNormal(Vector normal, int seed) {
+        if (deterministic) {
+            int h = seed * 0x9E3779B9;
+            h ^= h >>> 16;
+            double angle = (h & 0xFFFF) * (Math.PI * 2 / 65536.0);
+            normal.set((float) Math.cos(angle), (float) Math.sin(angle));
+        } else {
+            normal.set((float) Math.random() * 2 - 1, (float) Math.random() * 2 - 1).normalize();
+        }
+    }
 
-                // Apply the impulse to both enemies
-                Vector impulse = normal.copy().scale(impulse_scalar);
+    // Checks whether a fast enemy passed through the player during the step.
+    // The enemy's path runs from where it stood before its update to where it
+    // is now; if it touched the player part way along, it is moved back to that
+    // point and true is returned. A step that wrapped the enemy around the
+    // screen has no straight path, so it is left to the overlap test
+    private static boolean sweepEnemyToPlayer(Player player, Enemy enemy) {
+        if (enemy.hasWrapped())
+            return false;
+        float start_x = enemy.getStepStartX();
+        float start_y = enemy.getStepStartY();
+        float step_x = (float) enemy.getCenterX() - start_x;
+        float step_y = (float) enemy.getCenterY() - start_y;
+        if (!needsSweep(step_x, step_y, enemy.getRadius()))
+            return false;
+
+        float toi = sweptCircleTOI(start_x, start_y, step_x, step_y, enemy.getRadius(),
+                (float) player.getCenterX(), (float) player.getCenterY(), 0f, 0f, player.getRadius());
+        if (toi < 0f)
+            return false;
+
+        enemy.setPos(start_x + step_x * toi, start_y + step_y * toi);
+        return true;
+    }
 
-                // Calculate the friction impulse
-                Vector tangent = new Vector(-normal.y, normal.x);
-                float vel_along_tangent = rel_vel.dot(tangent);
-                float friction_impulse = -vel_along_tangent * COLLISION_FRICTION * impulse_scalar;
-                Vector friction_vec = tangent.copy().scale(friction_impulse);
+    // Whether a body moving this far in one step can skip past something. Below
+    // its own radius (or the continuous collision threshold, if smaller) the
+    // discrete overlap test is enough
+    static boolean needsSweep(float step_x, float step_y, float radius) {
+        float limit = Math.min(radius, CONTINUOUS_COLLISION_THRESHOLD);
+        return step_x * step_x + step_y * step_y > limit * limit;
+    }
 
-                a.setVelocity(
-                        a.getXVelocity() - impulse.x - friction_vec.x,
-                        a.getYVelocity() - impulse.y - friction_vec.y);
-                b.setVelocity(
-                        b.getXVelocity() + impulse.x + friction_vec.x,
-                        b.getYVelocity() + impulse.y + friction_vec.y);
-            }
-        }
+    /**
+     * Swept circle test. Circle a starts at (ax, ay) and moves by (adx, ady) over
+     * the step, circle b likewise. Returns the fraction of the step, 0 to 1, at
+     * which they first touch, or -1 if they do not touch during the step. Circles
+     * that already overlap at the start return 0.
+     */
+    static float sweptCircleTOI(float ax, float ay, float adx, float ady, float ar,
+            float bx, float by, float bdx, float bdy, float br) {
+        // Work in a's frame: b starts at p and moves by d
+        float px = bx - ax;
+        float py = by - ay;
+        float dx = bdx - adx;
+        float dy = bdy - ady;
+        float radius_sum = ar + br;
+
+        float c = px * px + py * py - radius_sum * radius_sum;
+        if (c <= 0f)
+            return 0f;
+        float a = dx * dx + dy * dy;
+        if (a < FLOATING_POINT_EPSILON)
+            return -1f;
+        float b = px * dx + py * dy;
+        // Moving apart
+        if (b >= 0f)
+            return -1f;
+        float discriminant = b * b - a * c;
+        if (discriminant < 0f)
+            return -1f;
+        float toi = (-b - (float) Math.sqrt(discriminant)) / a;
+        return toi <= 1f ? toi : -1f;
     }
 
     // Checks if two circular entities intersect
-    private static boolean circleIntersection(Entity a, Entity b) {
+    static boolean circleIntersection(Entity a, Entity b) {
         float dx = (float) (b.getCenterX() - a.getCenterX());
         float dy = (float) (b.getCenterY() - a.getCenterY());
         float radius_sum = a.getRadius() + b.getRadius();
@@ -31,6 +31,9 @@ public class PlayScreen extends JPanel {
     // Background image for the play screen.
     private BufferedImage backgroundImage;
 
+    // Frame the scene is drawn into before it is copied to the screen.
+    private Framebuffer frame;
+
     // Constructor for the PlayScreen class.
     // Initializes the parent reference, layout, and font.
     public PlayScreen(GamePanel parent) {
@@ -48,20 +51,27 @@ public class PlayScreen extends JPanel {
         // Create a Graphics2D object for advanced rendering.
         Graphics2D g2 = (Graphics2D) g.create();
 
-        // Fill the background with a dark gray color.
-        g2.setColor(Color.BLACK);
-        g2.fillRect(0, 0, getWidth(), getHeight());
+        // Draw the scene into the frame, remaking it if the screen changed size.
+        if (frame == null || frame.getWidth() != getWidth() || frame.getHeight() != getHeight()) {
+            frame = new Framebuffer(Math.max(1, getWidth()), Math.max(1, getHeight()));
+        }
+        frame.clear(Color.BLACK);
 
         // Draw the player character.
-        PARENT.player.draw(g2);
+        PARENT.player.draw(frame);
 
         // Draw all enemy entities.
         for (Enemy enemy : PARENT.enemies) {
-            enemy.draw(g2);
+            enemy.draw(frame);
         }
 
+        // Copy the scene to the screen, then draw text and UI over it.
+        frame.present(g2, 0, 0);
+        PARENT.damageNumbers.draw(g2);
+
         // Draw the HUD (Heads-Up Display) with the current screen width.
         PARENT.hud.draw(g2, getWidth());
+        g2.dispose();
     }
 
     // Override the invalidate method to handle layout invalidation.
@@ -6,13 +6,10 @@
 
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.*;
-import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.*;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class Player extends Entity {
@@ -22,11 +19,20 @@ public class Player extends Entity {
     private final LightLance lightLance;
     private final PhotonOrbs photonOrbs;
     private final GamePanel parent;
+    // Width and height the player is drawn at
+    public static final int SIZE = 70;
+    // Running animation frames; the first one doubles as the idle sprite
+    static final String[] RUN_FRAMES = {
+            SpriteAtlas.SPRITE_DIR + "MCrun1.png",
+            SpriteAtlas.SPRITE_DIR + "MCrun2.png",
+            SpriteAtlas.SPRITE_DIR + "MCrun3.png" };
       // Animation related variables
     private BufferedImage[] runSprites;
     private BufferedImage idleSprite;
-    private int currentSpriteIndex = 0;
-    private long lastAnimationUpdate = 0;
+    private CompletableFuture<SpriteAtlas.Animation> runFrames; // Run frames being loaded by the preloader
+    private CompletableFuture<SpriteAtlas.Animation> idleFrames;
+    private SpriteAtlas.Animation runAnimation; // Run frames at draw size, with mirrored copies
+    private SpriteAtlas.Animation idleAnimation;
     private static final long ANIMATION_DELAY = 150; // milliseconds between frames
     private boolean isMoving = false;
     
@@ -42,6 +48,7 @@ public class Player extends Entity {
         super(x, y, width, height, max_hp, max_speed, sprites);
         this.skills = new HashMap<>(); // Initialize the skills map
         this.parent = parent; // Store the reference to the parent GamePanel
+        setCollision(CollisionLayer.PLAYER, CollisionLayer.PLAYER_MASK);
 
         // Initialize the Luminous Pulse skill
         this.luminousPulse = new LuminousPulse(this);
@@ -58,48 +65,43 @@ public class Player extends Entity {
         // Load sprite images
         loadSprites();
     }    /**
-     * Loads player sprite images from the assets folder
+     * Starts loading player sprite images from the assets folder in the background
      */
     private void loadSprites() {
-        try {
-            // Load the running animation sprites (3 frames)
-            runSprites = new BufferedImage[3];
-            runSprites[0] = ImageIO.read(getClass().getResourceAsStream("/assets/images/sprites/MCrun1.png"));
-            runSprites[1] = ImageIO.read(getClass().getResourceAsStream("/assets/images/sprites/MCrun2.png"));
-            runSprites[2] = ImageIO.read(getClass().getResourceAsStream("/assets/images/sprites/MCrun3.png"));
-            
-            // We'll use MCrun1.png as idle sprite for now
-            idleSprite = ImageIO.read(getClass().getResourceAsStream("/assets/images/sprites/MCrun1.png"));
-            
-            // Resize sprites to match player dimensions
-            for (int i = 0; i < runSprites.length; i++) {
-                runSprites[i] = resizeImage(runSprites[i], WIDTH, HEIGHT);
-            }
-            idleSprite = resizeImage(idleSprite, WIDTH, HEIGHT);
-            
+        // Load the running animation sprites (3 frames), already at the player's
+        // size and mirrored for facing right
+        runFrames = AssetPreloader.animation(RUN_FRAMES, WIDTH, HEIGHT);
+
+        // We'll use MCrun1.png as idle sprite for now
+        idleFrames = AssetPreloader.animation(new String[] { RUN_FRAMES[0] }, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Picks up the sprites once the preloader has finished them, without
+     * blocking the paint. If either failed to load, the placeholder sprites are
+     * built once and kept, so the load is not tried again
+     *
+     * @return true once the player has sprites to draw
+     */
+    private boolean pollSprites() {
+        if (runAnimation != null) {
+            return true;
+        }
+        if (!runFrames.isDone() || !idleFrames.isDone()) {
+            return false;
+        }
+        runAnimation = AssetPreloader.now(runFrames);
+        idleAnimation = AssetPreloader.now(idleFrames);
+
+        if (runAnimation != null && idleAnimation != null) {
             System.out.println("Successfully loaded player sprites");
-        } catch (IOException e) {
-            System.err.println("Error loading player sprites: " + e.getMessage());
+        } else {
             // Create placeholder sprites if loading fails
             createPlaceholderSprites();
+            runAnimation = SpriteAtlas.fromImages(runSprites, WIDTH, HEIGHT);
+            idleAnimation = SpriteAtlas.fromImages(new BufferedImage[] { idleSprite }, WIDTH, HEIGHT);
         }
-    }
-    
-    /**
-     * Resizes an image to the specified width and height
-     * 
-     * @param originalImage The image to resize
-     * @param targetWidth The target width
-     * @param targetHeight The target height
-     * @return The resized image
-     */
-    private BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) {
-        BufferedImage resizedImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = resizedImage.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(originalImage, 0, 0, targetWidth, targetHeight, null);
-        g.dispose();
-        return resizedImage;
+        return true;
     }
       /**
      * Creates visually distinct placeholder sprites if image loading fails
@@ -166,22 +168,6 @@ public class Player extends Entity {
         
         // Check if player is moving for animation purposes
         isMoving = Math.abs(getXVelocity()) > 0 || Math.abs(getYVelocity()) > 0;
-        
-        // Update animation frame if player is moving
-        updateAnimation();
-    }
-    
-    /**
-     * Updates the animation frame based on player movement
-     */
-    private void updateAnimation() {
-        long currentTime = System.currentTimeMillis();
-        
-        // Only update animation if player is moving and enough time has passed
-        if (isMoving && currentTime - lastAnimationUpdate > ANIMATION_DELAY) {
-            currentSpriteIndex = (currentSpriteIndex + 1) % runSprites.length;
-            lastAnimationUpdate = currentTime;
-        }
     }    // Method to handle key press events for player movement
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyChar()) {
@@ -260,77 +246,70 @@ public class Player extends Entity {
         else if (y > GamePanel.GAME_HEIGHT) {
             y = -HEIGHT;
         }
-    } // Override the draw method to render the player on the screen
+    } // Draws the player and its skill effects into the frame
     @Override
-    public void draw(Graphics g) {
+    public void draw(Framebuffer frame) {
         // Get the mouse position relative to the game panel
         Point mousePosition = MouseInfo.getPointerInfo().getLocation();
         SwingUtilities.convertPointFromScreen(mousePosition, parent);
         
-        Graphics2D g2d = (Graphics2D) g; // Cast Graphics to Graphics2D for advanced drawing        // Draw the Luminous Pulse effect beneath the player
+        // Draw the Luminous Pulse effect beneath the player
         if (luminousPulse != null) {
-            luminousPulse.draw(g2d);
+            luminousPulse.draw(frame);
         } 
         
         // Update Light Lance aim angle and draw it
         if (lightLance != null) {
             lightLance.setMousePosition(mousePosition);
-            lightLance.draw(g2d);
+            lightLance.draw(frame);
         }
         
         // Draw Photon Orbs
         if (photonOrbs != null) {
-            photonOrbs.draw(g2d);
+            photonOrbs.draw(frame);
         }
         
-        // Get current sprite based on state
-        BufferedImage currentSprite;
+        // Nothing to draw until the sprites finish loading
+        if (!pollSprites()) {
+            return;
+        }
+
+        // Get current sprite based on state; the run frame comes from the shared
+        // animation clock and the facing picks the pre-mirrored copy
+        Framebuffer.Sprite currentSprite;
         if (isMoving) {
-            currentSprite = runSprites[currentSpriteIndex];
+            int index = AnimationClock.frame(runAnimation.getFrameCount(), ANIMATION_DELAY, 0);
+            currentSprite = runAnimation.getSprite(index, isFacingRight());
         } else {
-            currentSprite = idleSprite;
+            currentSprite = idleAnimation.getSprite(0, isFacingRight());
         }
         
-        // Apply transformations based on direction
-        BufferedImage directedSprite = getDirectionalSprite(currentSprite);
-        
         // Draw sprite at the player's position with proper orientation
-        g2d.drawImage(directedSprite, x, y, WIDTH, HEIGHT, null);
+        frame.drawSprite(Framebuffer.LAYER_PLAYER, currentSprite, x, y);
     }
     /**
-     * Returns a directionally appropriate sprite based on the player's movement direction
+     * Works out which way the player faces. The sprite art faces left, so
+     * facing right draws the mirrored frames
      * 
-     * @param sprite The original sprite to transform
-     * @return The transformed sprite based on current direction
+     * @return true if the player faces right
      */
-    private BufferedImage getDirectionalSprite(BufferedImage sprite) {
+    private boolean isFacingRight() {
         // Check horizontal direction priority
         if (getXVelocity() > 0) {
             // Moving right (or diagonally right)
-            return flipImageHorizontally(sprite);
+            return true;
         } else if (getXVelocity() < 0) {
             // Moving left (or diagonally left)
-            return sprite;
+            return false;
         } else {
             // No horizontal movement, use the last horizontal direction
-            if (currentDirection == Direction.LEFT) {
-                return sprite;
-            } else {
-                return flipImageHorizontally(sprite);
-            }
+            return currentDirection != Direction.LEFT;
         }
     }
-    /**
-     * Helper method to flip an image horizontally (for left/right facing sprites)
-     * 
-     * @param image The image to flip
-     * @return The flipped image
-     */
-    private BufferedImage flipImageHorizontally(BufferedImage image) {
-        AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
-        tx.translate(-image.getWidth(null), 0);
-        AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-        return op.filter(image, null);
+
+    // Returns the handle table used to look up enemies
+    public EnemyHandles getEnemyHandles() {
+        return parent.enemyHandles;
     }
 
     // Method to get a skill by name
@@ -0,0 +1,64 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class draws a menu screen's faded background. The image is scaled to the screen and
+* faded over the game panel's black once, into an opaque image in the screen's format, and only redone when
+* the screen changes size, so each repaint is one unscaled copy with no blending
+*/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+
+public class ScreenBackground {
+    private final CompletableFuture<BufferedImage> source; // The background as loaded
+    private final float alpha; // How opaque the background is drawn
+    private BufferedImage rendered; // Scaled and faded copy for the current screen size
+
+    public ScreenBackground(CompletableFuture<BufferedImage> source, float alpha) {
+        this.source = source;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Draws the background over the whole screen, rendering it first if the
+     * screen size changed. Draws nothing while the image is still loading.
+     *
+     * @param g      The graphics context
+     * @param width  The screen width
+     * @param height The screen height
+     */
+    public void draw(Graphics2D g, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (rendered == null || rendered.getWidth() != width || rendered.getHeight() != height) {
+            BufferedImage image = AssetPreloader.now(source);
+            if (image == null) {
+                return;
+            }
+            rendered = render(image, width, height);
+        }
+        g.drawImage(rendered, 0, 0, null);
+    }
+
+    // Scales the image to the screen and fades it over black, the color the
+    // game panel fills in behind every screen
+    private BufferedImage render(BufferedImage image, int width, int height) {
+        BufferedImage copy;
+        if (GraphicsEnvironment.isHeadless()) {
+            copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        } else {
+            copy = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        Graphics2D g = copy.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setComposite(AlphaComposite.SrcOver.derive(alpha));
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return copy;
+    }
+}
@@ -10,6 +10,9 @@ public class Skill {
     private int cooldownTime;
     private long lastActivationTime;
     private boolean isPassive;
+    // Collision layer of what the skill fires and the layers it can hit
+    private int collisionLayer = CollisionLayer.PLAYER_PROJECTILE;
+    private int collisionMask = CollisionLayer.PLAYER_PROJECTILE_MASK;
     
     public Skill(String name, int level, int cooldownTime, boolean isPassive) {
         this.name = name;
@@ -46,4 +49,15 @@ public class Skill {
     public int getCooldownTime() {
         return cooldownTime;
     }
+    
+    public void setCollision(int layer, int mask) {
+        collisionLayer = layer;
+        collisionMask = mask;
+    }
+    
+    // Whether the skill's hits should be tested against this entity at all
+    public boolean canHit(Entity target) {
+        return CollisionLayer.canCollide(collisionLayer, collisionMask,
+                target.getCollisionLayer(), target.getCollisionMask());
+    }
 }
@@ -0,0 +1,168 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class bins packed positions into a uniform grid with a counting sort, so neighbour
+* queries only look at the cells around a point instead of at every enemy. Each cell also keeps the union of
+* its bodies' collision layers and masks, so queries skip cells that hold nothing the asker can collide with
+*/
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class SpatialGrid implements Broadphase {
+    // Cells added around the play area so enemies slightly off screen still land in a cell
+    private static final int BORDER_CELLS = 2;
+
+    // Side length of one cell in pixels
+    private final float cellSize;
+    private final float inverseCellSize;
+    // Number of cell columns and rows, including the border
+    private final int columns, rows;
+
+    // cellStart[c] to cellStart[c + 1] is the range of cellItems that belong to cell c
+    private final int[] cellStart;
+    // Packed slot indices ordered by cell
+    private int[] cellItems = new int[64];
+    // Cell of each packed slot from the last build
+    private int[] itemCell = new int[64];
+    // Collision layer and mask of each entry of cellItems, in the same order
+    private int[] itemLayer = new int[64], itemMask = new int[64];
+    // Union of the layers and of the masks of the bodies in each cell
+    private final int[] cellLayers, cellMasks;
+    // Largest radius seen by the last update; queries are padded by it because
+    // bodies are binned by their centre only
+    private float maxRadius;
+
+    // Creates a grid covering the given world size with the given cell size
+    public SpatialGrid(int worldWidth, int worldHeight, float cellSize) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        this.columns = (int) Math.ceil(worldWidth / cellSize) + BORDER_CELLS * 2;
+        this.rows = (int) Math.ceil(worldHeight / cellSize) + BORDER_CELLS * 2;
+        this.cellStart = new int[columns * rows + 1];
+        this.cellLayers = new int[columns * rows];
+        this.cellMasks = new int[columns * rows];
+    }
+
+    // Bins the first count positions with their collision layers and masks. Two
+    // passes over the points and one over the cells, no allocation once the
+    // arrays have grown to fit
+    public void build(float[] xs, float[] ys, int[] layers, int[] masks, int count) {
+        if (cellItems.length < count) {
+            cellItems = new int[Math.max(count, cellItems.length * 2)];
+            itemCell = new int[cellItems.length];
+            itemLayer = new int[cellItems.length];
+            itemMask = new int[cellItems.length];
+        }
+        Arrays.fill(cellStart, 0);
+        Arrays.fill(cellLayers, 0);
+        Arrays.fill(cellMasks, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(xs[i], ys[i]);
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+            cellLayers[cell] |= layers[i];
+            cellMasks[cell] |= masks[i];
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // cellStart[c + 1] now holds the end of cell c. Fill each cell from its end
+        // backwards, which leaves cellStart[c + 1] holding the start of cell c and
+        // keeps the slots of a cell in ascending order
+        for (int i = count - 1; i >= 0; i--) {
+            int k = --cellStart[itemCell[i] + 1];
+            cellItems[k] = i;
+            itemLayer[k] = layers[i];
+            itemMask[k] = masks[i];
+        }
+        // Shift the table down one so cellStart[c] is the start of cell c
+        System.arraycopy(cellStart, 1, cellStart, 0, columns * rows);
+        cellStart[columns * rows] = count;
+    }
+
+    @Override
+    public void update(float[] xs, float[] ys, float[] radii, int[] keys, int[] layers, int[] masks, int count) {
+        float largest = 0f;
+        for (int i = 0; i < count; i++) {
+            largest = Math.max(largest, radii[i]);
+        }
+        maxRadius = largest;
+        build(xs, ys, layers, masks, count);
+    }
+
+    @Override
+    public void query(float minX, float minY, float maxX, float maxY, int layer, int mask, IntConsumer visitor) {
+        int column0 = columnOf(minX - maxRadius);
+        int column1 = columnOf(maxX + maxRadius);
+        int row0 = rowOf(minY - maxRadius);
+        int row1 = rowOf(maxY + maxRadius);
+        for (int r = row0; r <= row1; r++) {
+            for (int c = column0; c <= column1; c++) {
+                int cell = r * columns + c;
+                if (!cellAccepts(cell, layer, mask)) {
+                    continue;
+                }
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    if (entryAccepts(k, layer, mask)) {
+                        visitor.accept(cellItems[k]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Column of a world x coordinate, clamped to the grid
+    public int columnOf(float x) {
+        int column = (int) Math.floor(x * inverseCellSize) + BORDER_CELLS;
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    // Row of a world y coordinate, clamped to the grid
+    public int rowOf(float y) {
+        int row = (int) Math.floor(y * inverseCellSize) + BORDER_CELLS;
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    // Cell index of a world position
+    public int cellOf(float x, float y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    // First entry of a cell in getCellItems()
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    // One past the last entry of a cell in getCellItems()
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    // Whether any body in a cell might collide with the given layer and mask
+    public boolean cellAccepts(int cell, int layer, int mask) {
+        return CollisionLayer.canCollide(layer, mask, cellLayers[cell], cellMasks[cell]);
+    }
+
+    // Whether the body at an entry of getCellItems() collides with the given layer and mask
+    public boolean entryAccepts(int k, int layer, int mask) {
+        return CollisionLayer.canCollide(layer, mask, itemLayer[k], itemMask[k]);
+    }
+
+    // Slot indices ordered by cell; only valid until the next build
+    public int[] getCellItems() {
+        return cellItems;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class keeps the enemy list sorted along a Morton (Z-order) curve so enemies that are
+* close on screen are also close in memory
+*/
+
+import java.util.Comparator;
+import java.util.List;
+
+public class SpatialOrder {
+    // Size of a Morton cell in pixels
+    private static final float CELL_SIZE = 32f;
+    // Offset added before binning so enemies just past the left/top edge still get valid cells
+    private static final float EDGE_MARGIN = 128f;
+    // Ticks between forced re-sorts
+    private static final int RESORT_INTERVAL = 120;
+    // Ticks between disorder checks
+    private static final int CHECK_INTERVAL = 10;
+    // Fraction of out-of-order neighbours in the list that triggers an early re-sort
+    private static final float DISORDER_THRESHOLD = 0.3f;
+
+    // Orders enemies by the key cached on them just before sorting
+    private static final Comparator<Enemy> BY_KEY = Comparator.comparingInt(Enemy::getSpatialKey);
+
+    // Tick of the last sort. Starts one interval back so the first step sorts,
+    // without the subtraction in maybeReorder overflowing
+    private long lastSortTick = -RESORT_INTERVAL;
+
+    /**
+     * Re-sorts the enemy list if enough ticks have passed or its order has drifted
+     * too far from the Z-order curve. Only the list order changes, so every Enemy
+     * reference held by skills and orbs stays valid. Returns true if it sorted.
+     */
+    public boolean maybeReorder(List<Enemy> enemies, long tick) {
+        boolean due = tick - lastSortTick >= RESORT_INTERVAL;
+        if (!due && (tick % CHECK_INTERVAL != 0 || disorder(enemies) < DISORDER_THRESHOLD)) {
+            return false;
+        }
+        for (Enemy enemy : enemies) {
+            enemy.setSpatialKey(mortonKey(enemy.getCenterX(), enemy.getCenterY()));
+        }
+        // CopyOnWriteArrayList swaps in the sorted array in one step, so the paint
+        // thread never sees a half-sorted list
+        enemies.sort(BY_KEY);
+        lastSortTick = tick;
+        return true;
+    }
+
+    /**
+     * Fraction of adjacent list entries whose Morton keys are in the wrong order.
+     * 0 means fully sorted; a random order is around 0.5.
+     */
+    public static float disorder(List<Enemy> enemies) {
+        int n = enemies.size();
+        if (n < 2) {
+            return 0f;
+        }
+        int outOfOrder = 0;
+        int previous = Integer.MIN_VALUE;
+        for (Enemy enemy : enemies) {
+            int key = mortonKey(enemy.getCenterX(), enemy.getCenterY());
+            if (key < previous) {
+                outOfOrder++;
+            }
+            previous = key;
+        }
+        return outOfOrder / (float) (n - 1);
+    }
+
+    // Interleaves the bits of the cell column and row into a Z-order key
+    public static int mortonKey(double x, double y) {
+        int col = Math.max(0, Math.min(0x7FFF, (int) ((x + EDGE_MARGIN) / CELL_SIZE)));
+        int row = Math.max(0, Math.min(0x7FFF, (int) ((y + EDGE_MARGIN) / CELL_SIZE)));
+        return spreadBits(col) | (spreadBits(row) << 1);
+    }
+
+    // Spreads the low 15 bits of v out to every other bit
+    private static int spreadBits(int v) {
+        v &= 0x7FFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+}
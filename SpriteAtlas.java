@@ -0,0 +1,286 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class loads sprite frames into the sprite cache, scales them to the size they are drawn
+* at, converts them to the screen's pixel format and mirrors them, so drawing a sprite is a single unscaled copy
+*/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+public final class SpriteAtlas {
+    // Folder the sprite frames are loaded from
+    public static final String SPRITE_DIR = "/assets/images/sprites/";
+    // How long each enemy frame is shown
+    private static final long ENEMY_FRAME_MILLIS = 250;
+
+    // Cache keys of each enemy kind's frames, and the kinds whose frames could
+    // not be loaded, so they are not tried again every draw
+    private static final Map<EnemyArchetype, String> ARCHETYPE_KEYS = new EnumMap<>(EnemyArchetype.class);
+    private static final Set<EnemyArchetype> MISSING = ConcurrentHashMap.newKeySet();
+
+    static {
+        for (EnemyArchetype type : EnemyArchetype.values()) {
+            ARCHETYPE_KEYS.put(type, "archetype:" + type.name());
+        }
+    }
+
+    // Private constructor to prevent instantiation of this utility class
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Returns the frames at the given paths scaled to exactly the given size,
+     * loading them now if they are not in the sprite cache.
+     *
+     * @param paths  Resource paths of the frames, in order
+     * @param width  The width the frames are drawn at
+     * @param height The height the frames are drawn at
+     * @return The animation, or null if a frame could not be loaded
+     */
+    public static Animation get(String[] paths, int width, int height) {
+        String key = String.join("|", paths) + "@" + width + "x" + height;
+        Animation animation = SpriteCache.get(key);
+        if (animation == null) {
+            try {
+                animation = SpriteCache.put(key, load(paths, width, height));
+            } catch (IOException e) {
+                System.err.println("Error loading sprites " + paths[0] + ": " + e.getMessage());
+                return null;
+            }
+        }
+        return animation;
+    }
+
+    // Wraps frames that were drawn in code, such as placeholders, scaling and
+    // mirroring them the same way as loaded frames
+    public static Animation fromImages(BufferedImage[] images, int width, int height) {
+        BufferedImage[] frames = new BufferedImage[images.length];
+        BufferedImage[] mirrored = new BufferedImage[images.length];
+        for (int i = 0; i < images.length; i++) {
+            frames[i] = scale(images[i], width, height, false);
+            mirrored[i] = scale(images[i], width, height, true);
+        }
+        return new Animation(frames, mirrored);
+    }
+
+    // Returns the frames of an enemy kind at its on-screen height, keeping the
+    // art's proportions, loading them now if they are not cached
+    public static Animation forArchetype(EnemyArchetype type) {
+        String key = ARCHETYPE_KEYS.get(type);
+        Animation animation = SpriteCache.get(key);
+        if (animation == null) {
+            animation = loadArchetype(type);
+            if (animation != null) {
+                animation = SpriteCache.put(key, animation);
+            }
+        }
+        return animation;
+    }
+
+    // Returns the frames of an enemy kind if they are cached. Otherwise queues
+    // them on the loader thread and returns null, so drawing never waits on a
+    // decode
+    public static Animation peekArchetype(EnemyArchetype type) {
+        String key = ARCHETYPE_KEYS.get(type);
+        Animation animation = SpriteCache.get(key);
+        if (animation == null && !MISSING.contains(type)) {
+            SpriteCache.prefetch(key, () -> loadArchetype(type));
+        }
+        return animation;
+    }
+
+    // Queues the frames of every kind that can spawn in a wave on the loader
+    // thread, so they are decoded before that wave starts
+    public static void prefetchWave(int wave) {
+        for (EnemyArchetype type : EnemyArchetype.forWave(wave)) {
+            if (!MISSING.contains(type)) {
+                SpriteCache.prefetch(ARCHETYPE_KEYS.get(type), () -> loadArchetype(type));
+            }
+        }
+    }
+
+    // Picks the current frame of an enemy animation from the shared clock
+    public static int enemyFrame(Animation animation, int phase) {
+        return AnimationClock.frame(animation.getFrameCount(), ENEMY_FRAME_MILLIS, phase);
+    }
+
+    // Reads an enemy kind's frames at its sprite height, remembering kinds that
+    // fail so they fall back to the plain box
+    private static Animation loadArchetype(EnemyArchetype type) {
+        String[] paths = type.getFramePaths();
+        Dimension size = sizeOf(paths[0], type.getSpriteHeight());
+        try {
+            if (size == null) {
+                throw new IOException("missing " + paths[0]);
+            }
+            return load(paths, size.width, size.height);
+        } catch (IOException e) {
+            System.err.println("Error loading sprites " + paths[0] + ": " + e.getMessage());
+            MISSING.add(type);
+            return null;
+        }
+    }
+
+    // Works out the size of an image scaled to the given height, from the asset
+    // pack if it holds the image or else by reading only the image header
+    private static Dimension sizeOf(String path, int height) {
+        Dimension packed = AssetPack.get().sizeOf(path, height);
+        if (packed != null) {
+            return packed;
+        }
+        try (InputStream in = SpriteAtlas.class.getResourceAsStream(path);
+                ImageInputStream stream = in == null ? null : ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream);
+                return new Dimension(widthFor(reader.getWidth(0), reader.getHeight(0), height), height);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Width of an image of the given size scaled to the given height
+    static int widthFor(int sourceWidth, int sourceHeight, int height) {
+        return Math.max(1, Math.round(sourceWidth * height / (float) sourceHeight));
+    }
+
+    // Reads, scales and mirrors every frame. Frames the asset pack holds at this
+    // size are only mirrored
+    private static Animation load(String[] paths, int width, int height) throws IOException {
+        BufferedImage[] frames = new BufferedImage[paths.length];
+        BufferedImage[] mirrored = new BufferedImage[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            BufferedImage packed = AssetPack.get().getImage(paths[i], width, height);
+            if (packed != null) {
+                frames[i] = packed;
+                mirrored[i] = scale(packed, width, height, true);
+                continue;
+            }
+            BufferedImage source;
+            try (InputStream in = SpriteAtlas.class.getResourceAsStream(paths[i])) {
+                if (in == null) {
+                    throw new IOException("missing " + paths[i]);
+                }
+                source = ImageIO.read(in);
+            }
+            if (source == null) {
+                throw new IOException("unreadable " + paths[i]);
+            }
+            frames[i] = scale(source, width, height, false);
+            mirrored[i] = scale(source, width, height, true);
+        }
+        return new Animation(frames, mirrored);
+    }
+
+    /**
+     * Draws an image into a new screen-format image of the given size, optionally
+     * flipped left to right. Large reductions are done in halving steps, since a
+     * single bilinear pass skips most of the source pixels.
+     *
+     * @param source The image to copy
+     * @param width  The new width
+     * @param height The new height
+     * @param mirror Whether to flip the copy horizontally
+     * @return The scaled copy
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height, boolean mirror) {
+        while (source.getWidth() >= width * 2 && source.getHeight() >= height * 2) {
+            int halfWidth = source.getWidth() / 2;
+            int halfHeight = source.getHeight() / 2;
+            BufferedImage half = new BufferedImage(halfWidth, halfHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = half.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, halfWidth, halfHeight, null);
+            g.dispose();
+            source = half;
+        }
+        BufferedImage image = EffectAtlas.createTranslucentImage(width, height);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setComposite(AlphaComposite.Src);
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        if (mirror) {
+            g.drawImage(source, 0, 0, width, height, sourceWidth, 0, 0, sourceHeight, null);
+        } else {
+            g.drawImage(source, 0, 0, width, height, 0, 0, sourceWidth, sourceHeight, null);
+        }
+        g.dispose();
+        return image;
+    }
+
+    // The frames of one animation and their mirror images, as images and as
+    // framebuffer sprites. The sprites are copied here, on whichever thread loads
+    // the animation, so the first draw doesn't have to
+    public static final class Animation {
+        private final BufferedImage[] frames;
+        private final BufferedImage[] mirrored;
+        private final Framebuffer.Sprite[] frameSprites;
+        private final Framebuffer.Sprite[] mirroredSprites;
+
+        Animation(BufferedImage[] frames, BufferedImage[] mirrored) {
+            this.frames = frames;
+            this.mirrored = mirrored;
+            frameSprites = new Framebuffer.Sprite[frames.length];
+            mirroredSprites = new Framebuffer.Sprite[frames.length];
+            for (int i = 0; i < frames.length; i++) {
+                frameSprites[i] = Framebuffer.Sprite.of(frames[i]);
+                mirroredSprites[i] = Framebuffer.Sprite.of(mirrored[i]);
+            }
+        }
+
+        public int getFrameCount() {
+            return frames.length;
+        }
+
+        public int getWidth() {
+            return frames[0].getWidth();
+        }
+
+        public int getHeight() {
+            return frames[0].getHeight();
+        }
+
+        // Bytes of pixel data held by the frames and their mirror images, each
+        // kept both as an image and as a sprite
+        public long getByteSize() {
+            long size = 0;
+            for (BufferedImage frame : frames) {
+                size += (long) frame.getWidth() * frame.getHeight() * 4;
+            }
+            return size * 4;
+        }
+
+        // Returns a frame, flipped left to right if asked
+        public BufferedImage getFrame(int index, boolean mirror) {
+            return mirror ? mirrored[index] : frames[index];
+        }
+
+        // Returns a frame as a framebuffer sprite, flipped left to right if asked
+        public Framebuffer.Sprite getSprite(int index, boolean mirror) {
+            return mirror ? mirroredSprites[index] : frameSprites[index];
+        }
+    }
+}
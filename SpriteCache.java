@@ -0,0 +1,121 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class holds decoded sprite animations within a fixed memory budget, dropping the least
+* recently drawn ones first, and decodes sprites on a background thread ahead of the wave that needs them
+*/
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+public final class SpriteCache {
+    // Memory the cached pixels may use; start with -Dendlessnight.spriteCacheMB=n
+    // to change it
+    private static final long BUDGET_BYTES = Long.getLong("endlessnight.spriteCacheMB", 16L) << 20;
+
+    // Cached animations in least to most recently used order
+    private static final LinkedHashMap<String, SpriteAtlas.Animation> ENTRIES = new LinkedHashMap<>(64, 0.75f, true);
+    // Keys queued on the loader thread, so a sprite is only decoded once
+    private static final Set<String> PENDING = new HashSet<>();
+    // Decodes prefetched sprites away from the game and paint threads
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "sprite-loader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static long bytes;
+    private static int evictions;
+
+    // Private constructor to prevent instantiation of this utility class
+    private SpriteCache() {
+    }
+
+    // Returns a cached animation and marks it as just used, or null if it is not
+    // loaded
+    public static synchronized SpriteAtlas.Animation get(String key) {
+        return ENTRIES.get(key);
+    }
+
+    /**
+     * Adds an animation, then drops the least recently used ones until the cache
+     * fits its budget again. The new entry is never dropped, so one animation
+     * larger than the whole budget still gets drawn.
+     *
+     * @param key       The key the animation is looked up by
+     * @param animation The loaded animation
+     * @return The cached animation, which is an earlier copy if another thread
+     *         loaded the same key first
+     */
+    public static synchronized SpriteAtlas.Animation put(String key, SpriteAtlas.Animation animation) {
+        SpriteAtlas.Animation existing = ENTRIES.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        ENTRIES.put(key, animation);
+        bytes += animation.getByteSize();
+        Iterator<Map.Entry<String, SpriteAtlas.Animation>> oldest = ENTRIES.entrySet().iterator();
+        while (bytes > BUDGET_BYTES && ENTRIES.size() > 1) {
+            Map.Entry<String, SpriteAtlas.Animation> entry = oldest.next();
+            bytes -= entry.getValue().getByteSize();
+            oldest.remove();
+            evictions++;
+        }
+        return animation;
+    }
+
+    /**
+     * Loads an animation on the background thread unless it is already cached or
+     * queued. Cached entries are marked as used, so sprites a wave is about to
+     * need move to the back of the eviction order.
+     *
+     * @param key    The key the animation is cached under
+     * @param loader Loads the animation, returning null if it cannot be loaded
+     */
+    public static void prefetch(String key, Supplier<SpriteAtlas.Animation> loader) {
+        synchronized (SpriteCache.class) {
+            if (ENTRIES.get(key) != null || !PENDING.add(key)) {
+                return;
+            }
+        }
+        LOADER.execute(() -> {
+            try {
+                SpriteAtlas.Animation animation = loader.get();
+                if (animation != null) {
+                    put(key, animation);
+                }
+            } finally {
+                synchronized (SpriteCache.class) {
+                    PENDING.remove(key);
+                }
+            }
+        });
+    }
+
+    // Bytes of pixel data currently cached
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    public static long getBudgetBytes() {
+        return BUDGET_BYTES;
+    }
+
+    // Number of animations dropped to stay within the budget so far
+    public static synchronized int getEvictionCount() {
+        return evictions;
+    }
+
+    // Drops every cached animation
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        bytes = 0;
+    }
+}
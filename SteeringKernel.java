@@ -0,0 +1,117 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class holds the float math behind enemy separation and speed clamping, run over the
+* packed crowd arrays
+*/
+
+public final class SteeringKernel {
+    // Vector API version of the kernels, or null to use the plain scalar loops.
+    // Opt in with -Dendlessnight.simd=true; it also needs SteeringKernelSimd built
+    // from simd/ (see runSimd.bat) and --add-modules jdk.incubator.vector on the
+    // java command line, otherwise the scalar loops are kept
+    private static final Vectorized SIMD = Boolean.getBoolean("endlessnight.simd") ? loadSimd() : null;
+    public static final boolean USE_SIMD = SIMD != null;
+
+    // The kernels SteeringKernelSimd provides. It is compiled on its own against
+    // the incubator module, so nothing here names it directly
+    interface Vectorized {
+        // Same result as separationScalar over slots 0 to count
+        int separation(float[] xs, float[] ys, int count, float px, float py, float radius, float weight,
+                float[] out);
+
+        // Same result as clampLengthsScalar over slots 0 to count
+        void clampLengths(float[] xs, float[] ys, int count, float maxLength);
+    }
+
+    // Private constructor to prevent instantiation of this utility class
+    private SteeringKernel() {
+    }
+
+    /**
+     * Sums the inverse-square push away from every neighbour inside the radius.
+     * Writes the push into out[0] and out[1] and returns how many neighbours
+     * contributed.
+     */
+    public static int separation(CrowdBuffer crowd, int self, float radius, float weight, float[] out) {
+        if (USE_SIMD) {
+            return SIMD.separation(crowd.x, crowd.y, crowd.count, crowd.x[self], crowd.y[self], radius, weight, out);
+        }
+        return separationScalar(crowd.x, crowd.y, 0, crowd.count, crowd.x[self], crowd.y[self], radius, weight, out);
+    }
+
+    /**
+     * Scalar fallback. One neighbour per iteration, same math as the old per-object
+     * loop: push = (d / |d|) * weight * radius / |d|^2. Covers the packed slots
+     * from (inclusive) to to (exclusive).
+     */
+    public static int separationScalar(float[] xs, float[] ys, int from, int to, float px, float py, float radius,
+            float weight, float[] out) {
+        float radiusSq = radius * radius;
+        float scale = weight * radius;
+        float sepX = 0f;
+        float sepY = 0f;
+        int neighbours = 0;
+        for (int j = from; j < to; j++) {
+            float dx = px - xs[j];
+            float dy = py - ys[j];
+            float distSq = dx * dx + dy * dy;
+            // A zero distance is the enemy itself (or an exact overlap), both are skipped
+            if (distSq > 0f && distSq < radiusSq) {
+                float dist = (float) Math.sqrt(distSq);
+                float factor = scale / (distSq * dist);
+                sepX += dx * factor;
+                sepY += dy * factor;
+                neighbours++;
+            }
+        }
+        out[0] = sepX;
+        out[1] = sepY;
+        return neighbours;
+    }
+
+    /**
+     * Limits the length of every vector (xs[i], ys[i]) in slots 0 to count to
+     * maxLength, in place.
+     */
+    public static void clampLengths(float[] xs, float[] ys, int count, float maxLength) {
+        if (USE_SIMD) {
+            SIMD.clampLengths(xs, ys, count, maxLength);
+        } else {
+            clampLengthsScalar(xs, ys, 0, count, maxLength);
+        }
+    }
+
+    // Scalar fallback for clampLengths, covering slots from (inclusive) to to (exclusive)
+    public static void clampLengthsScalar(float[] xs, float[] ys, int from, int to, float maxLength) {
+        float maxSq = maxLength * maxLength;
+        for (int i = from; i < to; i++) {
+            float lenSq = xs[i] * xs[i] + ys[i] * ys[i];
+            if (lenSq > maxSq) {
+                float ratio = maxLength / (float) Math.sqrt(lenSq);
+                xs[i] *= ratio;
+                ys[i] *= ratio;
+            }
+        }
+    }
+
+    // Checks whether the incubating Vector API module was added to this JVM
+    static boolean simdAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    // Loads the Vector API kernels, or returns null if the module is missing or
+    // SteeringKernelSimd was not built
+    static Vectorized loadSimd() {
+        if (!simdAvailable()) {
+            return null;
+        }
+        try {
+            return Class.forName("SteeringKernelSimd").asSubclass(Vectorized.class).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("SIMD steering kernel not available, using the scalar loops: " + e);
+            return null;
+        }
+    }
+}
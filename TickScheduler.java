@@ -0,0 +1,203 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class runs one simulation tick as a graph of tasks. Each task names the shared state
+* it reads and writes, and tasks that do not conflict run at the same time on a work-stealing pool
+*/
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class TickScheduler {
+    // Weight of the newest sample in each task's moving average run time
+    private static final double TIMING_SMOOTHING = 0.05;
+
+    /**
+     * A single system in the tick, with the names of the shared state it reads and
+     * writes and its measured run time.
+     */
+    public static final class Task {
+        private final String name;
+        private final List<String> reads;
+        private final List<String> writes;
+        private final Runnable body;
+        // Tasks that may only start once this one has finished
+        private final List<Integer> dependents = new ArrayList<>();
+        // Number of earlier tasks this one has to wait for
+        private int dependencyCount;
+        // Run time of the latest tick and the smoothed average, in nanoseconds
+        private volatile long lastNanos;
+        private volatile double averageNanos;
+
+        private Task(String name, List<String> reads, List<String> writes, Runnable body) {
+            this.name = name;
+            this.reads = reads;
+            this.writes = writes;
+            this.body = body;
+        }
+
+        // Returns true if this task has to wait for the given earlier task: one of
+        // them writes something the other reads or writes
+        private boolean conflictsWith(Task earlier) {
+            for (String resource : earlier.writes) {
+                if (reads.contains(resource) || writes.contains(resource)) {
+                    return true;
+                }
+            }
+            for (String resource : writes) {
+                if (earlier.reads.contains(resource)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public double getAverageNanos() {
+            return averageNanos;
+        }
+    }
+
+    // Pool the tasks run on, or null to run them one after another on the caller
+    private final ForkJoinPool pool;
+    // Tasks in the order they were added
+    private final List<Task> tasks = new ArrayList<>();
+
+    // Per-run bookkeeping: dependencies still outstanding for each task, tasks not
+    // yet finished, the thread waiting for the run and the first failure
+    private AtomicIntegerArray remaining = new AtomicIntegerArray(0);
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private volatile Thread waiter;
+    private volatile Throwable failure;
+
+    // Constructor to create a scheduler on the given pool (null runs serially)
+    public TickScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a task. It will wait for every earlier task it conflicts with, so tasks
+     * touching the same state still run in the order they were added.
+     */
+    public void addTask(String name, List<String> reads, List<String> writes, Runnable body) {
+        Task task = new Task(name, reads, writes, body);
+        int index = tasks.size();
+        for (int i = 0; i < index; i++) {
+            if (task.conflictsWith(tasks.get(i))) {
+                tasks.get(i).dependents.add(index);
+                task.dependencyCount++;
+            }
+        }
+        tasks.add(task);
+        remaining = new AtomicIntegerArray(tasks.size());
+    }
+
+    /**
+     * Runs every task once and returns when all of them have finished. A failure in
+     * any task is rethrown here after the rest of the graph has drained.
+     */
+    public void run() {
+        if (pool == null) {
+            for (Task task : tasks) {
+                execute(task);
+            }
+            rethrowFailure();
+            return;
+        }
+
+        failure = null;
+        waiter = Thread.currentThread();
+        unfinished.set(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            remaining.set(i, tasks.get(i).dependencyCount);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).dependencyCount == 0) {
+                submit(i);
+            }
+        }
+        while (unfinished.get() > 0) {
+            LockSupport.park(this);
+        }
+        waiter = null;
+        rethrowFailure();
+    }
+
+    // Hands a ready task to the pool
+    private void submit(int index) {
+        pool.execute(() -> {
+            Task task = tasks.get(index);
+            if (failure == null) {
+                execute(task);
+            }
+            // Release everything that was waiting on this task; a worker thread
+            // pushes them onto its own queue where idle workers can steal them
+            for (int dependent : task.dependents) {
+                if (remaining.decrementAndGet(dependent) == 0) {
+                    submit(dependent);
+                }
+            }
+            if (unfinished.decrementAndGet() == 0) {
+                LockSupport.unpark(waiter);
+            }
+        });
+    }
+
+    // Runs a task body and records how long it took
+    private void execute(Task task) {
+        long start = System.nanoTime();
+        try {
+            task.body.run();
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        task.lastNanos = elapsed;
+        task.averageNanos = task.averageNanos == 0 ? elapsed
+                : task.averageNanos + (elapsed - task.averageNanos) * TIMING_SMOOTHING;
+    }
+
+    // Throws the first failure of the last run on the calling thread
+    private void rethrowFailure() {
+        Throwable t = failure;
+        failure = null;
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t != null) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    // Returns the smoothed run time of every task in milliseconds, in the order added
+    public Map<String, Double> getAverageMillis() {
+        Map<String, Double> timings = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            timings.put(task.getName(), task.getAverageNanos() / 1_000_000.0);
+        }
+        return timings;
+    }
+
+    // Returns the tasks in the order they were added
+    public List<Task> getTasks() {
+        return tasks;
+    }
+}
@@ -25,6 +25,17 @@ public class WaveProgressBar {
     private final Color PROGRESS_COLOR = new Color(140, 200, 255); // Light blue color for progress
     private final Color BORDER_COLOR = Color.WHITE; // White border color
     private final Color TEXT_COLOR = Color.WHITE; // White text color
+    // The border is 2 px wide, as the health bar's stroke used to leave it
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(2f);
+
+    // Cached image of the bar, the space kept around it for the border, and the
+    // values it was last drawn with
+    private static final int LAYER_PAD = 1;
+    private final HudLayer LAYER = new HudLayer();
+    private int renderedWave = -1;
+    private int renderedDefeated;
+    private int renderedRequired;
+    private int renderedWidth;
 
     // Constructor to initialize the progress bar with a specific font
     public WaveProgressBar(Font font) {
@@ -47,13 +58,29 @@ public class WaveProgressBar {
         this.currentWave = wave; // Update the current wave number
     }
 
-    // Draws the progress bar on the screen
+    // Draws the progress bar on the screen, redrawing its layer only if the wave,
+    // the progress or the screen width changed since the last frame
     public void draw(Graphics2D g2d, int screenWidth) {
-        // Calculate the width and position of the progress bar, centered at the top of
-        // the screen
+        if (currentWave != renderedWave || currentEnemiesDefeated != renderedDefeated
+                || totalEnemiesRequired != renderedRequired || screenWidth != renderedWidth) {
+            render(screenWidth);
+        }
+        LAYER.draw(g2d, SIDE_MARGIN - LAYER_PAD, TOP_MARGIN - LAYER_PAD);
+    }
+
+    // Draws the progress bar into its layer
+    private void render(int screenWidth) {
+        renderedWave = currentWave;
+        renderedDefeated = currentEnemiesDefeated;
+        renderedRequired = totalEnemiesRequired;
+        renderedWidth = screenWidth;
+
+        // Calculate the width of the progress bar, centered at the top of the screen;
+        // the layer starts just outside the border
         int barWidth = screenWidth - (2 * SIDE_MARGIN); // Width of the bar, accounting for side margins
-        int barX = SIDE_MARGIN; // X-coordinate of the bar
-        int barY = TOP_MARGIN; // Y-coordinate of the bar
+        int barX = LAYER_PAD; // X-coordinate of the bar in the layer
+        int barY = LAYER_PAD; // Y-coordinate of the bar in the layer
+        Graphics2D g2d = LAYER.begin(barWidth + 2 * LAYER_PAD + 1, BAR_HEIGHT + 2 * LAYER_PAD + 1);
 
         // Draw the background rectangle for the progress bar
         g2d.setColor(BACKGROUND_COLOR);
@@ -70,6 +97,7 @@ public class WaveProgressBar {
 
         // Draw the border around the progress bar
         g2d.setColor(BORDER_COLOR);
+        g2d.setStroke(BORDER_STROKE);
         g2d.drawRect(barX, barY, barWidth, BAR_HEIGHT);
 
         // Create the text to display the wave and progress information
@@ -88,5 +116,6 @@ public class WaveProgressBar {
 
         // Draw the text on the progress bar
         g2d.drawString(waveText, textX, textY);
+        g2d.dispose();
     }
 }
@@ -1,6 +1,8 @@
 @echo off
 echo Compiling Java files...
 javac *.java
+echo Building asset pack...
+java AssetPackBuilder
 
 pause
 java Main
@@ -0,0 +1,10 @@
+@echo off
+echo Compiling Java files...
+javac *.java
+echo Compiling the SIMD steering kernel...
+javac --add-modules jdk.incubator.vector -cp . -d . simd/SteeringKernelSimd.java
+echo Building asset pack...
+java AssetPackBuilder
+
+pause
+java --add-modules jdk.incubator.vector -Dendlessnight.simd=true Main
@@ -0,0 +1,90 @@
+/*
+* Authors: Jerry Li & Victor Jiang
+* Date: June 13, 2025
+* Description: This class is the Vector API version of the separation and clamping kernels. It lives in its
+* own source root and is only compiled when asked for (see runSimd.bat), against the classes of the game:
+* "javac --add-modules jdk.incubator.vector -cp . -d . simd/SteeringKernelSimd.java". SteeringKernel only
+* loads it when SIMD is switched on, so the game builds and runs without the incubator module
+*/
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class SteeringKernelSimd implements SteeringKernel.Vectorized {
+    // Widest float vector the hardware supports (8 lanes on AVX2, 16 on AVX-512)
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    // Created by SteeringKernel when it loads the kernels
+    SteeringKernelSimd() {
+    }
+
+    /**
+     * Same result as SteeringKernel.separationScalar over the whole crowd, one
+     * vector of neighbours per iteration. Distances, the inside-radius mask, the
+     * inverse-square weight and the accumulation all run lane-wise; the neighbours
+     * past the last full vector go through the scalar loop.
+     */
+    @Override
+    public int separation(float[] xs, float[] ys, int count, float px, float py, float radius, float weight,
+            float[] out) {
+        float radiusSq = radius * radius;
+        FloatVector scale = FloatVector.broadcast(SPECIES, weight * radius);
+        FloatVector selfX = FloatVector.broadcast(SPECIES, px);
+        FloatVector selfY = FloatVector.broadcast(SPECIES, py);
+        FloatVector accX = FloatVector.zero(SPECIES);
+        FloatVector accY = FloatVector.zero(SPECIES);
+        int neighbours = 0;
+
+        int j = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; j < bound; j += SPECIES.length()) {
+            FloatVector dx = selfX.sub(FloatVector.fromArray(SPECIES, xs, j));
+            FloatVector dy = selfY.sub(FloatVector.fromArray(SPECIES, ys, j));
+            FloatVector distSq = dx.fma(dx, dy.mul(dy));
+            VectorMask<Float> inside = distSq.compare(VectorOperators.GT, 0f)
+                    .and(distSq.compare(VectorOperators.LT, radiusSq));
+            if (!inside.anyTrue()) {
+                continue; // Most blocks are entirely out of range, skip the divide
+            }
+            FloatVector factor = scale.div(distSq.mul(distSq.sqrt()), inside);
+            accX = accX.add(dx.mul(factor), inside);
+            accY = accY.add(dy.mul(factor), inside);
+            neighbours += inside.trueCount();
+        }
+
+        // Finish the neighbours that did not fill a whole vector
+        neighbours += SteeringKernel.separationScalar(xs, ys, j, count, px, py, radius, weight, out);
+        out[0] += accX.reduceLanes(VectorOperators.ADD);
+        out[1] += accY.reduceLanes(VectorOperators.ADD);
+        return neighbours;
+    }
+
+    /**
+     * Same result as SteeringKernel.clampLengthsScalar, one vector of slots per
+     * iteration. Only the lanes longer than the limit are scaled down; the slots
+     * past the last full vector go through the scalar loop.
+     */
+    @Override
+    public void clampLengths(float[] xs, float[] ys, int count, float maxLength) {
+        float maxSq = maxLength * maxLength;
+        FloatVector limit = FloatVector.broadcast(SPECIES, maxLength);
+
+        int i = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, xs, i);
+            FloatVector y = FloatVector.fromArray(SPECIES, ys, i);
+            FloatVector lenSq = x.fma(x, y.mul(y));
+            VectorMask<Float> over = lenSq.compare(VectorOperators.GT, maxSq);
+            if (!over.anyTrue()) {
+                continue;
+            }
+            FloatVector ratio = limit.div(lenSq.sqrt(), over);
+            x.mul(ratio, over).intoArray(xs, i);
+            y.mul(ratio, over).intoArray(ys, i);
+        }
+        SteeringKernel.clampLengthsScalar(xs, ys, i, count, maxLength);
+    }
+}